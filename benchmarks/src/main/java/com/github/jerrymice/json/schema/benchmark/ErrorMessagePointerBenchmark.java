@@ -0,0 +1,65 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.github.jerrymice.json.schema.pointer.impl.DefaultErrorMessagePointer;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一批验证失败消息的候选路径生成：优化前的字符串拼接+split与按(schemaPath,type,argument)缓存的list
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorMessagePointerBenchmark {
+    private ValidationMessage[] messages;
+    private LegacyErrorMessagePointer legacyPointer;
+    private DefaultErrorMessagePointer cachedPointer;
+
+    @Setup
+    public void setup() {
+        messages = new ValidationMessage[]{
+                ValidationMessage.of(ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED,
+                        "$", "#/required", "name"),
+                ValidationMessage.of(ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED,
+                        "$.mate", "#/properties/mate/required", "age"),
+                ValidationMessage.of(ValidatorTypeCode.TYPE.getValue(), ValidatorTypeCode.TYPE,
+                        "$.age", "#/properties/age/type", "null", "integer"),
+                ValidationMessage.of(ValidatorTypeCode.MIN_LENGTH.getValue(), ValidatorTypeCode.MIN_LENGTH,
+                        "$.mate.name", "#/properties/mate/properties/name/minLength", "2"),
+                ValidationMessage.of(ValidatorTypeCode.MAXIMUM.getValue(), ValidatorTypeCode.MAXIMUM,
+                        "$.mate.age", "#/properties/mate/properties/age/maximum", "110")
+        };
+        legacyPointer = new LegacyErrorMessagePointer();
+        cachedPointer = new DefaultErrorMessagePointer();
+    }
+
+    @Benchmark
+    public void legacyJoinAndSplit(Blackhole blackhole) {
+        for (ValidationMessage message : messages) {
+            blackhole.consume(legacyPointer.createPointers(message));
+        }
+    }
+
+    @Benchmark
+    public void cachedPointers(Blackhole blackhole) {
+        for (ValidationMessage message : messages) {
+            blackhole.consume(cachedPointer.createPointers(message));
+        }
+    }
+}
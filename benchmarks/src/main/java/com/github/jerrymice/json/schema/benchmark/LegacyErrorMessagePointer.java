@@ -0,0 +1,53 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+
+import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_KEY;
+
+/**
+ * 优化前按字符串拼接生成路径、再以","拆分的实现，只作为基准对比
+ */
+public class LegacyErrorMessagePointer {
+
+    public String[] createPointers(ValidationMessage message) {
+        String pointer;
+        if (assertTypeNull(message)) {
+            pointer = typeNull(message);
+        } else if (ValidatorTypeCode.REQUIRED.getValue().equals(message.getType())) {
+            pointer = typeRequired(message);
+        } else {
+            pointer = defaultPoint(message);
+        }
+        return pointer.split(",");
+    }
+
+    private boolean assertTypeNull(ValidationMessage message) {
+        return message.getType().equals(ValidatorTypeCode.TYPE.getValue()) &&
+                message.getArguments() != null &&
+                message.getArguments().length == 2 &&
+                message.getArguments()[0].equals("null");
+    }
+
+    private String typeNull(ValidationMessage message) {
+        return defaultPoint(message).replace("/" +
+                ValidatorTypeCode.TYPE.getValue(), "/" +
+                ValidatorTypeCode.REQUIRED.getValue()) + "," + defaultPoint(message);
+    }
+
+    private String typeRequired(ValidationMessage message) {
+        String nodeAt = message.getSchemaPath()
+                .replace("#/" + message.getType(), "")
+                .replace("/" + message.getType(), "");
+        nodeAt = nodeAt.equals("") ? "" : nodeAt + "/";
+        return "/" + ERROR_KEY + "/" + nodeAt + message.getArguments()[0] + "/" +
+                ValidatorTypeCode.REQUIRED.getValue();
+    }
+
+    private String defaultPoint(ValidationMessage message) {
+        String schemaPath = message.getSchemaPath();
+        return "/" + ERROR_KEY + schemaPath
+                .replace("#/" + ValidatorTypeCode.PROPERTIES.getValue(), "")
+                .replace("/" + ValidatorTypeCode.PROPERTIES.getValue() + "/", "/");
+    }
+}
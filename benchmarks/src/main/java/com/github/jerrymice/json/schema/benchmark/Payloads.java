@@ -0,0 +1,109 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidatorTypeCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * 基准测试使用的schema与按大小生成的订单数据
+ */
+public final class Payloads {
+    public static final String ORDER_SCHEMA = "/OrderSchema.json";
+    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 与测试用例一致，不在组合关键字上注册重写listener
+     */
+    private static final EnumSet<ValidatorTypeCode> EXCLUDE_KEYWORDS = EnumSet.of(ValidatorTypeCode.PROPERTIES,
+            ValidatorTypeCode.NOT, ValidatorTypeCode.NOT_ALLOWED, ValidatorTypeCode.ONE_OF,
+            ValidatorTypeCode.ALL_OF, ValidatorTypeCode.ANY_OF);
+
+    private Payloads() {
+    }
+
+    /**
+     * 在config上为每个验证关键字注册错误消息重写listener
+     *
+     * @param config
+     * @return
+     */
+    public static SchemaValidatorsConfig withRewriteListener(SchemaValidatorsConfig config) {
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener();
+        Arrays.stream(ValidatorTypeCode.values())
+                .filter(code -> !EXCLUDE_KEYWORDS.contains(code))
+                .forEach(code -> config.addKeywordWalkListener(code.getValue(), listener));
+        return config;
+    }
+
+    public static JsonNode readSchema(String path) {
+        try (InputStream in = Payloads.class.getResourceAsStream(path)) {
+            return OBJECT_MAPPER.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 生成大约targetBytes大小的订单数据，前invalidCount个订单各有一个错误
+     *
+     * @param targetBytes
+     * @param invalidCount
+     * @return
+     */
+    public static ObjectNode orders(int targetBytes, int invalidCount) {
+        int orderBytes = OBJECT_MAPPER.createObjectNode().set("ORD00000000", order(0, false)).toString().length();
+        int count = Math.max(Math.max(targetBytes / orderBytes, 1), invalidCount);
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        for (int i = 0; i < count; i++) {
+            root.set(orderId(i), order(i, i < invalidCount));
+        }
+        return root;
+    }
+
+    private static ObjectNode order(int i, boolean invalid) {
+        ObjectNode order = OBJECT_MAPPER.createObjectNode();
+        order.put("id", orderId(i));
+        order.put("customer", "涂铭鉴");
+        order.put("phone", "138" + String.format("%08d", i % 100000000));
+        order.put("amount", invalid ? 0 : 100 + i % 1000);
+        order.put("remark", "普通订单");
+        return order;
+    }
+
+    private static String orderId(int i) {
+        return "ORD" + String.format("%08d", i % 100000000);
+    }
+
+    /**
+     * 生成大约targetBytes大小的schema，每个属性都带有pattern、长度限制与$error
+     *
+     * @param targetBytes
+     * @return
+     */
+    public static ObjectNode schema(int targetBytes) {
+        ObjectNode base = (ObjectNode) readSchema(ORDER_SCHEMA);
+        JsonNode orderSchema = base.get("$defs").get("order");
+        int definitionBytes = orderSchema.toString().length();
+        int count = Math.max(targetBytes / definitionBytes, 1);
+        ObjectNode defs = OBJECT_MAPPER.createObjectNode();
+        ObjectNode properties = OBJECT_MAPPER.createObjectNode();
+        for (int i = 0; i < count; i++) {
+            String name = "order" + i;
+            defs.set(name, orderSchema.deepCopy());
+            properties.set(name, OBJECT_MAPPER.createObjectNode().put("$ref", "#/$defs/" + name));
+        }
+        base.remove("additionalProperties");
+        base.set("properties", properties);
+        base.set("$defs", defs);
+        return base;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.ValidatorManager;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 错误数量对消息重写开销的影响，对比同一文档上不带listener与带listener的walk
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewriteBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int errorCount;
+
+    private JsonNode document;
+    private ValidatorManager plainManager;
+    private ValidatorManager rewriteManager;
+
+    @Setup
+    public void setup() throws IOException {
+        document = Payloads.orders(0, errorCount);
+        plainManager = new ValidatorManager(Payloads.ORDER_SCHEMA);
+        plainManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        rewriteManager = new ValidatorManager(Payloads.ORDER_SCHEMA,
+                Payloads.withRewriteListener(plainManager.createDefaultSchemaValidatorsConfig()));
+        rewriteManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    @Benchmark
+    public Object walkWithoutRewrite() throws Exception {
+        return plainManager.walk(document, "benchmark", true);
+    }
+
+    @Benchmark
+    public Object walkWithRewrite() throws Exception {
+        return rewriteManager.walk(document, "benchmark", true);
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.SchemaManager;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.SchemaValidatorsConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * schema编译：每次新建配置的冷编译、只编译$error索引、命中编译缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaCompileBenchmark {
+    @Param({"1024", "102400", "1048576"})
+    public int schemaBytes;
+
+    private JsonNode schemaNode;
+    private SchemaValidatorsConfig cachedConfig;
+
+    @Setup
+    public void setup() {
+        schemaNode = Payloads.schema(schemaBytes);
+        cachedConfig = new SchemaValidatorsConfig();
+        SchemaManager.getSchema(schemaNode, cachedConfig);
+    }
+
+    /**
+     * 直接使用factory编译，不经过缓存
+     *
+     * @return
+     */
+    @Benchmark
+    public JsonSchema coldCompile() {
+        return SchemaManager.getJsonSchemaFactory().getSchema(schemaNode, new SchemaValidatorsConfig());
+    }
+
+    @Benchmark
+    public ErrorMessageIndex compileErrorIndex() {
+        return ErrorMessageIndex.compile(schemaNode);
+    }
+
+    /**
+     * 命中缓存时需要按内容计算key，schema越大equals越慢
+     *
+     * @return
+     */
+    @Benchmark
+    public JsonSchema cachedCompile() {
+        return SchemaManager.getSchema(schemaNode, cachedConfig);
+    }
+}
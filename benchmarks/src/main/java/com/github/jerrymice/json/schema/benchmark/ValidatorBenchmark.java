@@ -0,0 +1,64 @@
+package com.github.jerrymice.json.schema.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.ValidatorManager;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同大小的文档在validate与带重写listener的walk下的耗时，invalid时每个订单都有一个错误
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+    @Param({"1024", "102400", "1048576", "10485760"})
+    public int documentBytes;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private JsonNode document;
+    private ValidatorManager validateManager;
+    private ValidatorManager walkManager;
+
+    @Setup
+    public void setup() throws IOException {
+        document = Payloads.orders(documentBytes, 0);
+        if (!valid) {
+            document = Payloads.orders(documentBytes, document.size());
+        }
+        validateManager = new ValidatorManager(Payloads.ORDER_SCHEMA);
+        validateManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        ValidatorManager configManager = new ValidatorManager();
+        walkManager = new ValidatorManager(Payloads.ORDER_SCHEMA,
+                Payloads.withRewriteListener(configManager.createDefaultSchemaValidatorsConfig()));
+        walkManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    @Benchmark
+    public Object validate() throws Exception {
+        return validateManager.validate(document, "benchmark");
+    }
+
+    @Benchmark
+    public Object walkWithRewrite() throws Exception {
+        return walkManager.walk(document, "benchmark", true);
+    }
+}
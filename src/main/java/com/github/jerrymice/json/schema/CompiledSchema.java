@@ -0,0 +1,112 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.github.jerrymice.json.schema.mode.ErrorBudgetWalkListener;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.SchemaValidatorsConfig;
+
+import java.util.function.Function;
+
+/**
+ * 编译完成的schema快照，创建后不可变，由ValidatorManager通过volatile字段整体发布
+ */
+public final class CompiledSchema {
+    private final JsonSchema jsonSchema;
+    private final SchemaValidatorsConfig schemaValidatorsConfig;
+    private final long version;
+    /**
+     * 按指定配置重新编译同一个schema，为null时不能编译检查错误预算的版本
+     */
+    private final Function<SchemaValidatorsConfig, JsonSchema> compiler;
+    private volatile JsonSchema errorBudgetSchema;
+    private volatile JsonSchema booleanSchema;
+
+    public CompiledSchema(JsonSchema jsonSchema, SchemaValidatorsConfig schemaValidatorsConfig) {
+        this(jsonSchema, schemaValidatorsConfig, 1);
+    }
+
+    /**
+     * @param jsonSchema
+     * @param schemaValidatorsConfig
+     * @param version                每次重新加载加1
+     */
+    public CompiledSchema(JsonSchema jsonSchema, SchemaValidatorsConfig schemaValidatorsConfig, long version) {
+        this(jsonSchema, schemaValidatorsConfig, version, null);
+    }
+
+    /**
+     * @param jsonSchema
+     * @param schemaValidatorsConfig
+     * @param version
+     * @param compiler               按配置编译同一个schema，用于ValidationMode
+     */
+    CompiledSchema(JsonSchema jsonSchema, SchemaValidatorsConfig schemaValidatorsConfig, long version,
+                   Function<SchemaValidatorsConfig, JsonSchema> compiler) {
+        if (jsonSchema == null) {
+            throw new IllegalArgumentException("jsonSchema must not be null");
+        }
+        this.jsonSchema = jsonSchema;
+        this.schemaValidatorsConfig = schemaValidatorsConfig;
+        this.version = version;
+        this.compiler = compiler;
+    }
+
+    public JsonSchema getJsonSchema() {
+        return jsonSchema;
+    }
+
+    public SchemaValidatorsConfig getSchemaValidatorsConfig() {
+        return schemaValidatorsConfig;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 按新的配置重新编译同一个schema，版本加1
+     *
+     * @param config
+     * @return 不能重新编译时返回自己
+     */
+    CompiledSchema recompile(SchemaValidatorsConfig config) {
+        return compiler == null ? this : new CompiledSchema(compiler.apply(config), config, version + 1, compiler);
+    }
+
+    /**
+     * 在每个关键字上检查错误预算的版本，使用配置的副本编译，第一次使用时才编译，
+     * FULL模式使用的jsonSchema不经过预算检查。
+     * <p>
+     * failFast和walk listener都在编译时读取，所以需要单独编译；不重写消息的版本去掉了
+     * {@link ErrorMessageRewriteWalkListener}，walk时不会调用它
+     *
+     * @param rewrite 是否重写验证消息
+     * @return 不能重新编译时返回null
+     */
+    JsonSchema getErrorBudgetSchema(boolean rewrite) {
+        JsonSchema schema = rewrite ? errorBudgetSchema : booleanSchema;
+        if (schema != null || compiler == null) {
+            return schema;
+        }
+        synchronized (this) {
+            schema = rewrite ? errorBudgetSchema : booleanSchema;
+            if (schema == null) {
+                SchemaValidatorsConfig config = SchemaManager.copyConfig(schemaValidatorsConfig);
+                if (!rewrite) {
+                    config.getKeywordWalkListenersMap().values()
+                            .forEach(listeners -> listeners.removeIf(ErrorMessageRewriteWalkListener.class::isInstance));
+                    config.getPropertyWalkListeners().removeIf(ErrorMessageRewriteWalkListener.class::isInstance);
+                    config.getArrayItemWalkListeners().removeIf(ErrorMessageRewriteWalkListener.class::isInstance);
+                }
+                ErrorBudgetWalkListener.register(config);
+                schema = compiler.apply(config);
+                if (rewrite) {
+                    errorBudgetSchema = schema;
+                } else {
+                    booleanSchema = schema;
+                }
+            }
+            return schema;
+        }
+    }
+}
@@ -4,4 +4,8 @@ public interface KeyWordExt {
     String ERROR_CODE_KEY = "code";
     String ERROR_MESSAGE_KEY = "message";
     String ERROR_KEY = "$error";
+    /**
+     * schema的版本，SchemaRegistry按title与version索引
+     */
+    String VERSION_KEY = "version";
 }
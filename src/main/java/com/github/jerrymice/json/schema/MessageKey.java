@@ -0,0 +1,65 @@
+package com.github.jerrymice.json.schema;
+
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Objects;
+
+/**
+ * 验证消息的结构化标识，由type、schemaPath、path和第一个参数组成，
+ * 同一个错误的原始消息与重写后的消息拥有相同的key，用于去重
+ */
+public final class MessageKey {
+    /**
+     * 未重写的原始消息以数据路径开头，属性为$.name，数组元素为$[0]
+     */
+    private static final String RAW_MESSAGE_PREFIX = "$.";
+    private static final String RAW_ARRAY_MESSAGE_PREFIX = "$[";
+
+    private final String type;
+    private final String schemaPath;
+    private final String path;
+    private final String argument;
+    private final int hash;
+
+    private MessageKey(String type, String schemaPath, String path, String argument) {
+        this.type = type;
+        this.schemaPath = schemaPath;
+        this.path = path;
+        this.argument = argument;
+        this.hash = 31 * (31 * (31 * Objects.hashCode(type) + Objects.hashCode(schemaPath))
+                + Objects.hashCode(path)) + Objects.hashCode(argument);
+    }
+
+    public static MessageKey of(ValidationMessage message) {
+        String[] arguments = message.getArguments();
+        String argument = arguments != null && arguments.length > 0 ? arguments[0] : null;
+        return new MessageKey(message.getType(), message.getSchemaPath(), message.getPath(), argument);
+    }
+
+    /**
+     * @param message
+     * @return 消息是否还是未重写的原始消息
+     */
+    public static boolean isRaw(ValidationMessage message) {
+        String text = message.getMessage();
+        return text != null && (text.startsWith(RAW_MESSAGE_PREFIX) || text.startsWith(RAW_ARRAY_MESSAGE_PREFIX));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MessageKey)) {
+            return false;
+        }
+        MessageKey that = (MessageKey) o;
+        return hash == that.hash && Objects.equals(type, that.type) && Objects.equals(schemaPath, that.schemaPath)
+                && Objects.equals(path, that.path) && Objects.equals(argument, that.argument);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -1,32 +1,170 @@
 package com.github.jerrymice.json.schema;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.keyword.CachedPatternKeyword;
+import com.github.jerrymice.json.schema.keyword.ItemsKeyword;
 import com.networknt.schema.JsonMetaSchema;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.NonValidationKeyword;
 import com.networknt.schema.SchemaValidatorsConfig;
 import com.networknt.schema.SpecVersion;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SchemaManager {
     private static final String V202012_EXT_V1 = "https://json-schema.org/draft/2020-12-ext-v1/schema";
+    private static final String[] V202012_EXT_V1_KEYWORDS = {"else", KeyWordExt.ERROR_KEY, KeyWordExt.VERSION_KEY};
+    private static final int DEFAULT_SCHEMA_CACHE_SIZE = 512;
+    /**
+     * 2020-12 meta-schema中不参与验证的关键字
+     */
+    private static final Set<String> V202012_NON_VALIDATION_KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "$schema", "$id", "title", "description", "default", "definitions", "$comment", "$defs", "$anchor",
+            "deprecated", "contentMediaType", "contentEncoding", "examples", "then", "unevaluatedItems")));
+
+    /**
+     * 按meta-schema uri记录的不参与验证的关键字，包括2020-12自身的和扩展的
+     */
+    private static final Map<String, Set<String>> NON_VALIDATION_KEYWORDS = new ConcurrentHashMap<>();
+
+    /**
+     * 按meta-schema uri和自定义关键字缓存的JsonSchemaFactory
+     */
+    private static final Map<FactoryKey, JsonSchemaFactory> FACTORY_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 按$id、schema内容和配置缓存编译后的JsonSchema
+     */
+    private static volatile LruCache<SchemaKey, JsonSchema> schemaCache = new LruCache<>(DEFAULT_SCHEMA_CACHE_SIZE);
 
     /**
+     * 获取编译后的JsonSchema，相同的schema内容与配置只编译一次，同时预编译$error索引
+     *
      * @param jsonNode
      * @param config
      * @return
      */
     public static JsonSchema getSchema(JsonNode jsonNode, SchemaValidatorsConfig config) {
-        JsonSchemaFactory jsonSchemaFactory = createExtJsonSchemaFactory();
-        return jsonSchemaFactory.getSchema(jsonNode, config);
+        return schemaCache.computeIfAbsent(new SchemaKey(jsonNode, config), key -> {
+            //预编译$error索引，${..}引用无效时在加载阶段直接抛出
+            ErrorMessageIndex.forSchemaNode(jsonNode);
+            return getJsonSchemaFactory().getSchema(jsonNode, config);
+        });
+    }
+
+    /**
+     * @return 默认的2020-12-ext-v1 JsonSchemaFactory
+     */
+    public static JsonSchemaFactory getJsonSchemaFactory() {
+        return getJsonSchemaFactory(V202012_EXT_V1, V202012_EXT_V1_KEYWORDS);
     }
 
     /**
+     * 获取基于V202012扩展的JsonSchemaFactory，相同的meta-schema uri与关键字共用一个实例
+     *
+     * @param metaSchemaUri
+     * @param nonValidationKeywords
      * @return
      */
-    private static JsonSchemaFactory createExtJsonSchemaFactory() {
+    public static JsonSchemaFactory getJsonSchemaFactory(String metaSchemaUri, String... nonValidationKeywords) {
+        FactoryKey key = new FactoryKey(metaSchemaUri, nonValidationKeywords);
+        return FACTORY_CACHE.computeIfAbsent(key, SchemaManager::createExtJsonSchemaFactory);
+    }
+
+    /**
+     * @param metaSchemaUri schema中$schema的值，为null或者不是通过SchemaManager创建的meta-schema时按2020-12处理
+     * @return meta-schema中不参与验证的关键字
+     */
+    public static Set<String> getNonValidationKeywords(String metaSchemaUri) {
+        Set<String> keywords = metaSchemaUri == null ? null : NON_VALIDATION_KEYWORDS.get(normalizeUri(metaSchemaUri));
+        return keywords == null ? V202012_NON_VALIDATION_KEYWORDS : keywords;
+    }
+
+    /**
+     * @return 默认的验证配置，ValidatorManager与SchemaRegistry共用
+     */
+    public static SchemaValidatorsConfig createDefaultSchemaValidatorsConfig() {
+        SchemaValidatorsConfig schemaValidatorsConfig = new SchemaValidatorsConfig();
+        schemaValidatorsConfig.setOpenAPI3StyleDiscriminators(false);
+        schemaValidatorsConfig.setFailFast(false);
+        return schemaValidatorsConfig;
+    }
+
+    /**
+     * 复制配置和已经注册的walk listener，修改副本中的listener不影响原配置，
+     * 用于在用户的配置上追加只属于某一个schema的listener
+     *
+     * @param config
+     * @return
+     */
+    public static SchemaValidatorsConfig copyConfig(SchemaValidatorsConfig config) {
+        SchemaValidatorsConfig copy = new SchemaValidatorsConfig();
+        copy.setTypeLoose(config.isTypeLoose());
+        copy.setFailFast(config.isFailFast());
+        copy.setApplyDefaultsStrategy(config.getApplyDefaultsStrategy());
+        copy.setUriMappings(new HashMap<>(config.getUriMappings()));
+        copy.setHandleNullableField(config.isHandleNullableField());
+        copy.setEcma262Validator(config.isEcma262Validator());
+        copy.setJavaSemantics(config.isJavaSemantics());
+        copy.setLosslessNarrowing(config.isLosslessNarrowing());
+        copy.setOpenAPI3StyleDiscriminators(config.isOpenAPI3StyleDiscriminators());
+        copy.setResetCollectorContext(config.isResetCollectorContext());
+        copy.setLoadCollectors(config.doLoadCollectors());
+        copy.setCollectorContext(config.getCollectorContext());
+        for (Map.Entry<String, List<JsonSchemaWalkListener>> entry : config.getKeywordWalkListenersMap().entrySet()) {
+            copy.addKeywordWalkListeners(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        copy.addPropertyWalkListeners(new ArrayList<>(config.getPropertyWalkListeners()));
+        copy.addItemWalkListeners(new ArrayList<>(config.getArrayItemWalkListeners()));
+        return copy;
+    }
+
+    /**
+     * @return 编译缓存的命中统计
+     */
+    public static CacheStats getSchemaCacheStats() {
+        return schemaCache.stats();
+    }
+
+    /**
+     * 重新设置编译缓存的容量，已缓存的schema会被丢弃
+     *
+     * @param maximumSize
+     */
+    public static void setSchemaCacheSize(int maximumSize) {
+        schemaCache = new LruCache<>(maximumSize);
+    }
+
+    public static void clearSchemaCache() {
+        schemaCache.clear();
+    }
+
+    /**
+     * @return
+     */
+    private static JsonSchemaFactory createExtJsonSchemaFactory(FactoryKey key) {
         JsonMetaSchema v202012 = JsonMetaSchema.getV202012();
-        JsonMetaSchema customSchema = createV2012ExtJsonMetaSchema(v202012);
+        JsonMetaSchema customSchema = createV2012ExtJsonMetaSchema(key.metaSchemaUri, key.keywords, v202012);
+        NON_VALIDATION_KEYWORDS.compute(normalizeUri(key.metaSchemaUri), (uri, keywords) -> {
+            Set<String> merged = new HashSet<>(keywords == null ? V202012_NON_VALIDATION_KEYWORDS : keywords);
+            merged.addAll(key.keywords);
+            return Collections.unmodifiableSet(merged);
+        });
         JsonSchemaFactory parent = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
         return JsonSchemaFactory.builder(parent)
                 .addMetaSchema(customSchema).build();
@@ -36,11 +174,84 @@ public class SchemaManager {
      * @param v202012
      * @return
      */
-    private static JsonMetaSchema createV2012ExtJsonMetaSchema(JsonMetaSchema v202012) {
-        //自定义一个版本，并添加else关键字
-        return JsonMetaSchema.builder(V202012_EXT_V1, v202012)
-                .addKeyword(new NonValidationKeyword("else"))
-                .addKeyword(new NonValidationKeyword(KeyWordExt.ERROR_KEY))
-                .build();
+    private static JsonMetaSchema createV2012ExtJsonMetaSchema(String uri, Set<String> keywords, JsonMetaSchema v202012) {
+        //自定义一个版本，并添加else、$error等关键字，补上2020-12的items，pattern使用共享的正则缓存
+        JsonMetaSchema.Builder builder = JsonMetaSchema.builder(uri, v202012);
+        builder.addKeyword(new ItemsKeyword());
+        builder.addKeyword(new CachedPatternKeyword());
+        for (String keyword : keywords) {
+            builder.addKeyword(new NonValidationKeyword(keyword));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 去掉uri末尾的#，与JsonSchemaFactory查找meta-schema的方式相同
+     */
+    private static String normalizeUri(String uri) {
+        return uri.endsWith("#") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+
+    private static final class FactoryKey {
+        private final String metaSchemaUri;
+        private final Set<String> keywords;
+
+        private FactoryKey(String metaSchemaUri, String[] keywords) {
+            this.metaSchemaUri = Objects.requireNonNull(metaSchemaUri, "metaSchemaUri");
+            this.keywords = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(keywords)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FactoryKey)) {
+                return false;
+            }
+            FactoryKey that = (FactoryKey) o;
+            return metaSchemaUri.equals(that.metaSchemaUri) && keywords.equals(that.keywords);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * metaSchemaUri.hashCode() + keywords.hashCode();
+        }
+    }
+
+    /**
+     * 编译缓存的key，配置按引用比较，schema内容按$id与内容比较，hash只计算一次
+     */
+    private static final class SchemaKey {
+        private final String id;
+        private final JsonNode schemaNode;
+        private final SchemaValidatorsConfig config;
+        private final int hash;
+
+        private SchemaKey(JsonNode schemaNode, SchemaValidatorsConfig config) {
+            JsonNode idNode = schemaNode.get("$id");
+            this.id = idNode == null ? "" : idNode.asText();
+            this.schemaNode = schemaNode;
+            this.config = config;
+            this.hash = 31 * (31 * id.hashCode() + schemaNode.hashCode()) + System.identityHashCode(config);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SchemaKey)) {
+                return false;
+            }
+            SchemaKey that = (SchemaKey) o;
+            return hash == that.hash && config == that.config && id.equals(that.id)
+                    && (schemaNode == that.schemaNode || schemaNode.equals(that.schemaNode));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
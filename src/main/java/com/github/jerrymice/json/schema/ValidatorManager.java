@@ -1,32 +1,173 @@
 package com.github.jerrymice.json.schema;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.github.jerrymice.json.schema.batch.BatchOptions;
+import com.github.jerrymice.json.schema.batch.BatchResult;
+import com.github.jerrymice.json.schema.batch.BatchValidator;
+import com.github.jerrymice.json.schema.bundle.BundleSchemaSource;
+import com.github.jerrymice.json.schema.cache.ValidationResultCache;
+import com.github.jerrymice.json.schema.incremental.IncrementalResult;
+import com.github.jerrymice.json.schema.incremental.IncrementalValidator;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.github.jerrymice.json.schema.metrics.NoopValidationMetrics;
+import com.github.jerrymice.json.schema.metrics.ValidationMetrics;
+import com.github.jerrymice.json.schema.mode.ErrorBudget;
+import com.github.jerrymice.json.schema.mode.ValidationMode;
+import com.github.jerrymice.json.schema.observer.LoggingValidationObserver;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.github.jerrymice.json.schema.observer.ValidationObserver;
+import com.github.jerrymice.json.schema.profile.KeywordProfiler;
+import com.github.jerrymice.json.schema.profile.KeywordProfilerListener;
+import com.github.jerrymice.json.schema.registry.RegistrySchemaSource;
+import com.github.jerrymice.json.schema.reload.ReloadStats;
+import com.github.jerrymice.json.schema.report.ValidationReport;
+import com.github.jerrymice.json.schema.source.ClasspathSchemaSource;
+import com.github.jerrymice.json.schema.source.SchemaSource;
+import com.github.jerrymice.json.schema.stream.ArrayItemListener;
+import com.github.jerrymice.json.schema.stream.ArrayValidationResult;
+import com.github.jerrymice.json.schema.stream.StreamingArrayValidator;
+import com.networknt.schema.CollectorContext;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.SchemaValidatorsConfig;
 import com.networknt.schema.ValidationMessage;
 import com.networknt.schema.ValidationResult;
+import com.networknt.schema.ValidatorState;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Slf4j
 public class ValidatorManager {
+    /**
+     * 没有$id也没有schema来源时指标中使用的schema名称
+     */
+    private static final String DEFAULT_SCHEMA_NAME = "default";
+    /**
+     * 超过错误上限时按path、关键字、code、message排序后保留前面的消息，相同输入每次保留的消息相同
+     */
+    private static final Comparator<ValidationMessage> MESSAGE_ORDER = Comparator
+            .comparing((ValidationMessage message) -> String.valueOf(message.getPath()))
+            .thenComparing(message -> String.valueOf(message.getType()))
+            .thenComparing(message -> String.valueOf(message.getCode()))
+            .thenComparing(message -> String.valueOf(message.getMessage()));
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
     private String schemaFilePath;
 
-    private JsonSchema jsonSchema;
+    /**
+     * schema的来源，为null时从classpath的schemaFilePath加载
+     */
+    private SchemaSource schemaSource;
 
     private SchemaValidatorsConfig schemaValidatorsConfig;
 
+    private ValidationObserver validationObserver = new LoggingValidationObserver();
+
+    /**
+     * 编译时按$error索引注册错误消息重写listener，walk时重写验证消息
+     */
+    private boolean rewriteErrorMessages;
+
+    private ErrorMessageRewriteWalkListener errorMessageRewriteWalkListener = new ErrorMessageRewriteWalkListener();
+
+    private volatile ValidationMetrics validationMetrics = NoopValidationMetrics.INSTANCE;
+
+    /**
+     * 编译时注册在配置副本的每个关键字上，转发给当前的KeywordProfiler，没有设置profiler时不统计
+     */
+    private final KeywordProfilerListener keywordProfilerListener = new KeywordProfilerListener();
+
+    /**
+     * validate的结果缓存，为null时不缓存
+     */
+    private volatile ValidationResultCache resultCache;
+
+    /**
+     * 编译完成的schema，只在initLock中整体替换，读取不需要加锁
+     */
+    private volatile CompiledSchema compiledSchema;
+
+    private final Object initLock = new Object();
+
+    /**
+     * 上一次编译使用的配置副本，以及生成副本时的用户配置、重写listener和关键字，只在initLock中修改。
+     * 重新加载时这些都没有变化才继续使用副本，否则生成新的副本，旧副本上的listener随旧版本一起丢弃
+     */
+    private SchemaValidatorsConfig derivedConfig;
+    private SchemaValidatorsConfig derivedFrom;
+    private ErrorMessageRewriteWalkListener derivedListener;
+    private Set<String> derivedKeywords;
+    private boolean derivedProfiled;
+
+    /**
+     * 重新加载的统计，只在initLock中修改
+     */
+    private long reloadCount;
+    private long reloadFailureCount;
+    private long lastReloadNanos;
+    private long maxReloadNanos;
+    private long totalReloadNanos;
+    private String lastReloadFailure;
+
+    public ValidatorManager() {
+    }
+
+    /**
+     * 创建后立即编译schema
+     *
+     * @param schemaFilePath
+     * @throws IOException
+     */
+    public ValidatorManager(String schemaFilePath) throws IOException {
+        this(schemaFilePath, null);
+    }
+
+    /**
+     * 创建后立即编译schema
+     *
+     * @param schemaFilePath
+     * @param schemaValidatorsConfig 为null时使用默认配置
+     * @throws IOException
+     */
+    public ValidatorManager(String schemaFilePath, SchemaValidatorsConfig schemaValidatorsConfig) throws IOException {
+        this.schemaFilePath = schemaFilePath;
+        this.schemaValidatorsConfig = schemaValidatorsConfig;
+        initJsonSchema();
+    }
+
+    /**
+     * 从指定来源加载，创建后立即编译schema
+     *
+     * @param schemaSource
+     * @param schemaValidatorsConfig 为null时使用默认配置
+     * @throws IOException
+     */
+    public ValidatorManager(SchemaSource schemaSource, SchemaValidatorsConfig schemaValidatorsConfig) throws IOException {
+        this.schemaSource = schemaSource;
+        this.schemaValidatorsConfig = schemaValidatorsConfig;
+        initJsonSchema();
+    }
+
     public void setObjectMapper(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
@@ -39,12 +180,148 @@ public class ValidatorManager {
         this.schemaFilePath = schemaFilePath;
     }
 
+    public SchemaSource getSchemaSource() {
+        return schemaSource != null ? schemaSource : new ClasspathSchemaSource(schemaFilePath, ValidatorManager.class);
+    }
+
+    /**
+     * 设置schema的来源，设置后schemaFilePath不再生效
+     *
+     * @param schemaSource
+     */
+    public void setSchemaSource(SchemaSource schemaSource) {
+        this.schemaSource = schemaSource;
+    }
+
     public JsonSchema getJsonSchema() {
-        return jsonSchema;
+        CompiledSchema current = compiledSchema;
+        return current == null ? null : current.getJsonSchema();
     }
 
+    /**
+     * 直接使用已经编译好的JsonSchema
+     *
+     * @param jsonSchema
+     */
     public void setJsonSchema(JsonSchema jsonSchema) {
-        this.jsonSchema = jsonSchema;
+        synchronized (initLock) {
+            CompiledSchema current = compiledSchema;
+            long version = current == null ? 1 : current.getVersion() + 1;
+            compiledSchema = jsonSchema == null ? null : new CompiledSchema(jsonSchema, schemaValidatorsConfig, version);
+            clearResultCache();
+        }
+    }
+
+    /**
+     * schema替换后旧版本的结果不会再被命中，直接释放
+     */
+    private void clearResultCache() {
+        ValidationResultCache cache = resultCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public ValidationObserver getValidationObserver() {
+        return validationObserver;
+    }
+
+    /**
+     * @param validationObserver 为null时不做任何处理
+     */
+    public void setValidationObserver(ValidationObserver validationObserver) {
+        this.validationObserver = validationObserver == null ? NoopValidationObserver.INSTANCE : validationObserver;
+    }
+
+    public boolean isRewriteErrorMessages() {
+        return rewriteErrorMessages;
+    }
+
+    /**
+     * 开启后编译schema时只在$error中定义了错误消息的关键字上注册重写listener，不需要逐个关键字调用addKeywordWalkListener。
+     * 只对walk生效，需要在schema编译前设置
+     *
+     * @param rewriteErrorMessages
+     */
+    public void setRewriteErrorMessages(boolean rewriteErrorMessages) {
+        this.rewriteErrorMessages = rewriteErrorMessages;
+    }
+
+    public ErrorMessageRewriteWalkListener getErrorMessageRewriteWalkListener() {
+        return errorMessageRewriteWalkListener;
+    }
+
+    /**
+     * @param errorMessageRewriteWalkListener 开启rewriteErrorMessages时注册的listener
+     */
+    public void setErrorMessageRewriteWalkListener(ErrorMessageRewriteWalkListener errorMessageRewriteWalkListener) {
+        this.errorMessageRewriteWalkListener = errorMessageRewriteWalkListener;
+        if (errorMessageRewriteWalkListener != null && validationMetrics != NoopValidationMetrics.INSTANCE) {
+            errorMessageRewriteWalkListener.setValidationMetrics(validationMetrics);
+        }
+    }
+
+    public ValidationMetrics getValidationMetrics() {
+        return validationMetrics;
+    }
+
+    /**
+     * 设置验证指标，同时记录errorMessageRewriteWalkListener的重写失败次数
+     *
+     * @param validationMetrics 为null时不记录
+     */
+    public void setValidationMetrics(ValidationMetrics validationMetrics) {
+        this.validationMetrics = validationMetrics == null ? NoopValidationMetrics.INSTANCE : validationMetrics;
+        if (errorMessageRewriteWalkListener != null) {
+            errorMessageRewriteWalkListener.setValidationMetrics(this.validationMetrics);
+        }
+    }
+
+    public KeywordProfiler getKeywordProfiler() {
+        return keywordProfilerListener.getTarget();
+    }
+
+    /**
+     * 设置关键字耗时统计，按profiler的抽样比例对walk计时，validate不经过walk listener，不会被统计。
+     * 转发listener只在设置了profiler时注册在配置的副本上，没有profiler时walk不经过它。
+     * 可以在编译后随时设置，开启或关闭时按新的配置副本重新编译同一个schema，更换profiler只替换转发的目标；
+     * 通过{@link #setJsonSchema}设置的schema不能重新编译，不会被统计
+     *
+     * @param keywordProfiler 为null时关闭统计
+     */
+    public void setKeywordProfiler(KeywordProfiler keywordProfiler) {
+        synchronized (initLock) {
+            boolean profiled = keywordProfilerListener.getTarget() != null;
+            keywordProfilerListener.setTarget(keywordProfiler);
+            CompiledSchema current = compiledSchema;
+            if (profiled == (keywordProfiler != null) || current == null || derivedConfig != current.getSchemaValidatorsConfig()) {
+                return;
+            }
+            SchemaValidatorsConfig config = SchemaManager.copyConfig(current.getSchemaValidatorsConfig());
+            if (keywordProfiler == null) {
+                keywordProfilerListener.unregister(config);
+            } else {
+                keywordProfilerListener.register(config);
+            }
+            compiledSchema = current.recompile(config);
+            derivedConfig = config;
+            derivedProfiled = keywordProfiler != null;
+            clearResultCache();
+        }
+    }
+
+    public ValidationResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 设置validate的结果缓存，相同内容在同一个schema版本下只验证一次，schema替换后缓存清空。
+     * 缓存的结果不经过walk listener，只对validate生效，开启后validate返回只读的结果
+     *
+     * @param resultCache 为null时关闭缓存
+     */
+    public void setResultCache(ValidationResultCache resultCache) {
+        this.resultCache = resultCache;
     }
 
     public ObjectMapper getObjectMapper() {
@@ -52,9 +329,16 @@ public class ValidatorManager {
     }
 
     public SchemaValidatorsConfig getSchemaValidatorsConfig() {
-        return schemaValidatorsConfig;
+        CompiledSchema current = compiledSchema;
+        return current == null ? schemaValidatorsConfig : current.getSchemaValidatorsConfig();
     }
 
+    /**
+     * 设置编译schema时使用的配置，schema已经编译后设置不再生效。
+     * 编译时使用配置的副本注册本实例的listener，不修改传入的配置，多个实例可以共用同一个配置
+     *
+     * @param schemaValidatorsConfig
+     */
     public void setSchemaValidatorsConfig(SchemaValidatorsConfig schemaValidatorsConfig) {
         this.schemaValidatorsConfig = schemaValidatorsConfig;
     }
@@ -66,56 +350,378 @@ public class ValidatorManager {
      * @throws Exception
      */
     public Set<ValidationMessage> validate(Object javabean, String title) throws Exception {
-        initJsonSchema();
-        return validate(javabean, title, jsonSchema);
+        return validate(javabean, title, getCompiledSchema());
     }
 
     public ValidationResult walk(Object javabean, String title, boolean shouldValidateSchema) throws Exception {
-        initJsonSchema();
-        return walk(javabean, title, jsonSchema, shouldValidateSchema);
+        return walk(javabean, title, getCompiledSchema().getJsonSchema(), shouldValidateSchema);
+    }
+
+    /**
+     * 按指定模式验证，FULL与{@link #validate(Object, String)}相同，
+     * 其它模式通过walk执行，错误数量达到上限后跳过剩余的关键字，返回的错误不超过上限
+     *
+     * @param javabean
+     * @param title
+     * @param mode
+     * @return
+     * @throws Exception
+     */
+    public Set<ValidationMessage> validate(Object javabean, String title, ValidationMode mode) throws Exception {
+        if (mode.isFull()) {
+            return validate(javabean, title);
+        }
+        return walk(javabean, title, mode).getValidationMessages();
     }
 
-    public void initJsonSchema() throws Exception {
-        if (schemaValidatorsConfig == null) {
-            schemaValidatorsConfig = createDefaultSchemaValidatorsConfig();
+    /**
+     * 按指定模式walk，BOOLEAN模式下不重写验证消息。
+     * 使用在每个关键字上检查错误预算的schema副本，第一次使用时编译；
+     * 通过{@link #setJsonSchema}设置的schema不能重新编译，完整walk后截取，BOOLEAN模式下完整validate后截取
+     *
+     * @param javabean
+     * @param title
+     * @param mode
+     * @return
+     * @throws Exception
+     */
+    public ValidationResult walk(Object javabean, String title, ValidationMode mode) throws Exception {
+        CompiledSchema current = getCompiledSchema();
+        if (mode.isFull()) {
+            return walk(javabean, title, current.getJsonSchema(), true);
         }
-        if (jsonSchema == null) {
-            jsonSchema = createJsonSchemaByFile();
+        JsonSchema errorBudgetSchema = current.getErrorBudgetSchema(mode.isRewriteEnabled());
+        ValidationResult result;
+        if (errorBudgetSchema != null) {
+            result = ErrorBudget.run(mode, () -> walk(javabean, title, errorBudgetSchema, true));
+        } else if (mode.isRewriteEnabled()) {
+            result = walk(javabean, title, current.getJsonSchema(), true);
+        } else {
+            result = new ValidationResult(new LinkedHashSet<>(validate(javabean, title, current)), null);
         }
+        limitValidationMessages(result.getValidationMessages(), mode.getMaxErrors());
+        return result;
+    }
+
+    /**
+     * 验证并返回结构化的结果，开启rewriteErrorMessages时通过walk返回重写后的code和message
+     *
+     * @param javabean
+     * @param title
+     * @return 验证通过时返回{@link ValidationReport#VALID}
+     * @throws Exception
+     */
+    public ValidationReport report(Object javabean, String title) throws Exception {
+        return report(javabean, title, ValidationMode.FULL);
     }
 
     /**
+     * @param javabean
+     * @param title
+     * @param mode
+     * @return 验证通过时返回{@link ValidationReport#VALID}
+     * @throws Exception
+     */
+    public ValidationReport report(Object javabean, String title, ValidationMode mode) throws Exception {
+        Set<ValidationMessage> messages = rewriteErrorMessages ? walk(javabean, title, mode).getValidationMessages()
+                : validate(javabean, title, mode);
+        return ValidationReport.of(messages);
+    }
+
+    /**
+     * 完整验证并返回可以用于增量验证的结果
+     *
      * @param javabean
      * @param title
      * @return
      * @throws Exception
      */
-    private ValidationResult walk(Object javabean, String title, JsonSchema jsonSchema, boolean shouldValidateSchema) throws Exception {
-        String json = objectMapper.writeValueAsString(javabean);
-        JsonNode customerJsonNode = objectMapper.readTree(json);
-        ValidationResult result = jsonSchema.walk(customerJsonNode, shouldValidateSchema);
-        handleValidationMessage(result);
-        logging(title, customerJsonNode, result.getValidationMessages());
+    public IncrementalResult validateIncremental(Object javabean, String title) throws Exception {
+        return revalidate(null, javabean, Collections.emptyList(), title);
+    }
+
+    /**
+     * 增量验证，只重新验证changedPointers影响到的子schema，与上一次的结果合并，
+     * 受影响范围的确定方式见{@link IncrementalValidator}。
+     * 开启rewriteErrorMessages时通过walk重写验证消息，不使用结果缓存和ValidationMode
+     *
+     * @param previous        上一次的结果，为null或者schema已经重新加载时完整验证
+     * @param javabean        修改后的完整文档
+     * @param changedPointers 修改过的json pointer，例如json patch中每个操作的path，move/copy还需要包含from
+     * @param title
+     * @return
+     * @throws Exception
+     */
+    public IncrementalResult revalidate(IncrementalResult previous, Object javabean, Collection<String> changedPointers, String title) throws Exception {
+        long start = System.nanoTime();
+        JsonNode customerJsonNode = toJsonNode(javabean);
+        long converted = System.nanoTime();
+        CompiledSchema current = getCompiledSchema();
+        IncrementalValidator incrementalValidator = new IncrementalValidator(current, rewriteErrorMessages,
+                rewriteErrorMessages ? this::handleValidationMessage : null);
+        IncrementalResult result = incrementalValidator.revalidate(previous, customerJsonNode, changedPointers);
+        recordMetrics(current.getJsonSchema(), converted - start, System.nanoTime() - converted, result.getValidationMessages());
+        notifyObserver(title, customerJsonNode, result.getValidationMessages());
         return result;
     }
 
-    private void handleValidationMessage(ValidationResult result) {
-        Set<ValidationMessage> validationMessages = result.getValidationMessages();
-        Iterator<ValidationMessage> iterator = validationMessages.iterator();
-        Set<String> newMessageUnionIdSet = validationMessages.stream().filter(i -> !i.getMessage().startsWith("$.")).map(this::getMessageUnionId).collect(Collectors.toSet());
-        while (iterator.hasNext()) {
-            ValidationMessage next = iterator.next();
-            String unionId = getMessageUnionId(next);
-            if (next.getMessage().startsWith("$.") && newMessageUnionIdSet.contains(unionId)) {
-                iterator.remove();
+    /**
+     * 只判断是否通过，出现第一个错误后立即结束
+     *
+     * @param javabean
+     * @param title
+     * @return
+     * @throws Exception
+     */
+    public boolean isValid(Object javabean, String title) throws Exception {
+        return validate(javabean, title, ValidationMode.BOOLEAN).isEmpty();
+    }
+
+    /**
+     * 一个关键字可能同时产生多个错误，超过上限的部分按{@link #MESSAGE_ORDER}去掉
+     *
+     * @param validationMessages
+     * @param maxErrors
+     */
+    private void limitValidationMessages(Set<ValidationMessage> validationMessages, int maxErrors) {
+        if (validationMessages.size() <= maxErrors) {
+            return;
+        }
+        List<ValidationMessage> sorted = new ArrayList<>(validationMessages);
+        sorted.sort(MESSAGE_ORDER);
+        validationMessages.removeAll(sorted.subList(maxErrors, sorted.size()));
+    }
+
+    /**
+     * 使用默认参数批量验证
+     *
+     * @param items
+     * @return
+     * @throws IOException
+     */
+    public BatchResult validateAll(Iterable<?> items) throws IOException {
+        return validateAll(items, new BatchOptions());
+    }
+
+    public BatchResult validateAll(Stream<?> items) throws IOException {
+        return validateAll(items, new BatchOptions());
+    }
+
+    public BatchResult validateAll(Stream<?> items, BatchOptions options) throws IOException {
+        return validateAll(items.iterator(), options);
+    }
+
+    /**
+     * 在options指定的线程池中并行验证，所有数据共用同一个编译好的JsonSchema，结果按输入顺序返回
+     *
+     * @param items
+     * @param options
+     * @return
+     * @throws IOException
+     */
+    public BatchResult validateAll(Iterable<?> items, BatchOptions options) throws IOException {
+        return validateAll(items.iterator(), options);
+    }
+
+    private BatchResult validateAll(Iterator<?> items, BatchOptions options) throws IOException {
+        CompiledSchema compiled = getCompiledSchema();
+        JsonSchema jsonSchema = compiled.getJsonSchema();
+        String title = options.getTitle();
+        BatchValidator.ItemValidation validation = options.isWalk()
+                ? item -> walk(item, title, jsonSchema, true).getValidationMessages()
+                : item -> validate(item, title, compiled);
+        return BatchValidator.run(items, options, validation);
+    }
+
+    /**
+     * 流式验证顶层为数组的json，每次只读取一个元素，按items/prefixItems验证后交给listener
+     *
+     * @param in       读取结束后关闭
+     * @param title
+     * @param walk     为true时使用walk，walk listener会重写验证消息
+     * @param listener
+     * @return
+     * @throws Exception
+     */
+    public ArrayValidationResult validateArray(InputStream in, String title, boolean walk, ArrayItemListener listener) throws Exception {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            return validateArray(parser, title, walk, listener);
+        }
+    }
+
+    public ArrayValidationResult validateArray(JsonParser parser, String title, boolean walk, ArrayItemListener listener) throws Exception {
+        CompiledSchema current = getCompiledSchema();
+        SchemaValidatorsConfig config = current.getSchemaValidatorsConfig();
+        boolean resetCollectorContext = config == null || config.isResetCollectorContext();
+        StreamingArrayValidator streamingValidator = new StreamingArrayValidator(objectMapper, current.getJsonSchema());
+        return streamingValidator.validate(parser, (itemSchema, item, at) -> {
+            try {
+                Set<ValidationMessage> messages = walk ? walkItem(itemSchema, item, at) : itemSchema.validate(item, item, at);
+                notifyObserver(title, item, messages);
+                return messages;
+            } finally {
+                if (resetCollectorContext) {
+                    CollectorContext.getInstance().reset();
+                }
             }
+        }, listener);
+    }
+
+    /**
+     * 子schema的walk不会初始化ValidatorState，这里按JsonSchema.walk(JsonNode, boolean)的方式设置
+     *
+     * @param itemSchema
+     * @param item
+     * @param at
+     * @return
+     */
+    private Set<ValidationMessage> walkItem(JsonSchema itemSchema, JsonNode item, String at) {
+        CollectorContext collectorContext = itemSchema.getCollectorContext();
+        if (collectorContext.get(ValidatorState.VALIDATOR_STATE_KEY) == null) {
+            ValidatorState state = new ValidatorState();
+            state.setWalkEnabled(true);
+            state.setValidationEnabled(true);
+            collectorContext.add(ValidatorState.VALIDATOR_STATE_KEY, state);
         }
+        Set<ValidationMessage> messages = itemSchema.walk(item, item, at, true);
+        handleValidationMessage(messages);
+        return messages;
+    }
+
+    public void initJsonSchema() throws IOException {
+        getCompiledSchema();
     }
 
-    private String getMessageUnionId(ValidationMessage next) {
-        String args = next.getArguments() != null && next.getArguments().length > 0 ? next.getArguments()[0] : "";
-        String unionId = next.getType() + "/" + next.getSchemaPath() + "/" + next.getPath() + "/" + args;
-        return unionId;
+    /**
+     * 获取编译完成的schema，第一次调用时编译，并发的首次调用只会编译一次
+     *
+     * @return
+     * @throws IOException
+     */
+    public CompiledSchema getCompiledSchema() throws IOException {
+        CompiledSchema current = compiledSchema;
+        if (current != null) {
+            return current;
+        }
+        synchronized (initLock) {
+            current = compiledSchema;
+            if (current == null) {
+                current = compileSchema(1);
+                compiledSchema = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 重新读取并编译schema，成功后整体替换快照，正在进行的验证继续使用旧版本，新的验证使用新版本，验证线程不需要等待。
+     * 编译、$error索引检查或者验证器初始化失败时保留旧版本并抛出异常
+     *
+     * @return 新的快照，内容没有变化时返回当前快照
+     * @throws IOException
+     */
+    public CompiledSchema reload() throws IOException {
+        synchronized (initLock) {
+            long start = System.nanoTime();
+            CompiledSchema current = compiledSchema;
+            try {
+                CompiledSchema next = compileSchema(current == null ? 1 : current.getVersion() + 1);
+                //在替换前初始化所有验证器，避免第一次验证时再初始化
+                next.getJsonSchema().initializeValidators();
+                if (current != null && current.getJsonSchema() == next.getJsonSchema()) {
+                    next = current;
+                } else {
+                    compiledSchema = next;
+                    clearResultCache();
+                }
+                long elapsed = System.nanoTime() - start;
+                reloadCount++;
+                lastReloadNanos = elapsed;
+                maxReloadNanos = Math.max(maxReloadNanos, elapsed);
+                totalReloadNanos += elapsed;
+                return next;
+            } catch (IOException | RuntimeException e) {
+                reloadFailureCount++;
+                lastReloadFailure = e.toString();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return 重新加载的统计
+     */
+    public ReloadStats getReloadStats() {
+        synchronized (initLock) {
+            CompiledSchema current = compiledSchema;
+            return new ReloadStats(current == null ? 0 : current.getVersion(), reloadCount, reloadFailureCount,
+                    lastReloadNanos, maxReloadNanos, totalReloadNanos, lastReloadFailure);
+        }
+    }
+
+    /**
+     * @return 用户配置的副本，本实例的listener只注册在副本上
+     */
+    private SchemaValidatorsConfig resolveSchemaValidatorsConfig() {
+        SchemaValidatorsConfig config = SchemaManager.copyConfig(schemaValidatorsConfig == null
+                ? createDefaultSchemaValidatorsConfig() : schemaValidatorsConfig);
+        if (keywordProfilerListener.getTarget() != null) {
+            keywordProfilerListener.register(config);
+        }
+        return config;
+    }
+
+    /**
+     * @param javabean
+     * @param title
+     * @return
+     * @throws Exception
+     */
+    private ValidationResult walk(Object javabean, String title, JsonSchema jsonSchema, boolean shouldValidateSchema) throws Exception {
+        long start = System.nanoTime();
+        JsonNode customerJsonNode = toJsonNode(javabean);
+        long converted = System.nanoTime();
+        KeywordProfiler profiler = keywordProfilerListener.getTarget();
+        ValidationResult result = profiler != null && profiler.sample()
+                ? profiler.run(() -> jsonSchema.walk(customerJsonNode, shouldValidateSchema))
+                : jsonSchema.walk(customerJsonNode, shouldValidateSchema);
+        handleValidationMessage(result.getValidationMessages());
+        recordMetrics(jsonSchema, converted - start, System.nanoTime() - converted, result.getValidationMessages());
+        notifyObserver(title, customerJsonNode, result.getValidationMessages());
+        return result;
+    }
+
+    /**
+     * 去掉已经存在重写消息的原始消息，只遍历一次。listener在重写时已经去重，
+     * 这里只处理不同schema节点的消息在上层合并后才出现的重复
+     *
+     * @param validationMessages
+     */
+    private void handleValidationMessage(Set<ValidationMessage> validationMessages) {
+        Set<MessageKey> rewriteKeys = null;
+        Map<MessageKey, List<ValidationMessage>> rawMessages = null;
+        for (ValidationMessage message : validationMessages) {
+            MessageKey key = MessageKey.of(message);
+            if (MessageKey.isRaw(message)) {
+                if (rawMessages == null) {
+                    rawMessages = new HashMap<>();
+                }
+                rawMessages.computeIfAbsent(key, k -> new ArrayList<>(1)).add(message);
+            } else {
+                if (rewriteKeys == null) {
+                    rewriteKeys = new HashSet<>();
+                }
+                rewriteKeys.add(key);
+            }
+        }
+        if (rawMessages == null || rewriteKeys == null) {
+            return;
+        }
+        for (Map.Entry<MessageKey, List<ValidationMessage>> entry : rawMessages.entrySet()) {
+            if (rewriteKeys.contains(entry.getKey())) {
+                validationMessages.removeAll(entry.getValue());
+            }
+        }
     }
 
     /**
@@ -124,48 +730,138 @@ public class ValidatorManager {
      * @return
      * @throws Exception
      */
-    private Set<ValidationMessage> validate(Object javabean, String title, JsonSchema jsonSchema) throws Exception {
-        String json = objectMapper.writeValueAsString(javabean);
-        JsonNode customerJsonNode = objectMapper.readTree(json);
-        Set<ValidationMessage> validate = jsonSchema.validate(customerJsonNode);
-        System.out.println();
-        logging(title, customerJsonNode, validate);
+    private Set<ValidationMessage> validate(Object javabean, String title, CompiledSchema compiled) throws Exception {
+        long start = System.nanoTime();
+        JsonNode customerJsonNode = toJsonNode(javabean);
+        long converted = System.nanoTime();
+        JsonSchema jsonSchema = compiled.getJsonSchema();
+        ValidationResultCache cache = resultCache;
+        Set<ValidationMessage> validate = cache == null ? jsonSchema.validate(customerJsonNode)
+                : cache.computeIfAbsent(compiled.getVersion(), customerJsonNode, jsonSchema::validate);
+        recordMetrics(jsonSchema, converted - start, System.nanoTime() - converted, validate);
+        notifyObserver(title, customerJsonNode, validate);
         return validate;
     }
 
-    private JsonSchema createJsonSchemaByFile() throws IOException {
-        InputStream resourceAsStream = ValidatorManager.class.getResourceAsStream(schemaFilePath);
-        JsonNode jsonNode = objectMapper.readTree(resourceAsStream);
-        JsonSchema jsonSchema = SchemaManager.getSchema(jsonNode, this.schemaValidatorsConfig);
-        return jsonSchema;
+    private void recordMetrics(JsonSchema jsonSchema, long conversionNanos, long evaluationNanos, Set<ValidationMessage> messages) {
+        ValidationMetrics metrics = validationMetrics;
+        if (metrics == NoopValidationMetrics.INSTANCE) {
+            return;
+        }
+        String schema = schemaName(jsonSchema);
+        metrics.recordConversion(schema, conversionNanos);
+        metrics.recordEvaluation(schema, evaluationNanos, messages.isEmpty());
+        for (ValidationMessage message : messages) {
+            metrics.recordMessage(schema, message);
+        }
+    }
+
+    /**
+     * @param jsonSchema
+     * @return 指标中使用的schema名称，优先使用$id，没有$id时使用设置的schema来源，都没有时为default
+     */
+    private String schemaName(JsonSchema jsonSchema) {
+        JsonNode id = jsonSchema.getSchemaNode().get("$id");
+        if (id != null && id.isTextual()) {
+            return id.asText();
+        }
+        if (schemaSource != null) {
+            return schemaSource.getName();
+        }
+        return schemaFilePath != null ? getSchemaSource().getName() : DEFAULT_SCHEMA_NAME;
     }
 
-    public SchemaValidatorsConfig createDefaultSchemaValidatorsConfig() {
-        SchemaValidatorsConfig schemaValidatorsConfig = new SchemaValidatorsConfig();
-        schemaValidatorsConfig.setOpenAPI3StyleDiscriminators(false);
-        schemaValidatorsConfig.setFailFast(false);
-        return schemaValidatorsConfig;
+    /**
+     * 将待验证对象转换为JsonNode，javabean直接通过TokenBuffer构建树，不再生成中间的json字符串。
+     * 已经是json数据的byte[]、InputStream、JsonParser直接解析，JsonNode原样返回
+     *
+     * @param javabean
+     * @return
+     * @throws IOException
+     */
+    public JsonNode toJsonNode(Object javabean) throws IOException {
+        if (javabean == null) {
+            return NullNode.getInstance();
+        }
+        if (javabean instanceof JsonNode) {
+            return (JsonNode) javabean;
+        }
+        if (javabean instanceof byte[]) {
+            return objectMapper.readTree((byte[]) javabean);
+        }
+        if (javabean instanceof InputStream) {
+            return objectMapper.readTree((InputStream) javabean);
+        }
+        if (javabean instanceof JsonParser) {
+            JsonNode jsonNode = objectMapper.readTree((JsonParser) javabean);
+            return jsonNode == null ? MissingNode.getInstance() : jsonNode;
+        }
+        return objectMapper.valueToTree(javabean);
     }
 
     /**
-     * logging
+     * 只在initLock中调用。内容与listener都没有变化时使用同一个配置副本，编译缓存可以直接命中
      *
-     * @param title
-     * @param customerJsonNode
-     * @param validate
-     */
-    private static void logging(String title, JsonNode customerJsonNode, Set<ValidationMessage> validate) {
-        System.out.println();
-        if (validate.isEmpty()) {
-            log.info("{} 验证 start", title);
-            log.info(customerJsonNode.toString());
-            log.info(validate.toString());
-            log.info("{} 验证 {} end", title, validate.isEmpty() ? "成功" : "失败");
+     * @param version
+     * @return 保留schema内容，ValidationMode可以按配置的副本重新编译
+     * @throws IOException
+     */
+    private CompiledSchema compileSchema(long version) throws IOException {
+        SchemaSource source = getSchemaSource();
+        JsonNode jsonNode = readSchemaNode(source);
+        ErrorMessageRewriteWalkListener listener = rewriteErrorMessages ? errorMessageRewriteWalkListener : null;
+        Set<String> keywords = listener == null ? Collections.emptySet()
+                : ErrorMessageRewriteWalkListener.getKeywords(ErrorMessageIndex.forSchemaNode(jsonNode));
+        boolean profiled = keywordProfilerListener.getTarget() != null;
+        SchemaValidatorsConfig config = derivedConfig;
+        if (config == null || derivedFrom != schemaValidatorsConfig || derivedListener != listener
+                || !keywords.equals(derivedKeywords) || derivedProfiled != profiled) {
+            config = resolveSchemaValidatorsConfig();
+            if (listener != null) {
+                listener.register(config, keywords);
+            }
+        }
+        Function<SchemaValidatorsConfig, JsonSchema> compiler;
+        if (source instanceof RegistrySchemaSource) {
+            compiler = ((RegistrySchemaSource) source)::compile;
+        } else if (source instanceof BundleSchemaSource) {
+            compiler = ((BundleSchemaSource) source)::compile;
+        } else {
+            compiler = copy -> SchemaManager.getSchema(jsonNode, copy);
+        }
+        CompiledSchema compiled = new CompiledSchema(compiler.apply(config), config, version, compiler);
+        derivedConfig = config;
+        derivedFrom = schemaValidatorsConfig;
+        derivedListener = listener;
+        derivedKeywords = keywords;
+        derivedProfiled = profiled;
+        return compiled;
+    }
+
+    /**
+     * SchemaBundle与SchemaRegistry中的schema已经解析好，直接使用，其它来源读取并解析json
+     */
+    private JsonNode readSchemaNode(SchemaSource source) throws IOException {
+        if (source instanceof BundleSchemaSource) {
+            return ((BundleSchemaSource) source).getSchemaNode();
+        }
+        if (source instanceof RegistrySchemaSource) {
+            return ((RegistrySchemaSource) source).getSchemaNode();
+        }
+        try (InputStream in = source.open()) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    public SchemaValidatorsConfig createDefaultSchemaValidatorsConfig() {
+        return SchemaManager.createDefaultSchemaValidatorsConfig();
+    }
+
+    private void notifyObserver(String title, JsonNode customerJsonNode, Set<ValidationMessage> messages) {
+        if (messages.isEmpty()) {
+            validationObserver.onSuccess(title, customerJsonNode);
         } else {
-            log.warn("{} 验证 start", title);
-            log.warn(customerJsonNode.toString());
-            log.warn(validate.toString());
-            log.warn("{} 验证 {} end", title, validate.isEmpty() ? "成功" : "失败");
+            validationObserver.onFailure(title, customerJsonNode, messages);
         }
     }
 }
@@ -0,0 +1,212 @@
+package com.github.jerrymice.json.schema.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.ValidatorManager;
+import com.github.jerrymice.json.schema.bundle.SchemaBundle;
+import com.github.jerrymice.json.schema.metrics.MicrometerValidationMetrics;
+import com.github.jerrymice.json.schema.metrics.ValidationMetrics;
+import com.github.jerrymice.json.schema.regex.PatternCache;
+import com.github.jerrymice.json.schema.registry.RegistrySchemaSource;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.github.jerrymice.json.schema.source.ClasspathSchemaSource;
+import com.github.jerrymice.json.schema.source.FileSchemaSource;
+import com.github.jerrymice.json.schema.source.SchemaSource;
+import com.github.jerrymice.json.schema.web.ParsedBodyHttpMessageConverter;
+import com.github.jerrymice.json.schema.web.RequestBodyValidationFilter;
+import com.github.jerrymice.json.schema.web.SchemaRoute;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按json.schema配置在启动时创建SchemaRegistry与ValidatorManager，并在启动完成前预热
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "json.schema", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(JsonSchemaValidatorProperties.class)
+@AutoConfigureAfter(name = {"org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
+public class JsonSchemaValidatorAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SchemaRegistry schemaRegistry(JsonSchemaValidatorProperties properties, ObjectProvider<ObjectMapper> objectMapper)
+            throws IOException {
+        SchemaRegistry registry = new SchemaRegistry(objectMapper.getIfAvailable(ObjectMapper::new), null,
+                properties.getRegistry().getMaxCompiled());
+        for (String location : properties.getRegistry().getLocations()) {
+            if (location.startsWith(JsonSchemaValidatorProperties.CLASSPATH_PREFIX)) {
+                registry.registerClasspath(location.substring(JsonSchemaValidatorProperties.CLASSPATH_PREFIX.length()));
+            } else {
+                registry.registerDirectory(Paths.get(stripFilePrefix(location)));
+            }
+        }
+        for (String bundle : properties.getRegistry().getBundles()) {
+            SchemaBundle schemaBundle = bundle.startsWith(JsonSchemaValidatorProperties.CLASSPATH_PREFIX)
+                    ? SchemaBundle.readClasspath(bundle.substring(JsonSchemaValidatorProperties.CLASSPATH_PREFIX.length()))
+                    : SchemaBundle.read(Paths.get(stripFilePrefix(bundle)));
+            schemaBundle.registerTo(registry);
+            PatternCache.getDefault().precompile(schemaBundle.getPatterns());
+        }
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ValidatorManagers validatorManagers(JsonSchemaValidatorProperties properties, SchemaRegistry schemaRegistry,
+                                               ObjectProvider<ObjectMapper> objectMapper,
+                                               ObjectProvider<ValidationMetrics> validationMetrics) throws IOException {
+        Map<String, ValidatorManager> managers = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonSchemaValidatorProperties.Validator> entry : properties.getValidators().entrySet()) {
+            managers.put(entry.getKey(), createValidatorManager(entry.getKey(), entry.getValue(), schemaRegistry,
+                    objectMapper.getIfAvailable(ObjectMapper::new), validationMetrics.getIfAvailable()));
+        }
+        return new ValidatorManagers(managers);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "json.schema.warmup", name = "enabled", matchIfMissing = true)
+    public SchemaWarmup schemaWarmup(JsonSchemaValidatorProperties properties, SchemaRegistry schemaRegistry,
+                                     ValidatorManagers validatorManagers, ApplicationEventPublisher publisher) {
+        Map<String, JsonNode> documents = new LinkedHashMap<>();
+        properties.getValidators().forEach((name, validator) -> {
+            if (validator.getWarmupDocument() != null) {
+                documents.put(name, readDocument(schemaRegistry.getObjectMapper(), validator.getWarmupDocument()));
+            }
+        });
+        return new SchemaWarmup(schemaRegistry, validatorManagers, documents,
+                properties.getWarmup().getIterations(), publisher);
+    }
+
+    private ValidatorManager createValidatorManager(String name, JsonSchemaValidatorProperties.Validator validator,
+                                                    SchemaRegistry schemaRegistry, ObjectMapper objectMapper,
+                                                    ValidationMetrics validationMetrics) throws IOException {
+        if ((validator.getSchema() == null) == (validator.getSchemaId() == null)) {
+            throw new IllegalStateException("json.schema.validators." + name + " requires exactly one of schema or schema-id");
+        }
+        ValidatorManager manager = new ValidatorManager();
+        manager.setObjectMapper(objectMapper);
+        manager.setRewriteErrorMessages(validator.isRewriteErrorMessages());
+        manager.setValidationMetrics(validationMetrics);
+        if (validator.getSchemaId() != null) {
+            //使用注册中心的配置，但按自己的配置副本编译，重写listener不会影响注册中心中的其它schema
+            manager.setSchemaValidatorsConfig(schemaRegistry.getSchemaValidatorsConfig());
+            manager.setSchemaSource(new RegistrySchemaSource(schemaRegistry, validator.getSchemaId()));
+        } else {
+            manager.setSchemaSource(schemaSource(validator.getSchema()));
+        }
+        manager.initJsonSchema();
+        return manager;
+    }
+
+    /**
+     * @param location classpath:开头为classpath资源，file:开头或者没有前缀为文件
+     * @return
+     */
+    static SchemaSource schemaSource(String location) {
+        if (location.startsWith(JsonSchemaValidatorProperties.CLASSPATH_PREFIX)) {
+            String path = location.substring(JsonSchemaValidatorProperties.CLASSPATH_PREFIX.length());
+            return new ClasspathSchemaSource(path.startsWith("/") ? path : "/" + path);
+        }
+        return new FileSchemaSource(Paths.get(stripFilePrefix(location)));
+    }
+
+    private static String stripFilePrefix(String location) {
+        return location.startsWith(JsonSchemaValidatorProperties.FILE_PREFIX)
+                ? location.substring(JsonSchemaValidatorProperties.FILE_PREFIX.length()) : location;
+    }
+
+    private static JsonNode readDocument(ObjectMapper objectMapper, String location) {
+        try (InputStream in = schemaSource(location).open()) {
+            return objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 存在MeterRegistry时使用Micrometer记录验证指标
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean(ValidationMetrics.class)
+        public ValidationMetrics micrometerValidationMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerValidationMetrics(meterRegistry);
+        }
+    }
+
+    /**
+     * 配置了json.schema.web.routes时在Servlet应用中验证请求体，
+     * 验证时解析的JsonNode交给ParsedBodyHttpMessageConverter绑定参数，请求体只解析一次
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    @ConditionalOnProperty(prefix = "json.schema.web.routes[0]", name = "pattern")
+    static class WebValidationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(RequestBodyValidationFilter.class)
+        public FilterRegistrationBean<RequestBodyValidationFilter> requestBodyValidationFilter(
+                JsonSchemaValidatorProperties properties, ValidatorManagers validatorManagers,
+                ObjectProvider<ObjectMapper> objectMapper) {
+            List<SchemaRoute> routes = new ArrayList<>();
+            for (JsonSchemaValidatorProperties.Route route : properties.getWeb().getRoutes()) {
+                routes.add(new SchemaRoute(route.getPattern(), route.getMethods(), validatorManagers.get(route.getValidator())));
+            }
+            FilterRegistrationBean<RequestBodyValidationFilter> registration = new FilterRegistrationBean<>(
+                    new RequestBodyValidationFilter(objectMapper.getIfAvailable(ObjectMapper::new), routes,
+                            properties.getWeb().getMaxBodySize()));
+            registration.setOrder(properties.getWeb().getFilterOrder());
+            return registration;
+        }
+
+        @Bean
+        public WebMvcConfigurer parsedBodyWebMvcConfigurer(ObjectProvider<ObjectMapper> objectMapper) {
+            return new WebMvcConfigurer() {
+                /**
+                 * 放在第一个MappingJackson2HttpMessageConverter前面，排在它前面的转换器仍然优先
+                 */
+                @Override
+                public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                    int index = converters.size();
+                    for (int i = 0; i < converters.size(); i++) {
+                        if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                            index = i;
+                            break;
+                        }
+                    }
+                    converters.add(index, new ParsedBodyHttpMessageConverter(objectMapper.getIfAvailable(ObjectMapper::new)));
+                }
+            };
+        }
+    }
+}
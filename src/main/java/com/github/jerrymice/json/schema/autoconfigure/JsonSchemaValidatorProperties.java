@@ -0,0 +1,254 @@
+package com.github.jerrymice.json.schema.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * json.schema开头的配置
+ * <pre>
+ * json.schema.registry.locations=classpath:schemas,file:/etc/schemas
+ * json.schema.registry.bundles=classpath:schemas.bundle
+ * json.schema.validators.customer.schema=classpath:/CustMetaSchema.json
+ * json.schema.validators.order.schema-id=https://www.example.com/json/schema/order/2
+ * json.schema.validators.order.rewrite-error-messages=true
+ * json.schema.warmup.iterations=200
+ * json.schema.web.routes[0].pattern=/orders/**
+ * json.schema.web.routes[0].validator=order
+ * json.schema.web.max-body-size=1048576
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "json.schema")
+public class JsonSchemaValidatorProperties {
+    public static final String CLASSPATH_PREFIX = "classpath:";
+    public static final String FILE_PREFIX = "file:";
+
+    private boolean enabled = true;
+    private final Registry registry = new Registry();
+    private final Warmup warmup = new Warmup();
+    private final Web web = new Web();
+    /**
+     * 按名称配置的ValidatorManager
+     */
+    private Map<String, Validator> validators = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public Web getWeb() {
+        return web;
+    }
+
+    public Map<String, Validator> getValidators() {
+        return validators;
+    }
+
+    public void setValidators(Map<String, Validator> validators) {
+        this.validators = validators;
+    }
+
+    public static class Registry {
+        /**
+         * 注册到SchemaRegistry的目录，classpath:开头为classpath目录，file:开头或者没有前缀为文件目录
+         */
+        private List<String> locations = new ArrayList<>();
+        /**
+         * 最多同时保留的编译结果数量
+         */
+        private int maxCompiled = 128;
+        /**
+         * SchemaBundleCompiler生成的bundle文件，classpath:开头为classpath资源，file:开头或者没有前缀为文件
+         */
+        private List<String> bundles = new ArrayList<>();
+
+        public List<String> getLocations() {
+            return locations;
+        }
+
+        public void setLocations(List<String> locations) {
+            this.locations = locations;
+        }
+
+        public List<String> getBundles() {
+            return bundles;
+        }
+
+        public void setBundles(List<String> bundles) {
+            this.bundles = bundles;
+        }
+
+        public int getMaxCompiled() {
+            return maxCompiled;
+        }
+
+        public void setMaxCompiled(int maxCompiled) {
+            this.maxCompiled = maxCompiled;
+        }
+    }
+
+    public static class Validator {
+        /**
+         * schema文件，classpath:开头为classpath资源，file:开头或者没有前缀为文件
+         */
+        private String schema;
+        /**
+         * 使用SchemaRegistry中已注册的schema，与schema二选一
+         */
+        private String schemaId;
+        private boolean rewriteErrorMessages;
+        /**
+         * 预热时验证的数据，与schema的位置规则相同，不配置时使用空对象
+         */
+        private String warmupDocument;
+
+        public String getSchema() {
+            return schema;
+        }
+
+        public void setSchema(String schema) {
+            this.schema = schema;
+        }
+
+        public String getSchemaId() {
+            return schemaId;
+        }
+
+        public void setSchemaId(String schemaId) {
+            this.schemaId = schemaId;
+        }
+
+        public boolean isRewriteErrorMessages() {
+            return rewriteErrorMessages;
+        }
+
+        public void setRewriteErrorMessages(boolean rewriteErrorMessages) {
+            this.rewriteErrorMessages = rewriteErrorMessages;
+        }
+
+        public String getWarmupDocument() {
+            return warmupDocument;
+        }
+
+        public void setWarmupDocument(String warmupDocument) {
+            this.warmupDocument = warmupDocument;
+        }
+    }
+
+    public static class Warmup {
+        private boolean enabled = true;
+        /**
+         * 每个schema的预热验证次数
+         */
+        private int iterations = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+    }
+
+    public static class Web {
+        /**
+         * 按顺序匹配，第一个匹配的路由生效
+         */
+        private List<Route> routes = new ArrayList<>();
+        /**
+         * 过滤器顺序，默认在大部分过滤器之后、DispatcherServlet之前执行
+         */
+        private int filterOrder = 0;
+        /**
+         * 请求体的最大字节数，超过时返回413，默认1MB
+         */
+        private int maxBodySize = 1024 * 1024;
+
+        public List<Route> getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(List<Route> routes) {
+            this.routes = routes;
+        }
+
+        public int getFilterOrder() {
+            return filterOrder;
+        }
+
+        public void setFilterOrder(int filterOrder) {
+            this.filterOrder = filterOrder;
+        }
+
+        public int getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+
+    public static class Route {
+        /**
+         * ant风格的路径，不包括context path
+         */
+        private String pattern;
+        /**
+         * 为空时匹配POST、PUT、PATCH
+         */
+        private List<String> methods = new ArrayList<>();
+        /**
+         * json.schema.validators中的名称
+         */
+        private String validator;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public String getValidator() {
+            return validator;
+        }
+
+        public void setValidator(String validator) {
+            this.validator = validator;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.jerrymice.json.schema.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.ValidatorManager;
+import com.github.jerrymice.json.schema.registry.SchemaEntry;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.networknt.schema.JsonSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+
+/**
+ * 启动时预热所有schema：编译schema、初始化验证器，并用预热数据反复验证让JIT完成编译。
+ * <p>
+ * 在所有单例创建完成后同步执行，预热开始时发布REFUSING_TRAFFIC。预热完成前应用上下文不会启动完成，
+ * ACCEPTING_TRAFFIC由Spring Boot在应用启动完成后发布，这里不发布
+ */
+public class SchemaWarmup implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaWarmup.class);
+
+    private final SchemaRegistry schemaRegistry;
+    private final ValidatorManagers validatorManagers;
+    private final Map<String, JsonNode> warmupDocuments;
+    private final int iterations;
+    private final ApplicationEventPublisher publisher;
+    private volatile boolean warmedUp;
+
+    public SchemaWarmup(SchemaRegistry schemaRegistry, ValidatorManagers validatorManagers,
+                        Map<String, JsonNode> warmupDocuments, int iterations, ApplicationEventPublisher publisher) {
+        this.schemaRegistry = schemaRegistry;
+        this.validatorManagers = validatorManagers;
+        this.warmupDocuments = warmupDocuments;
+        this.iterations = iterations;
+        this.publisher = publisher;
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        JsonNode empty = schemaRegistry.getObjectMapper().createObjectNode();
+        for (SchemaEntry entry : schemaRegistry.getEntries()) {
+            warmup(schemaRegistry.getSchema(entry.getId()), empty);
+        }
+        for (Map.Entry<String, ValidatorManager> entry : validatorManagers.getAll().entrySet()) {
+            JsonSchema jsonSchema = entry.getValue().getJsonSchema();
+            jsonSchema.initializeValidators();
+            warmup(jsonSchema, warmupDocuments.getOrDefault(entry.getKey(), empty));
+        }
+        warmedUp = true;
+        LOGGER.info("schema预热完成, registry:{}, validators:{}, 耗时:{}ms", schemaRegistry.getEntries().size(),
+                validatorManagers.getAll().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 直接使用JsonSchema验证，不经过ValidatorManager的观察者，避免预热数据产生日志
+     */
+    private void warmup(JsonSchema jsonSchema, JsonNode document) {
+        for (int i = 0; i < iterations; i++) {
+            jsonSchema.validate(document);
+            jsonSchema.walk(document, true);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.jerrymice.json.schema.autoconfigure;
+
+import com.github.jerrymice.json.schema.ValidatorManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按名称保存配置中的ValidatorManager，所有ValidatorManager在启动时创建，全局共用
+ */
+public class ValidatorManagers {
+    private final Map<String, ValidatorManager> managers;
+
+    public ValidatorManagers(Map<String, ValidatorManager> managers) {
+        this.managers = Collections.unmodifiableMap(new LinkedHashMap<>(managers));
+    }
+
+    /**
+     * @param name json.schema.validators下的名称
+     * @return
+     * @throws IllegalArgumentException 没有配置该名称
+     */
+    public ValidatorManager get(String name) {
+        ValidatorManager manager = managers.get(name);
+        if (manager == null) {
+            throw new IllegalArgumentException("validator not configured: " + name);
+        }
+        return manager;
+    }
+
+    public Map<String, ValidatorManager> getAll() {
+        return managers;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.jerrymice.json.schema.batch;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 批量验证的参数
+ */
+public class BatchOptions {
+    private static final int DEFAULT_MAX_IN_FLIGHT_PER_CORE = 4;
+
+    /**
+     * 执行验证的线程池，默认使用ForkJoinPool.commonPool()，
+     * 运行在java21及以上时可以传入Executors.newVirtualThreadPerTaskExecutor()
+     */
+    private Executor executor = ForkJoinPool.commonPool();
+    /**
+     * 同时提交给线程池、尚未完成的最大数量，达到上限后读取数据的线程等待
+     */
+    private int maxInFlight = Runtime.getRuntime().availableProcessors() * DEFAULT_MAX_IN_FLIGHT_PER_CORE;
+    /**
+     * 失败数量达到该值后不再提交新的数据，小于等于0时不限制
+     */
+    private int stopAfterFailures;
+    /**
+     * 为true时使用walk，walk listener会重写验证消息
+     */
+    private boolean walk;
+    private String title = "批量验证";
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param executor 为null时使用ForkJoinPool.commonPool()
+     * @return
+     */
+    public BatchOptions setExecutor(Executor executor) {
+        this.executor = executor == null ? ForkJoinPool.commonPool() : executor;
+        return this;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public BatchOptions setMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public int getStopAfterFailures() {
+        return stopAfterFailures;
+    }
+
+    public BatchOptions setStopAfterFailures(int stopAfterFailures) {
+        this.stopAfterFailures = stopAfterFailures;
+        return this;
+    }
+
+    public boolean isWalk() {
+        return walk;
+    }
+
+    public BatchOptions setWalk(boolean walk) {
+        this.walk = walk;
+        return this;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public BatchOptions setTitle(String title) {
+        this.title = title;
+        return this;
+    }
+}
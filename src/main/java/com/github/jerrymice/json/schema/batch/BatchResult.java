@@ -0,0 +1,41 @@
+package com.github.jerrymice.json.schema.batch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量验证的结果，按输入顺序排列
+ */
+public final class BatchResult {
+    private final List<ItemResult> results;
+    private final int failureCount;
+    private final boolean stopped;
+
+    BatchResult(List<ItemResult> results, int failureCount, boolean stopped) {
+        this.results = Collections.unmodifiableList(results);
+        this.failureCount = failureCount;
+        this.stopped = stopped;
+    }
+
+    /**
+     * @return 已经验证的数据结果，按下标升序；提前停止时不包含未验证的数据
+     */
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return 是否因为失败数量达到上限或者线程中断而提前停止
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public boolean isValid() {
+        return failureCount == 0 && !stopped;
+    }
+}
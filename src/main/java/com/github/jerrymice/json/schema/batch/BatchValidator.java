@@ -0,0 +1,95 @@
+package com.github.jerrymice.json.schema.batch;
+
+import com.networknt.schema.ValidationMessage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在线程池中并行验证一批数据。
+ * <p>
+ * 读取数据的线程通过信号量控制未完成的数量，失败数量达到上限后不再提交新的数据，
+ * 已经提交但还没开始的数据直接跳过，结果按输入下标排序
+ */
+public final class BatchValidator {
+
+    /**
+     * 单条数据的验证
+     */
+    @FunctionalInterface
+    public interface ItemValidation {
+        /**
+         * @param item
+         * @return 验证失败信息
+         * @throws Exception
+         */
+        Set<ValidationMessage> validate(Object item) throws Exception;
+    }
+
+    private BatchValidator() {
+    }
+
+    public static BatchResult run(Iterator<?> items, BatchOptions options, ItemValidation validation) {
+        Semaphore permits = new Semaphore(options.getMaxInFlight());
+        AtomicInteger failureCount = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        int stopAfterFailures = options.getStopAfterFailures();
+        List<CompletableFuture<ItemResult>> futures = new ArrayList<>();
+        int index = 0;
+        while (!stopped.get() && items.hasNext()) {
+            Object item = items.next();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped.set(true);
+                break;
+            }
+            int itemIndex = index++;
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        if (stopped.get()) {
+                            return null;
+                        }
+                        ItemResult result = validateItem(itemIndex, item, validation);
+                        if (!result.isValid()) {
+                            int failures = failureCount.incrementAndGet();
+                            if (stopAfterFailures > 0 && failures >= stopAfterFailures) {
+                                stopped.set(true);
+                            }
+                        }
+                        return result;
+                    } finally {
+                        permits.release();
+                    }
+                }, options.getExecutor()));
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        List<ItemResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<ItemResult> future : futures) {
+            ItemResult result = future.join();
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return new BatchResult(results, failureCount.get(), stopped.get());
+    }
+
+    private static ItemResult validateItem(int index, Object item, ItemValidation validation) {
+        try {
+            return new ItemResult(index, validation.validate(item), null);
+        } catch (Exception e) {
+            return new ItemResult(index, null, e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.jerrymice.json.schema.batch;
+
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 批量验证中单条数据的结果
+ */
+public final class ItemResult {
+    private final int index;
+    private final Set<ValidationMessage> validationMessages;
+    private final Exception exception;
+
+    ItemResult(int index, Set<ValidationMessage> validationMessages, Exception exception) {
+        this.index = index;
+        this.validationMessages = validationMessages == null ? Collections.emptySet() : validationMessages;
+        this.exception = exception;
+    }
+
+    /**
+     * @return 数据在输入中的下标
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Set<ValidationMessage> getValidationMessages() {
+        return validationMessages;
+    }
+
+    /**
+     * @return 数据无法转换为json等验证之外的异常，没有时返回null
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    public boolean isValid() {
+        return exception == null && validationMessages.isEmpty();
+    }
+}
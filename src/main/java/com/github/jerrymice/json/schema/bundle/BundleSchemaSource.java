@@ -0,0 +1,62 @@
+package com.github.jerrymice.json.schema.bundle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.SchemaManager;
+import com.github.jerrymice.json.schema.registry.RegistrySchemaSource;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.github.jerrymice.json.schema.source.SchemaSource;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.SchemaValidatorsConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * SchemaBundle中已经解析好的schema，ValidatorManager直接使用{@link #getSchemaNode()}，不再解析json。
+ * 引用了其它schema时通过{@link #compile}在bundle的树中查找$ref
+ */
+public class BundleSchemaSource implements SchemaSource {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BundledSchema schema;
+    /**
+     * 注册了schema及其引用的schema，没有引用其它schema时为null
+     */
+    private final RegistrySchemaSource refSource;
+
+    public BundleSchemaSource(BundledSchema schema) {
+        this(schema, null);
+    }
+
+    BundleSchemaSource(BundledSchema schema, SchemaRegistry registry) {
+        this.schema = schema;
+        this.refSource = registry == null ? null : new RegistrySchemaSource(registry, schema.getId());
+    }
+
+    public JsonNode getSchemaNode() {
+        return schema.getSchemaNode();
+    }
+
+    /**
+     * @param config
+     * @return 按config编译的schema
+     */
+    public JsonSchema compile(SchemaValidatorsConfig config) {
+        return refSource == null ? SchemaManager.getSchema(schema.getSchemaNode(), config) : refSource.compile(config);
+    }
+
+    @Override
+    public String getName() {
+        return "bundle:" + schema.getId();
+    }
+
+    /**
+     * @return schema的json文本，只在需要按流读取时使用
+     */
+    @Override
+    public InputStream open() throws IOException {
+        return new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(schema.getSchemaNode()));
+    }
+}
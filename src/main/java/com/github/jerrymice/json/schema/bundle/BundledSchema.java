@@ -0,0 +1,71 @@
+package com.github.jerrymice.json.schema.bundle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SchemaBundle中的一个schema，包括schema树、恢复好的$error索引、引用的其它schema和正则表达式
+ */
+public final class BundledSchema {
+    private final String id;
+    private final String location;
+    private final JsonNode schemaNode;
+    private final ErrorMessageIndex errorMessageIndex;
+    private final Set<String> refs;
+    private final List<String> patterns;
+
+    BundledSchema(String id, String location, JsonNode schemaNode, ErrorMessageIndex errorMessageIndex,
+                  Set<String> refs, List<String> patterns) {
+        this.id = id;
+        this.location = location;
+        this.schemaNode = schemaNode;
+        this.errorMessageIndex = errorMessageIndex;
+        this.refs = Collections.unmodifiableSet(refs);
+        this.patterns = Collections.unmodifiableList(patterns);
+    }
+
+    /**
+     * @return $id，没有$id时为编译时的位置
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return 编译时schema文件的位置
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    public JsonNode getSchemaNode() {
+        return schemaNode;
+    }
+
+    public ErrorMessageIndex getErrorMessageIndex() {
+        return errorMessageIndex;
+    }
+
+    /**
+     * @return $ref引用的其它schema的$id，不包括schema内部的引用
+     */
+    public Set<String> getRefs() {
+        return refs;
+    }
+
+    /**
+     * @return pattern与patternProperties中的正则表达式
+     */
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    @Override
+    public String toString() {
+        return "BundledSchema{id=" + id + ", location=" + location + "}";
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.jerrymice.json.schema.bundle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.jerrymice.json.schema.index.ErrorMessage;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.networknt.schema.JsonSchemaException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 由{@link SchemaBundleCompiler}在构建时预编译的schema集合。
+ * <p>
+ * 文件使用Smile二进制格式，包含schema树、$ref引用关系、$error索引和正则表达式，
+ * 启动时通过内存映射读取，不再解析schema的json文本，也不再遍历$error树
+ */
+public final class SchemaBundle {
+    static final int FORMAT_VERSION = 1;
+    static final String FORMAT = "format";
+    static final String SCHEMAS = "schemas";
+    static final String ID = "id";
+    static final String LOCATION = "location";
+    static final String SCHEMA = "schema";
+    static final String REFS = "refs";
+    static final String PATTERNS = "patterns";
+    static final String ERRORS = "errors";
+    static final String EXPLICIT = "explicit";
+    static final String POINTERS = "pointers";
+    static final String CODE = "code";
+    static final String MESSAGE = "message";
+    static final String LOCALIZED = "localized";
+
+    static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    private final Map<String, BundledSchema> schemas;
+
+    private SchemaBundle(Map<String, BundledSchema> schemas) {
+        this.schemas = Collections.unmodifiableMap(schemas);
+    }
+
+    /**
+     * 通过内存映射读取bundle文件
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static SchemaBundle read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(new ByteBufferBackedInputStream(buffer));
+        }
+    }
+
+    /**
+     * 读取classpath中的bundle文件，jar中的资源无法内存映射，按流读取
+     *
+     * @param path 与ClassLoader.getResourceAsStream的路径规则相同
+     * @return
+     * @throws IOException
+     */
+    public static SchemaBundle readClasspath(String path) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = SchemaBundle.class.getClassLoader();
+        }
+        String name = path.startsWith("/") ? path.substring(1) : path;
+        try (InputStream in = classLoader.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new FileNotFoundException("schema bundle not found: " + path);
+            }
+            return read(in);
+        }
+    }
+
+    /**
+     * @param in 由调用方关闭
+     * @return
+     * @throws IOException
+     */
+    public static SchemaBundle read(InputStream in) throws IOException {
+        JsonNode root = SMILE_MAPPER.readTree(in);
+        if (root == null || root.path(FORMAT).asInt() != FORMAT_VERSION) {
+            throw new JsonSchemaException("不支持的schema bundle格式:" + (root == null ? null : root.get(FORMAT)));
+        }
+        Map<String, BundledSchema> schemas = new LinkedHashMap<>();
+        for (JsonNode node : root.path(SCHEMAS)) {
+            BundledSchema schema = readSchema(node);
+            schemas.put(schema.getId(), schema);
+        }
+        return new SchemaBundle(schemas);
+    }
+
+    public Collection<BundledSchema> getSchemas() {
+        return schemas.values();
+    }
+
+    /**
+     * @param id
+     * @return 不存在时返回null
+     */
+    public BundledSchema getSchema(String id) {
+        return schemas.get(id);
+    }
+
+    /**
+     * 用于ValidatorManager.setSchemaSource。schema引用了其它schema时，按编译时记录的$ref关系
+     * 把被引用的schema注册到只属于这个source的注册中心，$ref直接使用bundle中的树，不再读取或者解析
+     *
+     * @param id
+     * @return
+     * @throws JsonSchemaException bundle中没有该schema或者被引用的schema
+     */
+    public BundleSchemaSource getSource(String id) {
+        BundledSchema schema = schemas.get(id);
+        if (schema == null) {
+            throw new JsonSchemaException("schema not found in bundle: " + id);
+        }
+        if (schema.getRefs().isEmpty()) {
+            return new BundleSchemaSource(schema);
+        }
+        SchemaRegistry registry = new SchemaRegistry();
+        for (BundledSchema referenced : collectRefs(schema)) {
+            registry.register(referenced.getSchemaNode(), referenced.getLocation());
+        }
+        return new BundleSchemaSource(schema, registry);
+    }
+
+    /**
+     * @return 所有schema中不重复的正则表达式
+     */
+    public Set<String> getPatterns() {
+        Set<String> patterns = new LinkedHashSet<>();
+        schemas.values().forEach(schema -> patterns.addAll(schema.getPatterns()));
+        return patterns;
+    }
+
+    /**
+     * 把所有schema注册到注册中心，注册前按编译时记录的$ref关系检查被引用的schema在bundle或者注册中心中存在
+     *
+     * @param registry
+     * @return 注册的数量
+     * @throws JsonSchemaException 被引用的schema不存在
+     */
+    public int registerTo(SchemaRegistry registry) {
+        for (BundledSchema schema : schemas.values()) {
+            for (String ref : schema.getRefs()) {
+                if (!schemas.containsKey(ref) && registry.getEntry(ref) == null) {
+                    throw new JsonSchemaException(schema.getId() + " 引用的schema不存在:" + ref);
+                }
+            }
+        }
+        for (BundledSchema schema : schemas.values()) {
+            registry.register(schema.getSchemaNode(), schema.getLocation());
+        }
+        return schemas.size();
+    }
+
+    /**
+     * @param schema
+     * @return schema本身以及直接、间接引用的所有schema
+     * @throws JsonSchemaException 被引用的schema不在bundle中
+     */
+    private Collection<BundledSchema> collectRefs(BundledSchema schema) {
+        Map<String, BundledSchema> collected = new LinkedHashMap<>();
+        Deque<BundledSchema> pending = new ArrayDeque<>();
+        pending.add(schema);
+        while (!pending.isEmpty()) {
+            BundledSchema current = pending.poll();
+            if (collected.putIfAbsent(current.getId(), current) != null) {
+                continue;
+            }
+            for (String ref : current.getRefs()) {
+                BundledSchema referenced = schemas.get(ref);
+                if (referenced == null) {
+                    throw new JsonSchemaException(current.getId() + " 引用的schema不在bundle中:" + ref);
+                }
+                pending.add(referenced);
+            }
+        }
+        return collected.values();
+    }
+
+    private static BundledSchema readSchema(JsonNode node) {
+        JsonNode schemaNode = node.get(SCHEMA);
+        JsonNode errors = node.path(ERRORS);
+        Map<String, Map<String, ErrorMessage>> explicit = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> locations = errors.path(EXPLICIT).fields();
+        while (locations.hasNext()) {
+            Map.Entry<String, JsonNode> location = locations.next();
+            explicit.put(location.getKey(), readErrorMessages(location.getValue()));
+        }
+        ErrorMessageIndex index = ErrorMessageIndex.restore(schemaNode, explicit, readErrorMessages(errors.path(POINTERS)));
+        Set<String> refs = new LinkedHashSet<>();
+        node.path(REFS).forEach(ref -> refs.add(ref.asText()));
+        List<String> patterns = new ArrayList<>();
+        node.path(PATTERNS).forEach(pattern -> patterns.add(pattern.asText()));
+        return new BundledSchema(node.get(ID).asText(), node.path(LOCATION).asText(null), schemaNode, index, refs, patterns);
+    }
+
+    private static Map<String, ErrorMessage> readErrorMessages(JsonNode node) {
+        Map<String, ErrorMessage> errorMessages = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            String code = value.path(CODE).asText(null);
+            String message = value.path(MESSAGE).asText(null);
+            MessageTemplate template = null;
+            if (message != null) {
+                Map<String, String> localized = new LinkedHashMap<>();
+                value.path(LOCALIZED).fields().forEachRemaining(entry -> localized.put(entry.getKey(), entry.getValue().asText()));
+                template = MessageTemplate.intern(message, localized);
+            }
+            errorMessages.put(field.getKey(), code == null && template == null ? ErrorMessage.NONE : new ErrorMessage(code, template));
+        }
+        return errorMessages;
+    }
+}
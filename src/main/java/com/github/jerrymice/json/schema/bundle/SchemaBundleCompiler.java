@@ -0,0 +1,216 @@
+package com.github.jerrymice.json.schema.bundle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.KeyWordExt;
+import com.github.jerrymice.json.schema.index.ErrorMessage;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.github.jerrymice.json.schema.registry.SchemaEntry;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 在构建时把schema目录编译为{@link SchemaBundle}文件。
+ * <p>
+ * 编译时完整编译每个schema，$ref引用不存在、$error引用无效或者正则表达式错误都会使构建失败。
+ * 可以通过exec-maven-plugin在process-classes阶段执行，本项目存在src/main/schemas目录时由schema-bundle profile执行：
+ * <pre>
+ * &lt;mainClass&gt;com.github.jerrymice.json.schema.bundle.SchemaBundleCompiler&lt;/mainClass&gt;
+ * &lt;arguments&gt;
+ *   &lt;argument&gt;${project.build.outputDirectory}/schemas.bundle&lt;/argument&gt;
+ *   &lt;argument&gt;${project.basedir}/src/main/schemas&lt;/argument&gt;
+ * &lt;/arguments&gt;
+ * </pre>
+ */
+public class SchemaBundleCompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaBundleCompiler.class);
+    /**
+     * 这些关键字的值是数据而不是schema
+     */
+    private static final Set<String> VALUE_KEYWORDS = new HashSet<>(Arrays.asList("enum", "const", "default", "examples",
+            KeyWordExt.ERROR_KEY));
+
+    private final SchemaRegistry registry;
+
+    /**
+     * @param registry 需要编译的schema所在的注册中心
+     */
+    public SchemaBundleCompiler(SchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param args 第一个参数为输出文件，其余参数为schema目录，classpath:开头为classpath目录
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("usage: SchemaBundleCompiler <output> <schema directory>...");
+        }
+        SchemaRegistry registry = new SchemaRegistry();
+        for (String location : Arrays.asList(args).subList(1, args.length)) {
+            if (location.startsWith("classpath:")) {
+                registry.registerClasspath(location.substring("classpath:".length()));
+            } else {
+                registry.registerDirectory(Paths.get(location));
+            }
+        }
+        Path output = Paths.get(args[0]);
+        int count = new SchemaBundleCompiler(registry).compile(output);
+        LOGGER.info("编译了{}个schema到{}", count, output.toAbsolutePath());
+    }
+
+    /**
+     * @param output
+     * @return 编译的schema数量
+     * @throws IOException
+     */
+    public int compile(Path output) throws IOException {
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(output)) {
+            return compile(out);
+        }
+    }
+
+    /**
+     * @param out 由调用方关闭
+     * @return 编译的schema数量
+     * @throws IOException
+     */
+    public int compile(OutputStream out) throws IOException {
+        List<SchemaEntry> entries = registry.getEntries().stream()
+                .sorted(Comparator.comparing(SchemaEntry::getId))
+                .collect(Collectors.toList());
+        ObjectNode root = SchemaBundle.SMILE_MAPPER.createObjectNode();
+        root.put(SchemaBundle.FORMAT, SchemaBundle.FORMAT_VERSION);
+        ArrayNode schemas = root.putArray(SchemaBundle.SCHEMAS);
+        for (SchemaEntry entry : entries) {
+            //完整编译一次，$ref与$error引用无效时构建失败
+            registry.getSchema(entry.getId());
+            schemas.add(compile(entry));
+        }
+        SchemaBundle.SMILE_MAPPER.writeValue(out, root);
+        return entries.size();
+    }
+
+    private ObjectNode compile(SchemaEntry entry) {
+        JsonNode schemaNode = entry.getSchemaNode();
+        ObjectNode node = SchemaBundle.SMILE_MAPPER.createObjectNode();
+        node.put(SchemaBundle.ID, entry.getId());
+        node.put(SchemaBundle.LOCATION, entry.getLocation());
+        node.set(SchemaBundle.SCHEMA, schemaNode);
+        Set<String> refs = new LinkedHashSet<>();
+        Set<String> patterns = new LinkedHashSet<>();
+        collect(schemaNode, baseUri(entry.getId()), refs, patterns);
+        refs.forEach(node.putArray(SchemaBundle.REFS)::add);
+        patterns.forEach(node.putArray(SchemaBundle.PATTERNS)::add);
+
+        ErrorMessageIndex index = ErrorMessageIndex.forSchemaNode(schemaNode);
+        ObjectNode errors = node.putObject(SchemaBundle.ERRORS);
+        ObjectNode explicit = errors.putObject(SchemaBundle.EXPLICIT);
+        index.getExplicitLocations().forEach((location, types) -> writeErrorMessages(explicit.putObject(location), types));
+        writeErrorMessages(errors.putObject(SchemaBundle.POINTERS), index.getPointerIndex());
+        return node;
+    }
+
+    private static void writeErrorMessages(ObjectNode node, Map<String, ErrorMessage> errorMessages) {
+        errorMessages.forEach((key, errorMessage) -> {
+            ObjectNode value = node.putObject(key);
+            if (errorMessage.getCode() != null) {
+                value.put(SchemaBundle.CODE, errorMessage.getCode());
+            }
+            MessageTemplate template = errorMessage.getTemplate();
+            if (template != null) {
+                value.put(SchemaBundle.MESSAGE, template.getText());
+                if (!template.getLocalized().isEmpty()) {
+                    ObjectNode localized = value.putObject(SchemaBundle.LOCALIZED);
+                    template.getLocalized().forEach((tag, localizedTemplate) -> localized.put(tag, localizedTemplate.getText()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 收集引用的其它schema和正则表达式，正则表达式在这里编译一次，错误时构建失败
+     */
+    private static void collect(JsonNode node, URI base, Set<String> refs, Set<String> patterns) {
+        if (node.isArray()) {
+            node.forEach(item -> collect(item, base, refs, patterns));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if ("$ref".equals(name) && value.isTextual()) {
+                String ref = resolveRef(base, value.asText());
+                if (ref != null) {
+                    refs.add(ref);
+                }
+            } else if ("pattern".equals(name) && value.isTextual()) {
+                Pattern.compile(value.asText());
+                patterns.add(value.asText());
+            } else if ("patternProperties".equals(name) && value.isObject()) {
+                value.fieldNames().forEachRemaining(pattern -> {
+                    Pattern.compile(pattern);
+                    patterns.add(pattern);
+                });
+                collect(value, base, refs, patterns);
+            } else if (!VALUE_KEYWORDS.contains(name)) {
+                collect(value, base, refs, patterns);
+            }
+        }
+    }
+
+    /**
+     * @return 引用的schema地址，去掉#之后的部分，schema内部的引用返回null
+     */
+    private static String resolveRef(URI base, String ref) {
+        if (ref.startsWith("#")) {
+            return null;
+        }
+        try {
+            URI uri = base == null ? new URI(ref) : base.resolve(ref);
+            String text = uri.toString();
+            int hash = text.indexOf('#');
+            return hash >= 0 ? text.substring(0, hash) : text;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return ref;
+        }
+    }
+
+    private static URI baseUri(String id) {
+        try {
+            return new URI(id);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.jerrymice.json.schema.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JsonNode内容的64位哈希，直接遍历树，不生成json字符串。
+ * 对象的属性按名称和值分别计算后累加，与属性顺序无关，和JsonNode.equals保持一致：equals相等的节点哈希一定相等
+ */
+public final class ContentHash {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private ContentHash() {
+    }
+
+    /**
+     * @param node
+     * @return 节点内容的64位哈希
+     */
+    public static long hash(JsonNode node) {
+        if (node == null) {
+            return 0;
+        }
+        long tag = node.getNodeType().ordinal() * PRIME_2;
+        switch (node.getNodeType()) {
+            case OBJECT: {
+                long sum = 0;
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sum += mix(hash(field.getKey()) * PRIME_1 + hash(field.getValue()));
+                }
+                return mix(tag + sum + node.size());
+            }
+            case ARRAY: {
+                long h = tag;
+                for (int i = 0; i < node.size(); i++) {
+                    h = mix(h * PRIME_1 + hash(node.get(i)));
+                }
+                return mix(h + node.size());
+            }
+            case NUMBER:
+                //IntNode(1)与LongNode(1)不相等，按数值类型区分
+                return mix(tag + node.numberType().ordinal() + hash(node.asText()) * PRIME_1);
+            case STRING:
+                return mix(tag + hash(node.textValue()));
+            default:
+                return mix(tag + hash(node.toString()));
+        }
+    }
+
+    private static long hash(String text) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < text.length(); i++) {
+            h = (h ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * murmur3的64位finalizer
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.jerrymice.json.schema.cache;
+
+/**
+ * 按引用比较的缓存key，用于JsonNode这类equals/hashCode需要深度遍历的对象
+ *
+ * @param <T>
+ */
+public final class IdentityKey<T> {
+    private final T value;
+    private final int hash;
+
+    public IdentityKey(T value) {
+        this.value = value;
+        this.hash = System.identityHashCode(value);
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof IdentityKey && ((IdentityKey<?>) o).value == value);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.jerrymice.json.schema.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 线程安全、容量有限的LRU缓存，并记录命中、未命中和淘汰次数。
+ * 可以同时按值的权重限制总量，总权重超过上限时从最久未使用的值开始淘汰
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class LruCache<K, V> {
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToLongFunction<? super V> weigher;
+    /**
+     * 当前所有值的权重之和，在map的锁内修改
+     */
+    private long weight;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LinkedHashMap<K, V> map;
+
+    public LruCache(int maximumSize) {
+        this(maximumSize, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * @param maximumSize
+     * @param maximumWeight 所有值的权重之和的上限，单个值超过上限时不会保留
+     * @param weigher       计算值的权重，放入缓存时调用一次，同一个值每次返回的结果必须相同
+     */
+    public LruCache(int maximumSize, long maximumWeight, ToLongFunction<? super V> weigher) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    weight -= weigher.applyAsLong(eldest.getValue());
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @param key
+     * @return 缓存的值，不存在时返回null
+     */
+    public V get(K key) {
+        return get(key, value -> false);
+    }
+
+    /**
+     * @param key
+     * @param stale 返回true的值已经失效，直接移除并计入淘汰次数
+     * @return 缓存的值，不存在或者已经失效时返回null
+     */
+    public V get(K key, Predicate<? super V> stale) {
+        V value;
+        synchronized (map) {
+            value = map.get(key);
+            if (value != null && stale.test(value)) {
+                remove(key);
+                evictionCount.increment();
+                value = null;
+            }
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 查找缓存，不存在时调用loader创建。loader在锁外执行，避免一个耗时的加载阻塞其它key，
+     * 并发加载同一个key时以先放入缓存的值为准
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V created = loader.apply(key);
+        if (created == null) {
+            return null;
+        }
+        synchronized (map) {
+            V existing = map.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            add(key, created);
+        }
+        return created;
+    }
+
+    public void put(K key, V value) {
+        synchronized (map) {
+            add(key, value);
+        }
+    }
+
+    public V invalidate(K key) {
+        synchronized (map) {
+            return remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * @return 当前所有值的权重之和
+     */
+    public long weight() {
+        synchronized (map) {
+            return weight;
+        }
+    }
+
+    /**
+     * 在map的锁内调用
+     */
+    private void add(K key, V value) {
+        weight += weigher.applyAsLong(value);
+        V previous = map.put(key, value);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+        Iterator<V> eldest = map.values().iterator();
+        while (weight > maximumWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next());
+            eldest.remove();
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * 在map的锁内调用
+     */
+    private V remove(K key) {
+        V value = map.remove(key);
+        if (value != null) {
+            weight -= weigher.applyAsLong(value);
+        }
+        return value;
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    /**
+     * @return 当前缓存的值的快照，不影响访问顺序
+     */
+    public List<V> values() {
+        synchronized (map) {
+            return new ArrayList<>(map.values());
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size());
+    }
+}
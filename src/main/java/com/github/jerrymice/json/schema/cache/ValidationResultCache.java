@@ -0,0 +1,171 @@
+package com.github.jerrymice.json.schema.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 验证结果缓存，用于反复验证相同内容的场景。
+ * <p>
+ * 按schema版本和内容的64位哈希查找，哈希与属性顺序无关；哈希相同时再用JsonNode.equals与缓存的内容比较，
+ * 哈希冲突不会返回错误的结果。
+ * 数量和内容的估算字节数都有上限，超过上限淘汰最久未使用的结果，超过ttl的结果在下次读取时丢弃。
+ * 缓存中保存内容的副本，调用方之后修改JsonNode不会影响缓存
+ */
+public class ValidationResultCache {
+    /**
+     * 默认最多保存的内容估算字节数
+     */
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+    private static final int OBJECT_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int FIELD_BYTES = 48;
+    private static final int STRING_BYTES = 40;
+
+    private final long ttlNanos;
+    private final LruCache<Key, Entry> cache;
+
+    /**
+     * @param maximumSize
+     * @param ttl         为null时不过期
+     */
+    public ValidationResultCache(int maximumSize, Duration ttl) {
+        this(maximumSize, DEFAULT_MAXIMUM_BYTES, ttl);
+    }
+
+    /**
+     * @param maximumSize
+     * @param maximumBytes 缓存的内容估算字节数之和的上限，超过上限的单个内容不会缓存
+     * @param ttl          为null时不过期
+     */
+    public ValidationResultCache(int maximumSize, long maximumBytes, Duration ttl) {
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+        this.cache = new LruCache<>(maximumSize, maximumBytes, entry -> entry.bytes);
+    }
+
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * 查找缓存的验证结果，不存在时调用validator验证并缓存。validator和内容比较都在锁外执行
+     *
+     * @param version   schema版本，不同版本的结果互不影响
+     * @param node
+     * @param validator
+     * @return 只读的验证结果，命中与未命中时相同
+     */
+    public Set<ValidationMessage> computeIfAbsent(long version, JsonNode node,
+                                                  Function<JsonNode, Set<ValidationMessage>> validator) {
+        Key key = new Key(version, ContentHash.hash(node));
+        long now = System.nanoTime();
+        Entry entry = cache.get(key, cached -> now - cached.createdNanos >= ttlNanos);
+        //哈希冲突时按未命中处理，新的结果覆盖冲突的结果
+        if (entry != null && entry.node.equals(node)) {
+            return entry.messages;
+        }
+        Set<ValidationMessage> messages = Collections.unmodifiableSet(new LinkedHashSet<>(validator.apply(node)));
+        cache.put(key, new Entry(node.deepCopy(), messages, now));
+        return messages;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return 缓存的内容估算字节数之和
+     */
+    public long bytes() {
+        return cache.weight();
+    }
+
+    /**
+     * @return 命中统计，过期丢弃的结果计入淘汰次数
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @param node
+     * @return JsonNode树占用内存的粗略估算
+     */
+    private static long estimateBytes(JsonNode node) {
+        if (node.isObject()) {
+            long bytes = OBJECT_BYTES;
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                bytes += FIELD_BYTES + 2L * field.getKey().length() + estimateBytes(field.getValue());
+            }
+            return bytes;
+        }
+        if (node.isArray()) {
+            long bytes = OBJECT_BYTES;
+            for (JsonNode item : node) {
+                bytes += REFERENCE_BYTES + estimateBytes(item);
+            }
+            return bytes;
+        }
+        if (node.isTextual()) {
+            return STRING_BYTES + 2L * node.textValue().length();
+        }
+        return OBJECT_BYTES;
+    }
+
+    private static final class Key {
+        private final long version;
+        private final long hash;
+
+        private Key(long version, long hash) {
+            this.version = version;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return version == that.version && hash == that.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash * 31 + version);
+        }
+    }
+
+    private static final class Entry {
+        private final JsonNode node;
+        private final Set<ValidationMessage> messages;
+        private final long createdNanos;
+        private final long bytes;
+
+        private Entry(JsonNode node, Set<ValidationMessage> messages, long createdNanos) {
+            this.node = node;
+            this.messages = messages;
+            this.createdNanos = createdNanos;
+            this.bytes = estimateBytes(node);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.jerrymice.json.schema.incremental;
+
+import com.github.jerrymice.json.schema.report.ValidationReport;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 增量验证的结果，作为下一次{@link IncrementalValidator#revalidate}的输入。
+ * 记录产生结果的schema版本，schema重新加载后不能再用于增量验证
+ */
+public final class IncrementalResult {
+    private final long schemaVersion;
+    private final Set<ValidationMessage> validationMessages;
+    private final boolean full;
+    private final List<String> evaluatedPaths;
+
+    IncrementalResult(long schemaVersion, Set<ValidationMessage> validationMessages, boolean full, List<String> evaluatedPaths) {
+        this.schemaVersion = schemaVersion;
+        this.validationMessages = Collections.unmodifiableSet(validationMessages);
+        this.full = full;
+        this.evaluatedPaths = Collections.unmodifiableList(evaluatedPaths);
+    }
+
+    public long getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * @return 合并后的全部验证消息，只读
+     */
+    public Set<ValidationMessage> getValidationMessages() {
+        return validationMessages;
+    }
+
+    public boolean isValid() {
+        return validationMessages.isEmpty();
+    }
+
+    /**
+     * @return 是否重新验证了整个文档
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return 本次重新验证的数据路径，例如$.config.servers
+     */
+    public List<String> getEvaluatedPaths() {
+        return evaluatedPaths;
+    }
+
+    public ValidationReport getReport() {
+        return ValidationReport.of(validationMessages);
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalResult{schemaVersion=" + schemaVersion + ", full=" + full
+                + ", evaluatedPaths=" + evaluatedPaths + ", validationMessages=" + validationMessages + "}";
+    }
+}
@@ -0,0 +1,553 @@
+package com.github.jerrymice.json.schema.incremental;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.CompiledSchema;
+import com.github.jerrymice.json.schema.SchemaManager;
+import com.github.jerrymice.json.schema.stream.ArrayItemSchemas;
+import com.networknt.schema.CollectorContext;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.PropertiesValidator;
+import com.networknt.schema.RefValidator;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorState;
+import com.networknt.schema.walk.DefaultKeywordWalkListenerRunner;
+import com.networknt.schema.walk.WalkListenerRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 增量验证：根据修改过的json pointer只重新验证受影响的子schema，再与上一次的结果合并，
+ * 耗时取决于修改的范围而不是文档的大小。
+ * <p>
+ * 每个pointer从根schema开始，沿着已经编译好的properties、items和$ref找到被修改节点的父节点：
+ * <ul>
+ * <li>父节点只重新执行自身的关键字(required、dependentRequired、additionalProperties、propertyNames等)，不进入其它属性</li>
+ * <li>被修改的节点按自己的schema完整验证，节点被删除时只清除它原有的消息</li>
+ * <li>路径上某一层出现依赖子节点内容的关键字(if/then/else、allOf/anyOf/oneOf/not、dependentSchemas、
+ * enum、const、uniqueItems、contains等)时，从这一层开始完整验证</li>
+ * <li>数组元素的增删会改变后续元素的下标，父节点为数组时整个数组重新验证</li>
+ * <li>无法确定子节点的schema(patternProperties、additionalProperties为schema等)时，从当前层完整验证</li>
+ * </ul>
+ * schema重新加载过、pointer指向根节点或者需要从根节点开始验证时，重新验证整个文档。
+ * <p>
+ * 验证范围按pointer的每一段定位和比较。验证消息的路径是用.连接的属性名，属性名本身包含.或[时，
+ * 例如$.a.b既可能是a下的b也可能是属性a.b，无法确定消息属于哪个范围时重新验证整个文档
+ */
+public final class IncrementalValidator {
+    private static final String AT_ROOT = "$";
+    /**
+     * 只检查当前节点本身或者属性名的关键字，子节点内容变化时不需要从这一层重新验证
+     */
+    private static final Set<String> LOCAL_KEYWORDS = new HashSet<>(Arrays.asList(
+            "type", "required", "dependentRequired", "properties", "additionalProperties", "propertyNames",
+            "minProperties", "maxProperties", "items", "prefixItems", "additionalItems", "minItems", "maxItems",
+            "$ref", "format", "pattern", "minLength", "maxLength", "minimum", "maximum", "exclusiveMinimum",
+            "exclusiveMaximum", "multipleOf", "readOnly", "writeOnly", "true", "false"));
+    /**
+     * 进入子节点的关键字，父节点只重新执行自身关键字时跳过，$ref指向的schema单独展开
+     */
+    private static final Set<String> CHILD_KEYWORDS = new HashSet<>(Arrays.asList(
+            "properties", "items", "prefixItems", "additionalItems", "$ref"));
+
+    private final CompiledSchema compiledSchema;
+    private final boolean walk;
+    private final WalkListenerRunner keywordWalkListenerRunner;
+    private final Consumer<Set<ValidationMessage>> messageHandler;
+
+    /**
+     * @param compiledSchema
+     * @param walk           为true时使用walk，keyword walk listener会重写验证消息
+     */
+    public IncrementalValidator(CompiledSchema compiledSchema, boolean walk) {
+        this(compiledSchema, walk, null);
+    }
+
+    /**
+     * @param compiledSchema
+     * @param walk           为true时使用walk，keyword walk listener会重写验证消息
+     * @param messageHandler 合并后的消息在返回前交给messageHandler处理，例如去掉已经被重写的原始消息，可以为null
+     */
+    public IncrementalValidator(CompiledSchema compiledSchema, boolean walk, Consumer<Set<ValidationMessage>> messageHandler) {
+        this.compiledSchema = compiledSchema;
+        this.walk = walk;
+        this.messageHandler = messageHandler;
+        SchemaValidatorsConfig config = compiledSchema.getSchemaValidatorsConfig();
+        this.keywordWalkListenerRunner = new DefaultKeywordWalkListenerRunner(config == null
+                ? Collections.emptyMap() : config.getKeywordWalkListenersMap());
+    }
+
+    /**
+     * 完整验证，结果作为第一次增量验证的输入
+     *
+     * @param document
+     * @return
+     */
+    public IncrementalResult validate(JsonNode document) {
+        JsonSchema jsonSchema = compiledSchema.getJsonSchema();
+        Set<ValidationMessage> messages = new LinkedHashSet<>(walk
+                ? jsonSchema.walk(document, true).getValidationMessages() : jsonSchema.validate(document));
+        return result(messages, true, Collections.singletonList(AT_ROOT));
+    }
+
+    /**
+     * @param previous        上一次的结果，为null或者schema版本不同时完整验证
+     * @param document        修改后的文档
+     * @param changedPointers 修改过的json pointer，例如json patch中每个操作的path，move/copy还需要包含from
+     * @return 合并后的结果
+     * @throws IllegalArgumentException pointer格式错误
+     */
+    public IncrementalResult revalidate(IncrementalResult previous, JsonNode document, Collection<String> changedPointers) {
+        if (previous == null || previous.getSchemaVersion() != compiledSchema.getVersion()) {
+            return validate(document);
+        }
+        Map<List<String>, Region> regions = new LinkedHashMap<>();
+        for (String changedPointer : changedPointers) {
+            if (!locate(JsonPointer.compile(changedPointer), document, regions)) {
+                return validate(document);
+            }
+        }
+        List<Region> affected = removeCovered(regions);
+        Set<ValidationMessage> messages = new LinkedHashSet<>();
+        for (ValidationMessage message : previous.getValidationMessages()) {
+            if (isAmbiguous(message.getPath(), affected)) {
+                return validate(document);
+            }
+            if (!isAffected(message.getPath(), affected)) {
+                messages.add(message);
+            }
+        }
+        List<String> evaluatedPaths = new ArrayList<>(affected.size());
+        try {
+            for (Region region : affected) {
+                if (region.levels == null) {
+                    continue;
+                }
+                messages.addAll(region.subtree ? evaluate(region.levels.get(0), region.node, document, region.at)
+                        : evaluateLocal(region.levels, region.node, document, region.at));
+                evaluatedPaths.add(region.at);
+            }
+        } finally {
+            SchemaValidatorsConfig config = compiledSchema.getSchemaValidatorsConfig();
+            if (config == null || config.isResetCollectorContext()) {
+                CollectorContext.getInstance().reset();
+            }
+        }
+        return result(messages, false, evaluatedPaths);
+    }
+
+    private IncrementalResult result(Set<ValidationMessage> messages, boolean full, List<String> evaluatedPaths) {
+        if (messageHandler != null) {
+            messageHandler.accept(messages);
+        }
+        return new IncrementalResult(compiledSchema.getVersion(), messages, full, evaluatedPaths);
+    }
+
+    /**
+     * 沿pointer向下找到需要重新验证的范围
+     *
+     * @param pointer
+     * @param document
+     * @param regions
+     * @return 需要从根节点完整验证时返回false
+     */
+    private boolean locate(JsonPointer pointer, JsonNode document, Map<List<String>, Region> regions) {
+        if (pointer.matches()) {
+            return false;
+        }
+        List<JsonSchema> levels = expand(compiledSchema.getJsonSchema());
+        JsonNode node = document;
+        String at = AT_ROOT;
+        List<String> segments = Collections.emptyList();
+        List<String> shadows = Collections.emptyList();
+        while (true) {
+            if (!isLocal(levels)) {
+                return addSubtree(regions, at, segments, shadows, node, levels);
+            }
+            boolean last = pointer.tail().matches();
+            List<JsonSchema> childSchemas;
+            JsonNode child;
+            String childAt;
+            String segment;
+            List<String> childShadows = shadows;
+            if (node.isObject()) {
+                String name = pointer.getMatchingProperty();
+                segment = name;
+                childSchemas = propertySchemas(levels, name);
+                child = node.get(name);
+                childAt = at + "." + name;
+                if (last) {
+                    if (childSchemas.size() > 1) {
+                        return addSubtree(regions, at, segments, shadows, node, levels);
+                    }
+                    //父节点只执行自身的关键字，子节点没有schema或者已经删除时只清除原有的消息
+                    put(regions, new Region(at, segments, shadows, node, levels, false));
+                    boolean evaluate = child != null && !childSchemas.isEmpty();
+                    put(regions, new Region(childAt, append(segments, name), shadows(node, at, name, shadows), child,
+                            evaluate ? expand(childSchemas.get(0)) : null, true));
+                    return true;
+                }
+                childShadows = shadows(node, at, name, shadows);
+            } else if (node.isArray() && !last) {
+                int index = pointer.getMatchingIndex();
+                segment = String.valueOf(index);
+                childSchemas = index < 0 ? Collections.emptyList() : itemSchemas(levels, index);
+                child = index < 0 ? null : node.get(index);
+                childAt = at + "[" + index + "]";
+            } else {
+                return addSubtree(regions, at, segments, shadows, node, levels);
+            }
+            if (child == null || childSchemas.size() != 1) {
+                return addSubtree(regions, at, segments, shadows, node, levels);
+            }
+            segments = append(segments, segment);
+            shadows = childShadows;
+            levels = expand(childSchemas.get(0));
+            node = child;
+            at = childAt;
+            pointer = pointer.tail();
+        }
+    }
+
+    private boolean addSubtree(Map<List<String>, Region> regions, String at, List<String> segments, List<String> shadows,
+                               JsonNode node, List<JsonSchema> levels) {
+        if (segments.isEmpty()) {
+            return false;
+        }
+        put(regions, new Region(at, segments, shadows, node, levels, true));
+        return true;
+    }
+
+    private void put(Map<List<String>, Region> regions, Region region) {
+        Region exists = regions.get(region.segments);
+        if (exists == null || !exists.subtree && region.subtree
+                || exists.levels == null && region.levels != null && region.subtree) {
+            regions.put(region.segments, region);
+        }
+    }
+
+    private static List<String> append(List<String> segments, String segment) {
+        List<String> appended = new ArrayList<>(segments.size() + 1);
+        appended.addAll(segments);
+        appended.add(segment);
+        return appended;
+    }
+
+    /**
+     * 找出与属性name的消息路径重叠的兄弟属性，例如a与a.b，$.a.b下的消息可能属于其中任意一个
+     *
+     * @param parent  name所在的对象
+     * @param at      parent的路径
+     * @param name
+     * @param shadows 上层已经找到的路径
+     * @return
+     */
+    private static List<String> shadows(JsonNode parent, String at, String name, List<String> shadows) {
+        List<String> found = shadows;
+        String childAt = at + "." + name;
+        Iterator<String> names = parent.fieldNames();
+        while (names.hasNext()) {
+            String sibling = names.next();
+            if (sibling.equals(name)) {
+                continue;
+            }
+            String siblingAt = at + "." + sibling;
+            if (isUnder(siblingAt, childAt) || isUnder(childAt, siblingAt)) {
+                found = found == shadows ? new ArrayList<>(shadows) : found;
+                found.add(siblingAt);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 去掉被其它完整验证范围包含的范围
+     *
+     * @param regions
+     * @return
+     */
+    private List<Region> removeCovered(Map<List<String>, Region> regions) {
+        List<Region> affected = new ArrayList<>(regions.size());
+        for (Region region : regions.values()) {
+            boolean covered = false;
+            for (Region other : regions.values()) {
+                if (other != region && other.subtree && startsWith(region.segments, other.segments)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                affected.add(region);
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @param path
+     * @param affected
+     * @return 消息是否由重新验证的范围产生，父节点范围只包含路径相同的消息
+     */
+    private static boolean isAffected(String path, List<Region> affected) {
+        for (Region region : affected) {
+            if (region.contains(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param path
+     * @param affected
+     * @return 路径在某个范围内，但也可能属于其它属性
+     */
+    private static boolean isAmbiguous(String path, List<Region> affected) {
+        for (Region region : affected) {
+            if (region.contains(path) && region.isShadowed(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(List<String> segments, List<String> prefix) {
+        return segments.size() >= prefix.size() && segments.subList(0, prefix.size()).equals(prefix);
+    }
+
+    /**
+     * @return 按.和[分隔的路径path是否在at之下，只比较文本，属性名中包含.或[时由Region的shadows排除
+     */
+    private static boolean isUnder(String path, String at) {
+        if (!path.startsWith(at)) {
+            return false;
+        }
+        if (path.length() == at.length()) {
+            return true;
+        }
+        char next = path.charAt(at.length());
+        return next == '.' || next == '[';
+    }
+
+    /**
+     * @param levels
+     * @return 是否只包含局部关键字
+     */
+    private boolean isLocal(List<JsonSchema> levels) {
+        for (JsonSchema schema : levels) {
+            JsonNode additionalProperties = schema.getSchemaNode().get("additionalProperties");
+            if (additionalProperties != null && additionalProperties.isObject()) {
+                return false;
+            }
+            Set<String> nonValidationKeywords = nonValidationKeywords(schema);
+            for (String schemaPathWithKeyword : schema.getValidators().keySet()) {
+                String keyword = keyword(schemaPathWithKeyword);
+                if (!LOCAL_KEYWORDS.contains(keyword) && !nonValidationKeywords.contains(keyword)) {
+                    return false;
+                }
+            }
+            //unevaluatedProperties不在validators中
+            if (schema.getSchemaNode().has("unevaluatedProperties") || schema.getSchemaNode().has("unevaluatedItems")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String keyword(String schemaPathWithKeyword) {
+        return schemaPathWithKeyword.substring(schemaPathWithKeyword.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @param schema
+     * @return schema所在文件的meta-schema中不参与验证的关键字，例如$error、version
+     */
+    private static Set<String> nonValidationKeywords(JsonSchema schema) {
+        JsonNode metaSchema = schema.findAncestor().getSchemaNode().get("$schema");
+        return SchemaManager.getNonValidationKeywords(metaSchema == null ? null : metaSchema.asText());
+    }
+
+    /**
+     * @param schema
+     * @return schema本身以及$ref指向的schema
+     */
+    private List<JsonSchema> expand(JsonSchema schema) {
+        List<JsonSchema> levels = new ArrayList<>(1);
+        Set<JsonSchema> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        expand(schema, levels, visited);
+        return levels;
+    }
+
+    private void expand(JsonSchema schema, List<JsonSchema> levels, Set<JsonSchema> visited) {
+        if (!visited.add(schema)) {
+            return;
+        }
+        levels.add(schema);
+        for (JsonValidator validator : schema.getValidators().values()) {
+            if (validator instanceof RefValidator) {
+                expand(((RefValidator) validator).getSchemaRef().getSchema(), levels, visited);
+            }
+        }
+    }
+
+    private List<JsonSchema> propertySchemas(List<JsonSchema> levels, String name) {
+        List<JsonSchema> schemas = Collections.emptyList();
+        for (JsonSchema schema : levels) {
+            for (JsonValidator validator : schema.getValidators().values()) {
+                if (validator instanceof PropertiesValidator) {
+                    JsonSchema propertySchema = ((PropertiesValidator) validator).getSchemas().get(name);
+                    if (propertySchema != null) {
+                        schemas = schemas.isEmpty() ? new ArrayList<>(1) : schemas;
+                        schemas.add(propertySchema);
+                    }
+                }
+            }
+        }
+        return schemas;
+    }
+
+    private List<JsonSchema> itemSchemas(List<JsonSchema> levels, int index) {
+        List<JsonSchema> schemas = Collections.emptyList();
+        for (JsonSchema schema : levels) {
+            JsonSchema itemSchema = ArrayItemSchemas.of(schema).schemaAt(index);
+            if (itemSchema != null) {
+                schemas = schemas.isEmpty() ? new ArrayList<>(1) : schemas;
+                schemas.add(itemSchema);
+            }
+        }
+        return schemas;
+    }
+
+    /**
+     * 按schema完整验证节点，子schema的walk不会初始化ValidatorState，这里按JsonSchema.walk(JsonNode, boolean)的方式设置
+     *
+     * @param schema
+     * @param node
+     * @param document
+     * @param at
+     * @return
+     */
+    private Set<ValidationMessage> evaluate(JsonSchema schema, JsonNode node, JsonNode document, String at) {
+        if (!walk) {
+            return schema.validate(node, document, at);
+        }
+        initValidatorState(schema);
+        return schema.walk(node, document, at, true);
+    }
+
+    private void initValidatorState(JsonSchema schema) {
+        CollectorContext collectorContext = schema.getCollectorContext();
+        if (collectorContext.get(ValidatorState.VALIDATOR_STATE_KEY) == null) {
+            ValidatorState state = new ValidatorState();
+            state.setWalkEnabled(true);
+            state.setValidationEnabled(true);
+            collectorContext.add(ValidatorState.VALIDATOR_STATE_KEY, state);
+        }
+    }
+
+    /**
+     * 只执行节点自身的关键字，walk时按JsonSchema.walk的方式调用keyword walk listener。
+     * listener收到的WalkEvent中没有ValidationContext
+     *
+     * @param levels
+     * @param node
+     * @param document
+     * @param at
+     * @return
+     */
+    private Set<ValidationMessage> evaluateLocal(List<JsonSchema> levels, JsonNode node, JsonNode document, String at) {
+        Set<ValidationMessage> messages = new LinkedHashSet<>();
+        if (walk) {
+            initValidatorState(levels.get(0));
+        }
+        for (JsonSchema schema : levels) {
+            Set<ValidationMessage> schemaMessages = new LinkedHashSet<>();
+            for (Map.Entry<String, JsonValidator> entry : schema.getValidators().entrySet()) {
+                String schemaPathWithKeyword = entry.getKey();
+                if (CHILD_KEYWORDS.contains(keyword(schemaPathWithKeyword))) {
+                    continue;
+                }
+                JsonValidator validator = entry.getValue();
+                if (!walk) {
+                    schemaMessages.addAll(validator.validate(node, document, at));
+                    continue;
+                }
+                try {
+                    if (keywordWalkListenerRunner.runPreWalkListeners(schemaPathWithKeyword, node, document, at,
+                            schema.getSchemaPath(), schema.getSchemaNode(), schema.getParentSchema(), null, null)) {
+                        schemaMessages.addAll(validator.walk(node, document, at, true));
+                    }
+                } finally {
+                    keywordWalkListenerRunner.runPostWalkListeners(schemaPathWithKeyword, node, document, at,
+                            schema.getSchemaPath(), schema.getSchemaNode(), schema.getParentSchema(), null, null, schemaMessages);
+                }
+            }
+            messages.addAll(schemaMessages);
+        }
+        return messages;
+    }
+
+    /**
+     * 需要重新验证的范围
+     */
+    private static final class Region {
+        private final String at;
+        /**
+         * 从根节点开始的属性名和数组下标
+         */
+        private final List<String> segments;
+        /**
+         * 与at文本重叠、但属于其它属性的路径
+         */
+        private final List<String> shadows;
+        private final JsonNode node;
+        /**
+         * 节点的schema以及$ref展开后的schema，为null时只清除原有的消息
+         */
+        private final List<JsonSchema> levels;
+        /**
+         * true:完整验证节点及所有子节点，false:只执行节点自身的关键字
+         */
+        private final boolean subtree;
+
+        private Region(String at, List<String> segments, List<String> shadows, JsonNode node, List<JsonSchema> levels,
+                       boolean subtree) {
+            this.at = at;
+            this.segments = segments;
+            this.shadows = shadows;
+            this.node = node;
+            this.levels = levels;
+            this.subtree = subtree;
+        }
+
+        private boolean contains(String path) {
+            return subtree ? isUnder(path, at) : path.equals(at);
+        }
+
+        /**
+         * @return 路径也可能属于其它属性
+         */
+        private boolean isShadowed(String path) {
+            for (String shadow : shadows) {
+                if (isUnder(path, shadow)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
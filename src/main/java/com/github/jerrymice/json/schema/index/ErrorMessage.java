@@ -0,0 +1,54 @@
+package com.github.jerrymice.json.schema.index;
+
+/**
+ * $error中解析完成的错误码与错误信息，code或message为null时保留原始值
+ */
+public final class ErrorMessage {
+    /**
+     * $error中定义了该节点，但解析不出code与message，不需要重写
+     */
+    public static final ErrorMessage NONE = new ErrorMessage(null, (MessageTemplate) null);
+
+    private final String code;
+    private final MessageTemplate template;
+
+    public ErrorMessage(String code, String message) {
+        this(code, message == null ? null : MessageTemplate.intern(message));
+    }
+
+    /**
+     * @param code
+     * @param template 驻留的错误信息模板
+     */
+    public ErrorMessage(String code, MessageTemplate template) {
+        this.code = code;
+        this.template = template;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return 未格式化的默认文本
+     */
+    public String getMessage() {
+        return template == null ? null : template.getText();
+    }
+
+    /**
+     * @return 错误信息模板，没有定义message时返回null
+     */
+    public MessageTemplate getTemplate() {
+        return template;
+    }
+
+    public boolean isNone() {
+        return code == null && template == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ErrorMessage{code=" + code + ", message=" + getMessage() + "}";
+    }
+}
@@ -0,0 +1,385 @@
+package com.github.jerrymice.json.schema.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.cache.IdentityKey;
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.networknt.schema.JsonSchemaException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_CODE_KEY;
+import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_KEY;
+import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_MESSAGE_KEY;
+
+/**
+ * schema中$error的预编译索引
+ * <p>
+ * 加载schema时遍历一次整个schema，把所有$error定义和${..}引用表达式解析为{@link ErrorMessage}，
+ * 重写验证消息时只需要查找map，不再解析json pointer和遍历schema树。
+ * 引用表达式指向不存在的节点时，编译直接抛出{@link JsonSchemaException}
+ * <p>
+ * 支持以下几种格式
+ * <p>
+ * example:
+ * {"$error":{"name":{"type":{"code":"1234","message":"名字不能为空"}}}};
+ * {"$error":{"name":{"type":{"code":"${/$error/name/type/code}","message":"名字不能为空"}}}};
+ * {"name":{"$error":"${/$error/name}"}};
+ * {"name":{"$error":{"type":"${/$error/name/type}"}}};
+ */
+public class ErrorMessageIndex {
+    private static final int MAX_REFERENCE_DEPTH = 16;
+    private static final int REGISTRY_SIZE = 1024;
+    /**
+     * 这些关键字的值是数据而不是schema，不需要查找$error
+     */
+    private static final Set<String> VALUE_KEYWORDS = new HashSet<>(Arrays.asList("enum", "const", "default", "examples"));
+    private static final LruCache<IdentityKey<JsonNode>, ErrorMessageIndex> REGISTRY = new LruCache<>(REGISTRY_SIZE);
+
+    private final JsonNode rootSchemaNode;
+    /**
+     * 在schema节点下明确定义的$error，按schema节点引用查找，再按验证类型查找
+     */
+    private final Map<JsonNode, Map<String, ErrorMessage>> explicitIndex = new IdentityHashMap<>();
+    /**
+     * 与explicitIndex相同，按schema节点的json pointer索引，用于导出到SchemaBundle
+     */
+    private final Map<String, Map<String, ErrorMessage>> explicitLocations = new LinkedHashMap<>();
+    /**
+     * 根节点$error下的定义，按json pointer查找
+     */
+    private final Map<String, ErrorMessage> pointerIndex = new HashMap<>();
+
+    /**
+     * 定义了错误消息的验证类型
+     */
+    private final Set<String> keywords = new HashSet<>();
+
+    private ErrorMessageIndex(JsonNode rootSchemaNode) {
+        this.rootSchemaNode = rootSchemaNode;
+    }
+
+    /**
+     * 编译schema的$error索引
+     *
+     * @param rootSchemaNode
+     * @return
+     * @throws JsonSchemaException 存在无法解析的${..}引用
+     */
+    public static ErrorMessageIndex compile(JsonNode rootSchemaNode) {
+        ErrorMessageIndex index = new ErrorMessageIndex(rootSchemaNode);
+        Set<String> brokenReferences = new LinkedHashSet<>();
+        JsonNode rootError = rootSchemaNode.get(ERROR_KEY);
+        if (rootError != null) {
+            index.indexPointer(rootError, "/" + ERROR_KEY, brokenReferences);
+        }
+        index.indexSchemaNode(rootSchemaNode, "", brokenReferences);
+        if (!brokenReferences.isEmpty()) {
+            throw new JsonSchemaException("$error引用无效:" + brokenReferences);
+        }
+        return index;
+    }
+
+    /**
+     * 获取schema根节点对应的索引，同一个根节点只编译一次
+     *
+     * @param rootSchemaNode
+     * @return
+     */
+    public static ErrorMessageIndex forSchemaNode(JsonNode rootSchemaNode) {
+        return REGISTRY.computeIfAbsent(new IdentityKey<>(rootSchemaNode), key -> compile(rootSchemaNode));
+    }
+
+    /**
+     * 使用预先编译好的索引恢复，不再解析$error与${..}引用，恢复后{@link #forSchemaNode}直接返回该索引
+     *
+     * @param rootSchemaNode
+     * @param explicitLocations 按schema节点json pointer索引的明确定义，见{@link #getExplicitLocations()}
+     * @param pointerIndex      根节点$error下的定义，见{@link #getPointerIndex()}
+     * @return
+     * @throws JsonSchemaException json pointer在schema中不存在
+     */
+    public static ErrorMessageIndex restore(JsonNode rootSchemaNode, Map<String, Map<String, ErrorMessage>> explicitLocations,
+                                            Map<String, ErrorMessage> pointerIndex) {
+        ErrorMessageIndex index = new ErrorMessageIndex(rootSchemaNode);
+        explicitLocations.forEach((location, types) -> {
+            JsonNode schemaNode = index.at(location);
+            if (schemaNode == null || schemaNode.isMissingNode()) {
+                throw new JsonSchemaException("$error索引与schema不一致:" + location);
+            }
+            index.putExplicit(schemaNode, location, types);
+        });
+        pointerIndex.forEach((pointer, errorMessage) -> index.putPointer(pointer, errorMessage));
+        REGISTRY.put(new IdentityKey<>(rootSchemaNode), index);
+        return index;
+    }
+
+    public JsonNode getRootSchemaNode() {
+        return rootSchemaNode;
+    }
+
+    /**
+     * @return 定义了错误消息的验证类型，包括明确定义的和根节点$error下按路径定义的
+     */
+    public Set<String> getKeywords() {
+        return Collections.unmodifiableSet(keywords);
+    }
+
+    /**
+     * @return schema节点下明确定义的error，按schema节点的json pointer和验证类型索引
+     */
+    public Map<String, Map<String, ErrorMessage>> getExplicitLocations() {
+        return Collections.unmodifiableMap(explicitLocations);
+    }
+
+    /**
+     * @return 根节点$error下的定义，按json pointer索引
+     */
+    public Map<String, ErrorMessage> getPointerIndex() {
+        return Collections.unmodifiableMap(pointerIndex);
+    }
+
+    public boolean isEmpty() {
+        return explicitIndex.isEmpty() && pointerIndex.isEmpty();
+    }
+
+    /**
+     * 查找在schema节点下明确定义的error
+     *
+     * @param schemaNode
+     * @param type
+     * @return 没有定义时返回null
+     */
+    public ErrorMessage findExplicit(JsonNode schemaNode, String type) {
+        Map<String, ErrorMessage> types = explicitIndex.get(schemaNode);
+        return types == null ? null : types.get(type);
+    }
+
+    /**
+     * @param schemaNode
+     * @return schema节点下明确定义的error，按验证类型索引，没有定义时返回空map
+     */
+    public Map<String, ErrorMessage> findExplicit(JsonNode schemaNode) {
+        Map<String, ErrorMessage> types = explicitIndex.get(schemaNode);
+        return types == null ? Collections.emptyMap() : types;
+    }
+
+    /**
+     * 按json pointer查找根节点$error下的定义
+     *
+     * @param pointer
+     * @return 节点不存在或者为空时返回null
+     */
+    public ErrorMessage findByPointer(String pointer) {
+        ErrorMessage errorMessage = pointerIndex.get(pointer);
+        if (errorMessage != null || pointer.startsWith("/" + ERROR_KEY + "/") || pointer.equals("/" + ERROR_KEY)) {
+            return errorMessage;
+        }
+        //自定义的ErrorMessagePointer可能指向$error以外的节点
+        JsonNode node = at(pointer);
+        if (node == null || node.isEmpty()) {
+            return null;
+        }
+        return resolve(node, pointer, new LinkedHashSet<>());
+    }
+
+    private void indexSchemaNode(JsonNode node, String location, Set<String> brokenReferences) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String name = field.getKey();
+                if (ERROR_KEY.equals(name)) {
+                    indexExplicit(node, location, field.getValue(), brokenReferences);
+                } else if (!VALUE_KEYWORDS.contains(name)) {
+                    indexSchemaNode(field.getValue(), location + "/" + escape(name), brokenReferences);
+                }
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                indexSchemaNode(node.get(i), location + "/" + i, brokenReferences);
+            }
+        }
+    }
+
+    private void indexExplicit(JsonNode schemaNode, String schemaLocation, JsonNode error, Set<String> brokenReferences) {
+        String location = schemaLocation + "/" + ERROR_KEY;
+        //{"$error":"${/$error/name}"}需要先找到引用的节点
+        JsonNode typesNode = error.isTextual() ? dereference(error, location, brokenReferences) : error;
+        if (typesNode == null || !typesNode.isObject()) {
+            return;
+        }
+        Map<String, ErrorMessage> types = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = typesNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            types.put(field.getKey(), resolve(field.getValue(), location + "/" + field.getKey(), brokenReferences));
+        }
+        putExplicit(schemaNode, schemaLocation, types);
+    }
+
+    private void putExplicit(JsonNode schemaNode, String schemaLocation, Map<String, ErrorMessage> types) {
+        if (types.isEmpty()) {
+            return;
+        }
+        Map<String, ErrorMessage> unmodifiable = Collections.unmodifiableMap(new HashMap<>(types));
+        explicitIndex.put(schemaNode, unmodifiable);
+        explicitLocations.put(schemaLocation, unmodifiable);
+        types.forEach((type, errorMessage) -> {
+            if (!errorMessage.isNone()) {
+                keywords.add(type);
+            }
+        });
+    }
+
+    private void putPointer(String pointer, ErrorMessage errorMessage) {
+        pointerIndex.put(pointer, errorMessage);
+        if (!errorMessage.isNone()) {
+            //路径的最后一段是验证类型，例如/$error/name/required
+            keywords.add(pointer.substring(pointer.lastIndexOf('/') + 1));
+        }
+    }
+
+    private void indexPointer(JsonNode node, String pointer, Set<String> brokenReferences) {
+        if (!node.isContainerNode() || node.size() == 0) {
+            if (node.isTextual()) {
+                dereference(node, pointer, brokenReferences);
+            }
+            return;
+        }
+        putPointer(pointer, node.isObject() ? resolve(node, pointer, brokenReferences) : ErrorMessage.NONE);
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                indexPointer(field.getValue(), pointer + "/" + field.getKey(), brokenReferences);
+            }
+        } else {
+            for (int i = 0; i < node.size(); i++) {
+                indexPointer(node.get(i), pointer + "/" + i, brokenReferences);
+            }
+        }
+    }
+
+    /**
+     * 解析error节点中的code与message，以及其中的${..}引用
+     *
+     * @param error
+     * @param location
+     * @param brokenReferences
+     * @return
+     */
+    private ErrorMessage resolve(JsonNode error, String location, Set<String> brokenReferences) {
+        JsonNode target = dereference(error, location, brokenReferences);
+        if (target == null || !target.isObject()) {
+            return ErrorMessage.NONE;
+        }
+        String code = resolveText(target.get(ERROR_CODE_KEY), location + "/" + ERROR_CODE_KEY, brokenReferences);
+        MessageTemplate message = resolveTemplate(target.get(ERROR_MESSAGE_KEY), location + "/" + ERROR_MESSAGE_KEY, brokenReferences);
+        if (code == null && message == null) {
+            return ErrorMessage.NONE;
+        }
+        return new ErrorMessage(code, message);
+    }
+
+    /**
+     * message为文本时直接驻留，为对象时按语言标签建立多语言索引，default或者第一个为默认文本
+     */
+    private MessageTemplate resolveTemplate(JsonNode node, String location, Set<String> brokenReferences) {
+        if (node == null) {
+            return null;
+        }
+        JsonNode target = dereference(node, location, brokenReferences);
+        if (target == null) {
+            return null;
+        }
+        if (!target.isObject()) {
+            return MessageTemplate.intern(target.asText());
+        }
+        String defaultText = null;
+        Map<String, String> localized = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String text = resolveText(field.getValue(), location + "/" + field.getKey(), brokenReferences);
+            if (text == null) {
+                continue;
+            }
+            if (MessageTemplate.DEFAULT_LOCALE_KEY.equals(field.getKey())) {
+                defaultText = text;
+            } else {
+                localized.put(field.getKey(), text);
+                if (defaultText == null && !target.has(MessageTemplate.DEFAULT_LOCALE_KEY)) {
+                    defaultText = text;
+                }
+            }
+        }
+        return defaultText == null ? null : MessageTemplate.intern(defaultText, localized);
+    }
+
+    private String resolveText(JsonNode node, String location, Set<String> brokenReferences) {
+        if (node == null) {
+            return null;
+        }
+        JsonNode target = dereference(node, location, brokenReferences);
+        return target == null ? null : target.asText();
+    }
+
+    /**
+     * 递归解析${..}引用表达式，返回最终引用的节点，引用无效时记录并返回null
+     *
+     * @param node
+     * @param location
+     * @param brokenReferences
+     * @return
+     */
+    private JsonNode dereference(JsonNode node, String location, Set<String> brokenReferences) {
+        JsonNode current = node;
+        for (int depth = 0; current.isTextual() && isExpression(current.asText()); depth++) {
+            String expression = current.asText();
+            if (depth >= MAX_REFERENCE_DEPTH) {
+                brokenReferences.add(location + " -> " + expression + "(循环引用)");
+                return null;
+            }
+            JsonNode next = at(resolveExpressionJsonPoint(expression));
+            if (next == null || next.isMissingNode()) {
+                brokenReferences.add(location + " -> " + expression);
+                return null;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private JsonNode at(String pointer) {
+        try {
+            return rootSchemaNode.at(pointer);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按json pointer规则转义属性名中的~和/
+     */
+    private static String escape(String name) {
+        return name.indexOf('~') < 0 && name.indexOf('/') < 0 ? name : name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static boolean isExpression(String value) {
+        return value != null && value.startsWith("${") && value.endsWith("}");
+    }
+
+    private static String resolveExpressionJsonPoint(String value) {
+        String point = value.substring(2, value.length() - 1);
+        return point.startsWith("/" + ERROR_KEY) ? point : "/" + ERROR_KEY + point;
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.jerrymice.json.schema.index;
+
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.networknt.schema.TemplatedValidationMessage;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * $error中的错误信息模板，加载schema时驻留，相同的文本与多语言版本只有一个实例，按id引用。
+ * 驻留的模板数量有限，最久未使用的模板被淘汰后按id查找返回null，已经引用它的消息不受影响。
+ * <p>
+ * 模板可以使用与json-schema-validator相同的参数，{0}为数据路径，{1}开始为验证参数，例如minLength的长度，
+ * 只替换{数字}形式的参数，其它字符原样输出。
+ * 重写后的{@link TemplatedValidationMessage}保存未格式化的模板文本，只有通过{@link #render(ValidationMessage, Locale)}读取时才格式化。
+ * message可以是对象形式的多语言定义，加载时建立索引，按locale查找时不再遍历schema：
+ * <p>
+ * example:
+ * {"message":{"default":"姓名至少两个汉字","en":"name needs at least two characters"}}
+ */
+public final class MessageTemplate {
+    public static final String DEFAULT_LOCALE_KEY = "default";
+    private static final int MAX_INTERNED = 4096;
+
+    private static final LruCache<TemplateKey, MessageTemplate> INTERNED = new LruCache<>(MAX_INTERNED);
+    private static final LruCache<Integer, MessageTemplate> BY_ID = new LruCache<>(MAX_INTERNED);
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
+    private final String text;
+    private final boolean hasArguments;
+    /**
+     * 按语言标签索引的其它语言版本，例如en、zh-TW
+     */
+    private final Map<String, MessageTemplate> localized;
+
+    private MessageTemplate(int id, String text, Map<String, MessageTemplate> localized) {
+        this.id = id;
+        this.text = text;
+        this.hasArguments = text.indexOf('{') >= 0;
+        this.localized = localized;
+    }
+
+    /**
+     * @param text
+     * @return 驻留的模板
+     */
+    public static MessageTemplate intern(String text) {
+        return intern(text, Collections.emptyMap());
+    }
+
+    /**
+     * @param text      默认文本
+     * @param localized 按语言标签索引的其它语言文本
+     * @return 驻留的模板，文本与多语言版本都相同时返回同一个实例
+     */
+    public static MessageTemplate intern(String text, Map<String, String> localized) {
+        TemplateKey key = new TemplateKey(text, localized);
+        MessageTemplate template = INTERNED.get(key);
+        if (template != null) {
+            BY_ID.get(template.id);
+            return template;
+        }
+        Map<String, MessageTemplate> localizedTemplates = new HashMap<>();
+        localized.forEach((tag, value) -> localizedTemplates.put(normalizeTag(tag), intern(value)));
+        synchronized (INTERNED) {
+            template = INTERNED.get(key);
+            if (template == null) {
+                template = new MessageTemplate(NEXT_ID.getAndIncrement(), text,
+                        localizedTemplates.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(localizedTemplates));
+                INTERNED.put(key, template);
+                BY_ID.put(template.id, template);
+            }
+            return template;
+        }
+    }
+
+    /**
+     * @param id
+     * @return 不存在或者已经淘汰时返回null
+     */
+    public static MessageTemplate get(int id) {
+        return BY_ID.get(id);
+    }
+
+    /**
+     * @param message
+     * @return 重写时使用的模板，没有重写或者没有自定义message时返回null
+     */
+    public static MessageTemplate of(ValidationMessage message) {
+        return message instanceof TemplatedValidationMessage ? ((TemplatedValidationMessage) message).getTemplate() : null;
+    }
+
+    /**
+     * 读取验证消息的文本，使用模板时在这里按locale查找并格式化
+     *
+     * @param message
+     * @param locale  为null时使用默认文本
+     * @return
+     */
+    public static String render(ValidationMessage message, Locale locale) {
+        MessageTemplate template = of(message);
+        if (template == null) {
+            return message.getMessage();
+        }
+        return template.forLocale(locale).format(message.getPath(), message.getArguments());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return 未格式化的默认文本
+     */
+    public String getText() {
+        return text;
+    }
+
+    public Map<String, MessageTemplate> getLocalized() {
+        return localized;
+    }
+
+    /**
+     * 先按完整的语言标签查找，再按语言查找，都没有时返回默认模板
+     *
+     * @param locale
+     * @return
+     */
+    public MessageTemplate forLocale(Locale locale) {
+        if (locale == null || localized.isEmpty()) {
+            return this;
+        }
+        MessageTemplate template = localized.get(locale.toLanguageTag());
+        if (template == null) {
+            template = localized.get(locale.getLanguage());
+        }
+        return template == null ? this : template;
+    }
+
+    /**
+     * @param path      {0}
+     * @param arguments {1}开始的参数
+     * @return 没有参数时直接返回模板文本，不存在的参数原样保留
+     */
+    public String format(String path, String[] arguments) {
+        if (!hasArguments) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int end = c == '{' ? text.indexOf('}', i + 1) : -1;
+            int index = end > i + 1 ? parseIndex(text, i + 1, end) : -1;
+            if (index < 0) {
+                builder.append(c);
+                i++;
+                continue;
+            }
+            if (index == 0) {
+                builder.append(path);
+            } else if (arguments != null && index <= arguments.length) {
+                builder.append(arguments[index - 1]);
+            } else {
+                builder.append(text, i, end + 1);
+            }
+            i = end + 1;
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageTemplate{id=" + id + ", text=" + text + "}";
+    }
+
+    /**
+     * @return {}中为非负整数时返回该数字，否则返回-1
+     */
+    private static int parseIndex(String text, int start, int end) {
+        if (end - start > 4) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    private static String normalizeTag(String tag) {
+        return Locale.forLanguageTag(tag.replace('_', '-')).toLanguageTag();
+    }
+
+    private static final class TemplateKey {
+        private final String text;
+        private final Map<String, String> localized;
+
+        private TemplateKey(String text, Map<String, String> localized) {
+            this.text = Objects.requireNonNull(text, "text");
+            this.localized = localized.isEmpty() ? Collections.emptyMap() : new HashMap<>(localized);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return text.equals(that.text) && localized.equals(that.localized);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + localized.hashCode();
+        }
+    }
+}
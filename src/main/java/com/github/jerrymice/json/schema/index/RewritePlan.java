@@ -0,0 +1,59 @@
+package com.github.jerrymice.json.schema.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.cache.IdentityKey;
+import com.github.jerrymice.json.schema.cache.LruCache;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 单个schema节点的错误消息重写计划
+ * <p>
+ * 按schema节点引用缓存，第一次重写该节点的消息时查找一次根节点和$error索引，
+ * 之后同一个节点上的重写只需要查找map，不再通过findAncestor向上查找根节点
+ */
+public final class RewritePlan {
+    private static final int REGISTRY_SIZE = 4096;
+    private static final LruCache<IdentityKey<JsonNode>, RewritePlan> REGISTRY = new LruCache<>(REGISTRY_SIZE);
+
+    private final ErrorMessageIndex index;
+    private final Map<String, ErrorMessage> explicit;
+
+    private RewritePlan(ErrorMessageIndex index, JsonNode schemaNode) {
+        this.index = index;
+        this.explicit = index.findExplicit(schemaNode);
+    }
+
+    /**
+     * 获取schema节点的重写计划，同一个节点只创建一次
+     *
+     * @param schemaNode
+     * @param rootSchemaNode 只在计划不存在时调用，返回schemaNode所在的根节点
+     * @return
+     */
+    public static RewritePlan forSchemaNode(JsonNode schemaNode, Supplier<JsonNode> rootSchemaNode) {
+        return REGISTRY.computeIfAbsent(new IdentityKey<>(schemaNode),
+                key -> new RewritePlan(ErrorMessageIndex.forSchemaNode(rootSchemaNode.get()), schemaNode));
+    }
+
+    public ErrorMessageIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @param type
+     * @return 在schema节点下明确定义的error，没有定义时返回null
+     */
+    public ErrorMessage findExplicit(String type) {
+        return explicit.get(type);
+    }
+
+    /**
+     * @param pointer
+     * @return 根节点$error下的定义
+     */
+    public ErrorMessage findByPointer(String pointer) {
+        return index.findByPointer(pointer);
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.jerrymice.json.schema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.regex.PatternCache;
+import com.networknt.schema.AbstractKeyword;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.PatternValidator;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidatorTypeCode;
+
+/**
+ * pattern关键字，使用共享的{@link PatternCache}，相同的表达式在所有schema之间只编译一次。
+ * 开启ecma262Validator时仍然使用json-schema-validator自带的实现
+ */
+public class CachedPatternKeyword extends AbstractKeyword {
+
+    public CachedPatternKeyword() {
+        super(ValidatorTypeCode.PATTERN.getValue());
+    }
+
+    @Override
+    public JsonValidator newValidator(String schemaPath, JsonNode schemaNode, JsonSchema parentSchema,
+                                      ValidationContext validationContext) {
+        if (validationContext.getConfig() != null && validationContext.getConfig().isEcma262Validator()) {
+            return new PatternValidator(schemaPath, schemaNode, parentSchema, validationContext);
+        }
+        return new CachedPatternValidator(schemaPath, schemaNode, parentSchema, validationContext, PatternCache.getDefault());
+    }
+}
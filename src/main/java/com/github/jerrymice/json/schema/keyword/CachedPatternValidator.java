@@ -0,0 +1,45 @@
+package com.github.jerrymice.json.schema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.regex.CachedPattern;
+import com.github.jerrymice.json.schema.regex.PatternCache;
+import com.networknt.schema.BaseJsonValidator;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonType;
+import com.networknt.schema.TypeFactory;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 与PatternValidator的java实现相同，表达式从共享缓存中获取
+ */
+public class CachedPatternValidator extends BaseJsonValidator {
+    private final CachedPattern pattern;
+
+    public CachedPatternValidator(String schemaPath, JsonNode schemaNode, JsonSchema parentSchema,
+                                  ValidationContext validationContext, PatternCache patternCache) {
+        super(schemaPath, schemaNode, parentSchema, ValidatorTypeCode.PATTERN, validationContext);
+        this.pattern = schemaNode != null && schemaNode.isTextual() ? patternCache.get(schemaNode.textValue()) : null;
+        this.validationContext = validationContext;
+        parseErrorCode(getValidatorType().getErrorCodeKey());
+    }
+
+    public CachedPattern getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public Set<ValidationMessage> validate(JsonNode node, JsonNode rootNode, String at) {
+        if (pattern == null || TypeFactory.getValueNodeType(node, validationContext.getConfig()) != JsonType.STRING) {
+            return Collections.emptySet();
+        }
+        if (!pattern.find(node.asText())) {
+            return Collections.singleton(buildValidationMessage(at, pattern.getRegex()));
+        }
+        return Collections.emptySet();
+    }
+}
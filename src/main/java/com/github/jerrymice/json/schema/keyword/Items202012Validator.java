@@ -0,0 +1,65 @@
+package com.github.jerrymice.json.schema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.BaseJsonValidator;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.PrefixItemsValidator;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 2020-12的items验证，复用PrefixItemsValidator对对象形式schema的处理(包括数组元素walk listener)。
+ * 同级的prefixItems为数组时，剩余元素已经由PrefixItemsValidator验证，这里只保留编译好的schema
+ */
+public class Items202012Validator extends BaseJsonValidator {
+    private static final String PREFIX_ITEMS = ValidatorTypeCode.PREFIX_ITEMS.getValue();
+
+    private final PrefixItemsValidator delegate;
+    private final boolean active;
+
+    public Items202012Validator(String schemaPath, JsonNode schemaNode, JsonSchema parentSchema,
+                                ValidationContext validationContext) {
+        super(schemaPath, schemaNode, parentSchema, ValidatorTypeCode.ITEMS, validationContext);
+        JsonNode prefixItems = parentSchema.getSchemaNode().get(PREFIX_ITEMS);
+        this.active = prefixItems == null || !prefixItems.isArray();
+        this.delegate = schemaNode.isObject() || schemaNode.isBoolean()
+                ? new PrefixItemsValidator(schemaPath, schemaNode, parentSchema, validationContext) : null;
+    }
+
+    /**
+     * @return 每个元素(prefixItems为数组时是剩余元素)使用的schema，items不是schema时返回null
+     */
+    public JsonSchema getSchema() {
+        return delegate == null ? null : delegate.getSchema();
+    }
+
+    @Override
+    public Set<ValidationMessage> validate(JsonNode node, JsonNode rootNode, String at) {
+        if (!active || delegate == null) {
+            return Collections.emptySet();
+        }
+        return delegate.validate(node, rootNode, at);
+    }
+
+    /**
+     * PrefixItemsValidator.walk会把不是数组的值当作第一个元素，这里与validate一样只处理数组
+     */
+    @Override
+    public Set<ValidationMessage> walk(JsonNode node, JsonNode rootNode, String at, boolean shouldValidateSchema) {
+        if (!active || delegate == null || !node.isArray()) {
+            return Collections.emptySet();
+        }
+        return delegate.walk(node, rootNode, at, shouldValidateSchema);
+    }
+
+    @Override
+    public void preloadJsonSchema() {
+        if (delegate != null) {
+            delegate.preloadJsonSchema();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.jerrymice.json.schema.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.AbstractKeyword;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.ValidationContext;
+import com.networknt.schema.ValidatorTypeCode;
+
+/**
+ * draft 2020-12的items关键字。
+ * <p>
+ * json-schema-validator 1.0.72在2020-12中只支持prefixItems，items只有在prefixItems为数组时作为剩余元素的schema生效，
+ * 单独使用的items会被忽略，这里补上单独使用时对每个元素的验证
+ */
+public class ItemsKeyword extends AbstractKeyword {
+
+    public ItemsKeyword() {
+        super(ValidatorTypeCode.ITEMS.getValue());
+    }
+
+    @Override
+    public JsonValidator newValidator(String schemaPath, JsonNode schemaNode, JsonSchema parentSchema,
+                                      ValidationContext validationContext) {
+        return new Items202012Validator(schemaPath, schemaNode, parentSchema, validationContext);
+    }
+}
@@ -1,10 +1,15 @@
 package com.github.jerrymice.json.schema.listener;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.MessageKey;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.metrics.NoopValidationMetrics;
+import com.github.jerrymice.json.schema.metrics.ValidationMetrics;
 import com.github.jerrymice.json.schema.provider.ValidateMessageProvider;
 import com.github.jerrymice.json.schema.provider.impl.DefaultValidateMessageProvider;
-import com.google.inject.internal.util.Sets;
+import com.networknt.schema.SchemaValidatorsConfig;
 import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
 import com.networknt.schema.walk.JsonSchemaWalkListener;
 import com.networknt.schema.walk.WalkEvent;
 import com.networknt.schema.walk.WalkFlow;
@@ -12,12 +17,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.event.Level;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class ErrorMessageRewriteWalkListener implements JsonSchemaWalkListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(ErrorMessageRewriteWalkListener.class);
+    /**
+     * 组合关键字的消息来自子schema，由子schema上的关键字重写
+     */
+    private static final Set<String> EXCLUDE_KEYWORDS = new HashSet<>(Arrays.asList(
+            ValidatorTypeCode.PROPERTIES.getValue(), ValidatorTypeCode.NOT.getValue(),
+            ValidatorTypeCode.NOT_ALLOWED.getValue(), ValidatorTypeCode.ONE_OF.getValue(),
+            ValidatorTypeCode.ALL_OF.getValue(), ValidatorTypeCode.ANY_OF.getValue()));
+    private static final Set<String> VALIDATOR_KEYWORDS = Arrays.stream(ValidatorTypeCode.values())
+            .map(ValidatorTypeCode::getValue).collect(Collectors.toSet());
     private Level loggerLevel = Level.WARN;
     private ValidateMessageProvider validateMessageProvider;
+    private ValidationMetrics validationMetrics = NoopValidationMetrics.INSTANCE;
 
     public ErrorMessageRewriteWalkListener() {
         validateMessageProvider = new DefaultValidateMessageProvider();
@@ -35,6 +56,17 @@ public class ErrorMessageRewriteWalkListener implements JsonSchemaWalkListener {
         this.validateMessageProvider = validateMessageProvider;
     }
 
+    public ValidationMetrics getValidationMetrics() {
+        return validationMetrics;
+    }
+
+    /**
+     * @param validationMetrics 记录重写失败次数，为null时不记录
+     */
+    public void setValidationMetrics(ValidationMetrics validationMetrics) {
+        this.validationMetrics = validationMetrics == null ? NoopValidationMetrics.INSTANCE : validationMetrics;
+    }
+
     public Level getLoggerLevel() {
         return loggerLevel;
     }
@@ -43,23 +75,116 @@ public class ErrorMessageRewriteWalkListener implements JsonSchemaWalkListener {
         this.loggerLevel = loggerLevel;
     }
 
+    /**
+     * 只在$error中定义了错误消息的关键字上注册，没有自定义消息的关键字不会调用listener，重复注册不会生效
+     *
+     * @param config
+     * @param index
+     * @return 注册的关键字
+     */
+    public Set<String> register(SchemaValidatorsConfig config, ErrorMessageIndex index) {
+        Set<String> keywords = getKeywords(index);
+        register(config, keywords);
+        return keywords;
+    }
+
+    /**
+     * type为null时使用required的错误消息，所以定义了required时同时包含type
+     *
+     * @param index
+     * @return 需要注册listener的关键字，不包含组合关键字
+     */
+    public static Set<String> getKeywords(ErrorMessageIndex index) {
+        Set<String> keywords = new TreeSet<>(index.getKeywords());
+        if (keywords.contains(ValidatorTypeCode.REQUIRED.getValue())) {
+            keywords.add(ValidatorTypeCode.TYPE.getValue());
+        }
+        keywords.retainAll(VALIDATOR_KEYWORDS);
+        keywords.removeAll(EXCLUDE_KEYWORDS);
+        return keywords;
+    }
+
+    /**
+     * @param config
+     * @param keywords {@link #getKeywords}返回的关键字
+     */
+    public void register(SchemaValidatorsConfig config, Set<String> keywords) {
+        for (String keyword : keywords) {
+            List<JsonSchemaWalkListener> listeners = config.getKeywordWalkListenersMap().get(keyword);
+            if (listeners == null || !listeners.contains(this)) {
+                config.addKeywordWalkListener(keyword, this);
+            }
+        }
+    }
+
     @Override
     public WalkFlow onWalkStart(WalkEvent walkEvent) {
         return WalkFlow.CONTINUE;
     }
 
+    /**
+     * 在原集合上重写当前schema累积的验证消息，只替换被重写的消息，不复制集合。
+     * 重写后仍然是原始消息、并且已经有相同key的重写消息时直接丢弃
+     *
+     * @param walkEvent
+     * @param validationMessages
+     */
     @Override
     public void onWalkEnd(WalkEvent walkEvent, Set<ValidationMessage> validationMessages) {
         if (validationMessages.isEmpty()) {
             return;
         }
-        Set<ValidationMessage> rewriteMessageSet = Sets.newHashSet();
+        //按顺序存放被替换的原始消息和重写后的消息
+        List<ValidationMessage> replacements = null;
+        boolean hasRaw = false;
+        boolean hasRewritten = false;
         for (ValidationMessage message : validationMessages) {
+            if (!MessageKey.isRaw(message)) {
+                hasRewritten = true;
+                continue;
+            }
             ValidationMessage rewrite = rewrite(walkEvent, message);
-            rewriteMessageSet.add(rewrite);
+            if (rewrite == message) {
+                hasRaw = true;
+                continue;
+            }
+            if (replacements == null) {
+                replacements = new ArrayList<>(4);
+            }
+            replacements.add(message);
+            replacements.add(rewrite);
+            if (MessageKey.isRaw(rewrite)) {
+                hasRaw = true;
+            } else {
+                hasRewritten = true;
+            }
+        }
+        if (replacements != null) {
+            for (int i = 0; i < replacements.size(); i += 2) {
+                validationMessages.remove(replacements.get(i));
+            }
+            for (int i = 1; i < replacements.size(); i += 2) {
+                validationMessages.add(replacements.get(i));
+            }
+        }
+        if (hasRaw && hasRewritten) {
+            removeRawDuplicates(validationMessages);
         }
-        validationMessages.clear();
-        validationMessages.addAll(rewriteMessageSet);
+    }
+
+    /**
+     * 删除已经存在相同key重写消息的原始消息
+     *
+     * @param validationMessages
+     */
+    private void removeRawDuplicates(Set<ValidationMessage> validationMessages) {
+        Set<MessageKey> rewriteKeys = new HashSet<>();
+        for (ValidationMessage message : validationMessages) {
+            if (!MessageKey.isRaw(message)) {
+                rewriteKeys.add(MessageKey.of(message));
+            }
+        }
+        validationMessages.removeIf(message -> MessageKey.isRaw(message) && rewriteKeys.contains(MessageKey.of(message)));
     }
 
     /**
@@ -71,11 +196,9 @@ public class ErrorMessageRewriteWalkListener implements JsonSchemaWalkListener {
      */
     private ValidationMessage rewrite(WalkEvent walkEvent, ValidationMessage message) {
         try {
-            if (!message.getMessage().startsWith("$.")) {
-                return message;
-            }
             return validateMessageProvider.rewrite(walkEvent, message);
         } catch (Exception e) {
+            validationMetrics.recordRewriteFailure(message.getType());
             JsonNode schemaNode = walkEvent.getSchemaNode();
             JsonNode node = walkEvent.getNode();
             switch (loggerLevel) {
@@ -0,0 +1,89 @@
+package com.github.jerrymice.json.schema.metrics;
+
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 保存在内存中的验证指标，不依赖任何监控组件，用于测试或者简单的统计
+ */
+public class InMemoryValidationMetrics implements ValidationMetrics {
+    private static final String SEPARATOR = "\u0000";
+    private final Map<String, LatencyHistogram> conversions = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> evaluations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> invalidCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> messageCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> typeCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rewriteFailures = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordConversion(String schema, long nanos) {
+        conversions.computeIfAbsent(schema, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void recordEvaluation(String schema, long nanos, boolean valid) {
+        evaluations.computeIfAbsent(schema, key -> new LatencyHistogram()).record(nanos);
+        if (!valid) {
+            increment(invalidCounts, schema);
+        }
+    }
+
+    @Override
+    public void recordMessage(String schema, ValidationMessage message) {
+        increment(messageCounts, schema + SEPARATOR + message.getType() + SEPARATOR + message.getCode());
+        increment(typeCounts, message.getType());
+    }
+
+    @Override
+    public void recordRewriteFailure(String keyword) {
+        increment(rewriteFailures, keyword);
+    }
+
+    /**
+     * @param schema
+     * @return 转换耗时，没有记录时返回null
+     */
+    public LatencyHistogram getConversion(String schema) {
+        return conversions.get(schema);
+    }
+
+    /**
+     * @param schema
+     * @return 验证耗时，没有记录时返回null
+     */
+    public LatencyHistogram getEvaluation(String schema) {
+        return evaluations.get(schema);
+    }
+
+    public long getInvalidCount(String schema) {
+        return sum(invalidCounts, schema);
+    }
+
+    public long getMessageCount(String schema, String type, String code) {
+        return sum(messageCounts, schema + SEPARATOR + type + SEPARATOR + code);
+    }
+
+    /**
+     * @param type
+     * @return 所有schema中指定验证类型的消息数量
+     */
+    public long getMessageCount(String type) {
+        return sum(typeCounts, type);
+    }
+
+    public long getRewriteFailureCount(String keyword) {
+        return sum(rewriteFailures, keyword);
+    }
+
+    private static void increment(Map<String, LongAdder> counts, String key) {
+        counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private static long sum(Map<String, LongAdder> counts, String key) {
+        LongAdder adder = counts.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.jerrymice.json.schema.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按2的幂分桶的耗时直方图，第i个桶记录[2^(i-1), 2^i)纳秒的次数
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+        buckets.incrementAndGet(Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotalNanos() / n;
+    }
+
+    /**
+     * @param percentile 0到1之间
+     * @return 百分位所在桶的上限，没有记录时返回0
+     */
+    public long getPercentileUpperBound(double percentile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i == 0 ? 0 : Math.min(1L << Math.min(i, 62), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.jerrymice.json.schema.metrics;
+
+import com.networknt.schema.ValidationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的验证指标，micrometer-core是可选依赖，使用时需要自行引入
+ * <ul>
+ * <li>json.schema.conversion：转换耗时，tag为schema</li>
+ * <li>json.schema.evaluation：验证耗时，tag为schema、result(valid/invalid)</li>
+ * <li>json.schema.messages：验证消息数量，tag为schema、type、code</li>
+ * <li>json.schema.rewrite.failures：重写失败次数，tag为type</li>
+ * </ul>
+ */
+public class MicrometerValidationMetrics implements ValidationMetrics {
+    public static final String CONVERSION = "json.schema.conversion";
+    public static final String EVALUATION = "json.schema.evaluation";
+    public static final String MESSAGES = "json.schema.messages";
+    public static final String REWRITE_FAILURES = "json.schema.rewrite.failures";
+
+    private final MeterRegistry registry;
+    /**
+     * 按schema缓存的Timer，避免每次记录都查找注册中心
+     */
+    private final Map<String, Timer> conversionTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> validTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> invalidTimers = new ConcurrentHashMap<>();
+    /**
+     * 按schema、type、code缓存的Counter，每条验证消息都会记录，不能每次都通过builder注册
+     */
+    private final Map<MessageKey, Counter> messageCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rewriteFailureCounters = new ConcurrentHashMap<>();
+
+    public MicrometerValidationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordConversion(String schema, long nanos) {
+        conversionTimers.computeIfAbsent(schema, key -> Timer.builder(CONVERSION)
+                .tag("schema", key)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEvaluation(String schema, long nanos, boolean valid) {
+        Map<String, Timer> timers = valid ? validTimers : invalidTimers;
+        timers.computeIfAbsent(schema, key -> Timer.builder(EVALUATION)
+                .tag("schema", key)
+                .tag("result", valid ? "valid" : "invalid")
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordMessage(String schema, ValidationMessage message) {
+        messageCounters.computeIfAbsent(new MessageKey(schema, String.valueOf(message.getType()),
+                String.valueOf(message.getCode())), key -> Counter.builder(MESSAGES)
+                .tag("schema", key.schema)
+                .tag("type", key.type)
+                .tag("code", key.code)
+                .register(registry))
+                .increment();
+    }
+
+    @Override
+    public void recordRewriteFailure(String keyword) {
+        rewriteFailureCounters.computeIfAbsent(String.valueOf(keyword), key -> Counter.builder(REWRITE_FAILURES)
+                .tag("type", key)
+                .register(registry))
+                .increment();
+    }
+
+    private static final class MessageKey {
+        private final String schema;
+        private final String type;
+        private final String code;
+
+        private MessageKey(String schema, String type, String code) {
+            this.schema = schema;
+            this.type = type;
+            this.code = code;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MessageKey)) {
+                return false;
+            }
+            MessageKey that = (MessageKey) o;
+            return schema.equals(that.schema) && type.equals(that.type) && code.equals(that.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * schema.hashCode() + type.hashCode()) + code.hashCode();
+        }
+    }
+}
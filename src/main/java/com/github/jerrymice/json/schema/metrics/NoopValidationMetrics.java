@@ -0,0 +1,26 @@
+package com.github.jerrymice.json.schema.metrics;
+
+import com.networknt.schema.ValidationMessage;
+
+/**
+ * 不记录任何指标
+ */
+public class NoopValidationMetrics implements ValidationMetrics {
+    public static final NoopValidationMetrics INSTANCE = new NoopValidationMetrics();
+
+    @Override
+    public void recordConversion(String schema, long nanos) {
+    }
+
+    @Override
+    public void recordEvaluation(String schema, long nanos, boolean valid) {
+    }
+
+    @Override
+    public void recordMessage(String schema, ValidationMessage message) {
+    }
+
+    @Override
+    public void recordRewriteFailure(String keyword) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.jerrymice.json.schema.metrics;
+
+import com.networknt.schema.ValidationMessage;
+
+/**
+ * 验证指标的记录接口，实现类需要保证线程安全且不要阻塞调用线程
+ */
+public interface ValidationMetrics {
+    /**
+     * 待验证对象转换为JsonNode的耗时
+     *
+     * @param schema schema名称
+     * @param nanos
+     */
+    void recordConversion(String schema, long nanos);
+
+    /**
+     * schema验证的耗时，不包括转换
+     *
+     * @param schema
+     * @param nanos
+     * @param valid  是否通过
+     */
+    void recordEvaluation(String schema, long nanos, boolean valid);
+
+    /**
+     * 记录一条验证消息，按验证类型和错误码计数
+     *
+     * @param schema
+     * @param message
+     */
+    void recordMessage(String schema, ValidationMessage message);
+
+    /**
+     * 重写验证消息失败
+     *
+     * @param keyword 验证类型
+     */
+    void recordRewriteFailure(String keyword);
+}
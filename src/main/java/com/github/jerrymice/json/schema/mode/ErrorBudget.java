@@ -0,0 +1,98 @@
+package com.github.jerrymice.json.schema.mode;
+
+import com.github.jerrymice.json.schema.MessageKey;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * 当前线程正在进行的验证的错误预算，由{@link ErrorBudgetWalkListener}在walk过程中记录和检查
+ */
+public final class ErrorBudget {
+    private static final ThreadLocal<ErrorBudget> CURRENT = new ThreadLocal<>();
+
+    private final ValidationMode mode;
+    /**
+     * 已经出现的错误，同一个错误重写前后只计一次
+     */
+    private final Set<MessageKey> errors = new HashSet<>();
+    /**
+     * 正在walk的分支会被丢弃的关键字的层数，见{@link ErrorBudgetWalkListener}
+     */
+    private int compositeDepth;
+
+    private ErrorBudget(ValidationMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * 在mode下执行action，结束后恢复之前的预算
+     *
+     * @param mode
+     * @param action
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T run(ValidationMode mode, Callable<T> action) throws Exception {
+        ErrorBudget previous = CURRENT.get();
+        CURRENT.set(mode.isFull() ? null : new ErrorBudget(mode));
+        try {
+            return action.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return 当前线程的预算，FULL模式或者不在{@link #run}中时返回null
+     */
+    public static ErrorBudget current() {
+        return CURRENT.get();
+    }
+
+    public ValidationMode getMode() {
+        return mode;
+    }
+
+    void enterComposite() {
+        compositeDepth++;
+    }
+
+    void exitComposite() {
+        if (compositeDepth > 0) {
+            compositeDepth--;
+        }
+    }
+
+    /**
+     * @return 是否正在walk某个分支的错误不一定出现在最终结果中的关键字
+     */
+    boolean isInComposite() {
+        return compositeDepth > 0;
+    }
+
+    /**
+     * 记录会出现在最终结果中的错误，在{@link #isInComposite}时忽略
+     *
+     * @param validationMessages
+     */
+    public void record(Set<ValidationMessage> validationMessages) {
+        if (isExhausted() || isInComposite()) {
+            return;
+        }
+        for (ValidationMessage message : validationMessages) {
+            errors.add(MessageKey.of(message));
+        }
+    }
+
+    public boolean isExhausted() {
+        return errors.size() >= mode.getMaxErrors();
+    }
+}
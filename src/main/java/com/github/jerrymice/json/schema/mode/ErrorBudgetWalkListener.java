@@ -0,0 +1,81 @@
+package com.github.jerrymice.json.schema.mode;
+
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import com.networknt.schema.walk.WalkEvent;
+import com.networknt.schema.walk.WalkFlow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 错误预算用完后跳过剩余的关键字。
+ * <p>
+ * oneOf、anyOf、not、if、contains的分支失败是预期的，分支里的错误不计入预算，也不跳过分支里的关键字，
+ * 只在这些关键字结束时记录它们最终返回的错误。
+ * <p>
+ * 必须按关键字注册，注册到所有关键字上的listener返回SKIP不会生效
+ */
+public final class ErrorBudgetWalkListener implements JsonSchemaWalkListener {
+    public static final ErrorBudgetWalkListener INSTANCE = new ErrorBudgetWalkListener();
+    private static final Set<String> COMPOSITE_KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ValidatorTypeCode.ONE_OF.getValue(), ValidatorTypeCode.ANY_OF.getValue(), ValidatorTypeCode.NOT.getValue(),
+            ValidatorTypeCode.IF_THEN_ELSE.getValue(), ValidatorTypeCode.CONTAINS.getValue())));
+
+    private ErrorBudgetWalkListener() {
+    }
+
+    /**
+     * 在config的每个关键字上注册，重复注册不会生效
+     *
+     * @param config
+     */
+    public static void register(SchemaValidatorsConfig config) {
+        for (ValidatorTypeCode code : ValidatorTypeCode.values()) {
+            List<JsonSchemaWalkListener> listeners = config.getKeywordWalkListenersMap().get(code.getValue());
+            if (listeners == null || !listeners.contains(INSTANCE)) {
+                config.addKeywordWalkListener(code.getValue(), INSTANCE);
+            }
+        }
+    }
+
+    @Override
+    public WalkFlow onWalkStart(WalkEvent walkEvent) {
+        ErrorBudget budget = ErrorBudget.current();
+        if (budget == null) {
+            return WalkFlow.CONTINUE;
+        }
+        if (!budget.isInComposite() && budget.isExhausted()) {
+            return WalkFlow.SKIP;
+        }
+        if (COMPOSITE_KEYWORDS.contains(walkEvent.getKeyWordName())) {
+            budget.enterComposite();
+        }
+        return WalkFlow.CONTINUE;
+    }
+
+    /**
+     * 被跳过的关键字没有进入，只在层数大于0时退出
+     *
+     * @param walkEvent
+     * @param validationMessages
+     */
+    @Override
+    public void onWalkEnd(WalkEvent walkEvent, Set<ValidationMessage> validationMessages) {
+        ErrorBudget budget = ErrorBudget.current();
+        if (budget == null) {
+            return;
+        }
+        if (COMPOSITE_KEYWORDS.contains(walkEvent.getKeyWordName())) {
+            budget.exitComposite();
+        }
+        if (!validationMessages.isEmpty()) {
+            budget.record(validationMessages);
+        }
+    }
+}
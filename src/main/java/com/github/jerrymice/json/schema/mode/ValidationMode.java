@@ -0,0 +1,56 @@
+package com.github.jerrymice.json.schema.mode;
+
+/**
+ * 单次验证的模式，所有模式共用同一个编译好的schema
+ */
+public final class ValidationMode {
+    /**
+     * 收集所有验证失败信息
+     */
+    public static final ValidationMode FULL = new ValidationMode(0, true);
+    /**
+     * 只需要知道是否通过，出现第一个错误后跳过剩余的关键字，也不重写验证消息
+     */
+    public static final ValidationMode BOOLEAN = new ValidationMode(1, false);
+
+    private final int maxErrors;
+    private final boolean rewriteEnabled;
+
+    private ValidationMode(int maxErrors, boolean rewriteEnabled) {
+        this.maxErrors = maxErrors;
+        this.rewriteEnabled = rewriteEnabled;
+    }
+
+    /**
+     * 收集到maxErrors个错误后跳过剩余的关键字
+     *
+     * @param maxErrors
+     * @return
+     */
+    public static ValidationMode maxErrors(int maxErrors) {
+        if (maxErrors <= 0) {
+            throw new IllegalArgumentException("maxErrors must be positive");
+        }
+        return new ValidationMode(maxErrors, true);
+    }
+
+    /**
+     * @return 最多收集的错误数量，0表示不限制
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public boolean isRewriteEnabled() {
+        return rewriteEnabled;
+    }
+
+    public boolean isFull() {
+        return maxErrors == 0;
+    }
+
+    @Override
+    public String toString() {
+        return isFull() ? "FULL" : rewriteEnabled ? "maxErrors(" + maxErrors + ")" : "BOOLEAN";
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.jerrymice.json.schema.observer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 延迟渲染的json内容，只有日志真正输出时才调用toString序列化，且最多输出maxLength个字符，
+ * 超出部分不再序列化
+ */
+public class JsonPayload {
+    private static final ObjectWriter WRITER = new ObjectMapper().writer();
+    private static final String TRUNCATED = "...(truncated)";
+
+    private final JsonNode node;
+    private final int maxLength;
+
+    public JsonPayload(JsonNode node, int maxLength) {
+        this.node = node;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String toString() {
+        if (node == null) {
+            return "null";
+        }
+        LimitedWriter writer = new LimitedWriter(maxLength);
+        try {
+            WRITER.writeValue(writer, node);
+        } catch (LimitReachedException e) {
+            return writer.builder.append(TRUNCATED).toString();
+        } catch (IOException e) {
+            return writer.builder.append("...(").append(e.getMessage()).append(')').toString();
+        }
+        return writer.builder.toString();
+    }
+
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder builder;
+        private final int maxLength;
+
+        private LimitedWriter(int maxLength) {
+            this.maxLength = Math.max(maxLength, 0);
+            this.builder = new StringBuilder(Math.min(this.maxLength, 256));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int remaining = maxLength - builder.length();
+            if (len > remaining) {
+                builder.append(cbuf, off, remaining);
+                throw new LimitReachedException();
+            }
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            int remaining = maxLength - builder.length();
+            if (len > remaining) {
+                builder.append(str, off, off + remaining);
+                throw new LimitReachedException();
+            }
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class LimitReachedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private LimitReachedException() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.jerrymice.json.schema.observer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志观察者
+ * <p>
+ * 验证失败时以WARN输出，验证成功时默认不输出，可以按successSampleRate每N次成功抽样一次以INFO输出。
+ * json内容与错误信息都是延迟渲染并限制长度的，只有日志级别开启时才会序列化。
+ * 使用异步appender时需要开启asyncAppender，在调用线程中提前渲染为字符串，避免appender线程访问可能已经被修改的JsonNode
+ */
+public class LoggingValidationObserver implements ValidationObserver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingValidationObserver.class);
+    private static final int DEFAULT_MAX_PAYLOAD_LENGTH = 2048;
+    private static final int DEFAULT_MAX_MESSAGES = 20;
+
+    private final AtomicLong successCounter = new AtomicLong();
+    private volatile int successSampleRate = 0;
+    private volatile int maxPayloadLength = DEFAULT_MAX_PAYLOAD_LENGTH;
+    private volatile int maxMessages = DEFAULT_MAX_MESSAGES;
+    private volatile boolean asyncAppender = false;
+
+    public int getSuccessSampleRate() {
+        return successSampleRate;
+    }
+
+    /**
+     * @param successSampleRate 每N次成功输出一次，小于等于0时不输出成功日志
+     */
+    public void setSuccessSampleRate(int successSampleRate) {
+        this.successSampleRate = successSampleRate;
+    }
+
+    public int getMaxPayloadLength() {
+        return maxPayloadLength;
+    }
+
+    public void setMaxPayloadLength(int maxPayloadLength) {
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public void setMaxMessages(int maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    public boolean isAsyncAppender() {
+        return asyncAppender;
+    }
+
+    public void setAsyncAppender(boolean asyncAppender) {
+        this.asyncAppender = asyncAppender;
+    }
+
+    @Override
+    public void onSuccess(String title, JsonNode node) {
+        int sampleRate = successSampleRate;
+        if (sampleRate <= 0 || !LOGGER.isInfoEnabled()) {
+            return;
+        }
+        if (successCounter.getAndIncrement() % sampleRate != 0) {
+            return;
+        }
+        LOGGER.info("{} 验证 成功, data:{}", title, render(new JsonPayload(node, maxPayloadLength)));
+    }
+
+    @Override
+    public void onFailure(String title, JsonNode node, Set<ValidationMessage> messages) {
+        if (!LOGGER.isWarnEnabled()) {
+            return;
+        }
+        LOGGER.warn("{} 验证 失败, messages:{}, data:{}", title,
+                render(new MessagesPayload(messages, maxMessages)), render(new JsonPayload(node, maxPayloadLength)));
+    }
+
+    private Object render(Object payload) {
+        return asyncAppender ? payload.toString() : payload;
+    }
+
+    /**
+     * 延迟渲染的错误信息，最多输出maxMessages条
+     */
+    private static class MessagesPayload {
+        private final Set<ValidationMessage> messages;
+        private final int maxMessages;
+
+        private MessagesPayload(Set<ValidationMessage> messages, int maxMessages) {
+            this.messages = messages;
+            this.maxMessages = maxMessages;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("[");
+            Iterator<ValidationMessage> iterator = messages.iterator();
+            int count = 0;
+            while (iterator.hasNext() && count < maxMessages) {
+                if (count > 0) {
+                    builder.append(", ");
+                }
+                ValidationMessage message = iterator.next();
+                builder.append(message.getCode()).append(' ').append(message.getMessage());
+                count++;
+            }
+            if (messages.size() > count) {
+                builder.append(", ...(").append(messages.size() - count).append(" more)");
+            }
+            return builder.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.jerrymice.json.schema.observer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Set;
+
+/**
+ * 不做任何处理的观察者
+ */
+public class NoopValidationObserver implements ValidationObserver {
+    public static final NoopValidationObserver INSTANCE = new NoopValidationObserver();
+
+    @Override
+    public void onSuccess(String title, JsonNode node) {
+    }
+
+    @Override
+    public void onFailure(String title, JsonNode node, Set<ValidationMessage> messages) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.jerrymice.json.schema.observer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Set;
+
+/**
+ * 验证结果观察者，每次validate/walk结束后回调，实现类需要保证线程安全且不要阻塞调用线程
+ */
+public interface ValidationObserver {
+    /**
+     * 验证成功
+     *
+     * @param title
+     * @param node
+     */
+    void onSuccess(String title, JsonNode node);
+
+    /**
+     * 验证失败
+     *
+     * @param title
+     * @param node
+     * @param messages
+     */
+    void onFailure(String title, JsonNode node, Set<ValidationMessage> messages);
+}
@@ -1,6 +1,11 @@
 package com.github.jerrymice.json.schema.pointer;
 
 import com.networknt.schema.ValidationMessage;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public interface ErrorMessagePointer {
     /**
@@ -12,10 +17,24 @@ public interface ErrorMessagePointer {
     boolean isSupport(PointFactor pointFactor);
 
     /**
-     * 获取错误消息路径
+     * 获取错误消息路径，多个路径以","分隔
      *
      * @return
      */
     String createPointer(ValidationMessage validationMessage);
 
+    /**
+     * 获取按优先级排列的候选错误消息路径，返回的list不可修改，实现类可以缓存并重复返回同一个list
+     *
+     * @param validationMessage
+     * @return
+     */
+    default List<String> createPointers(ValidationMessage validationMessage) {
+        String pointer = createPointer(validationMessage);
+        if (StringUtils.isBlank(pointer)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(pointer.split(",")));
+    }
+
 }
@@ -5,14 +5,28 @@ import com.github.jerrymice.json.schema.pointer.PointFactor;
 import com.networknt.schema.ValidationMessage;
 import com.networknt.schema.ValidatorTypeCode;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_KEY;
 
 public class DefaultErrorMessagePointer implements ErrorMessagePointer {
+    /**
+     * 缓存的候选路径上限，超过后不再缓存
+     */
+    private static final int MAX_CACHED_POINTERS = 8192;
+    private static final String TYPE_NULL = "\u0000null";
     private Map<String, Function<ValidationMessage, String>> typeErrorPointMap = new HashMap<>();
+    /**
+     * 按(schemaPath, type, argument)缓存的候选路径
+     */
+    private final Map<PointerKey, List<String>> pointerCache = new ConcurrentHashMap<>();
 
     public DefaultErrorMessagePointer() {
         typeErrorPointMap.put(ValidatorTypeCode.REQUIRED.getValue(), this::typeRequired);
@@ -25,17 +39,52 @@ public class DefaultErrorMessagePointer implements ErrorMessagePointer {
 
     @Override
     public String createPointer(ValidationMessage validationMessage) {
+        return String.join(",", createPointers(validationMessage));
+    }
+
+    @Override
+    public List<String> createPointers(ValidationMessage validationMessage) {
+        PointerKey key = new PointerKey(validationMessage.getSchemaPath(), validationMessage.getType(),
+                pointerArgument(validationMessage));
+        List<String> pointers = pointerCache.get(key);
+        if (pointers == null) {
+            pointers = buildPointers(validationMessage);
+            if (pointerCache.size() < MAX_CACHED_POINTERS) {
+                pointerCache.put(key, pointers);
+            }
+        }
+        return pointers;
+    }
+
+    private List<String> buildPointers(ValidationMessage validationMessage) {
         //type为integer,number,string,bool,object,array等，存在属性名，但属性值为null
         if (assertTypeNull(validationMessage)) {
-            return typeNull(validationMessage);
+            return Collections.unmodifiableList(Arrays.asList(typeNullRequired(validationMessage), defaultPoint(validationMessage)));
         }
         //特殊情况处理
         Function<ValidationMessage, String> typeFunction = typeErrorPointMap.get(validationMessage.getType());
         if (typeFunction != null) {
-            return typeFunction.apply(validationMessage);
+            return Collections.singletonList(typeFunction.apply(validationMessage));
         }
         //默认取值
-        return defaultPoint(validationMessage);
+        return Collections.singletonList(defaultPoint(validationMessage));
+    }
+
+    /**
+     * 影响路径的参数，required取属性名，type为null时取标记，其它类型不区分
+     *
+     * @param message
+     * @return
+     */
+    private String pointerArgument(ValidationMessage message) {
+        if (assertTypeNull(message)) {
+            return TYPE_NULL;
+        }
+        if (typeErrorPointMap.containsKey(message.getType())) {
+            String[] arguments = message.getArguments();
+            return arguments != null && arguments.length > 0 ? arguments[0] : null;
+        }
+        return null;
     }
 
     private boolean assertTypeNull(ValidationMessage message) {
@@ -45,10 +94,10 @@ public class DefaultErrorMessagePointer implements ErrorMessagePointer {
                 message.getArguments()[0].equals("null");
     }
 
-    private String typeNull(ValidationMessage message) {
+    private String typeNullRequired(ValidationMessage message) {
         return defaultPoint(message).replace("/" +
                 ValidatorTypeCode.TYPE.getValue(), "/" +
-                ValidatorTypeCode.REQUIRED.getValue()) + "," + defaultPoint(message);
+                ValidatorTypeCode.REQUIRED.getValue());
     }
 
     private String typeRequired(ValidationMessage message) {
@@ -67,5 +116,35 @@ public class DefaultErrorMessagePointer implements ErrorMessagePointer {
                 .replace("/" + ValidatorTypeCode.PROPERTIES.getValue() + "/", "/");
     }
 
+    private static final class PointerKey {
+        private final String schemaPath;
+        private final String type;
+        private final String argument;
+        private final int hash;
+
+        private PointerKey(String schemaPath, String type, String argument) {
+            this.schemaPath = schemaPath;
+            this.type = type;
+            this.argument = argument;
+            this.hash = 31 * (31 * Objects.hashCode(schemaPath) + Objects.hashCode(type)) + Objects.hashCode(argument);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PointerKey)) {
+                return false;
+            }
+            PointerKey that = (PointerKey) o;
+            return hash == that.hash && Objects.equals(schemaPath, that.schemaPath)
+                    && Objects.equals(type, that.type) && Objects.equals(argument, that.argument);
+        }
 
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
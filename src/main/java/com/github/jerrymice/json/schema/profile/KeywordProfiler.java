@@ -0,0 +1,196 @@
+package com.github.jerrymice.json.schema.profile;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import com.networknt.schema.walk.WalkEvent;
+import com.networknt.schema.walk.WalkFlow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 按关键字统计walk耗时，用于查找schema中耗时的规则。
+ * <p>
+ * 只在{@link #run(Callable)}中执行的walk才会计时，按sampleRate抽样，没有抽中的walk只多一次ThreadLocal读取。
+ * 按schemaPath/关键字汇总，可以输出耗时最高的前N个位置，或者输出flamegraph.pl可以直接使用的折叠栈格式。
+ * 通过{@link KeywordProfilerListener}接收walk事件，不直接注册到配置上
+ */
+public final class KeywordProfiler implements JsonSchemaWalkListener {
+    private final double sampleRate;
+    private final ThreadLocal<Session> session = new ThreadLocal<>();
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> foldedStacks = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleRate 0到1之间，被抽中计时的walk比例
+     */
+    public KeywordProfiler(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return 本次是否抽中
+     */
+    public boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * 在计时状态下执行walk
+     *
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public <T> T run(Callable<T> callable) throws Exception {
+        Session previous = session.get();
+        session.set(new Session());
+        try {
+            return callable.call();
+        } finally {
+            if (previous == null) {
+                session.remove();
+            } else {
+                session.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public WalkFlow onWalkStart(WalkEvent walkEvent) {
+        Session current = session.get();
+        if (current != null) {
+            current.push(walkEvent.getSchemaNode(), walkEvent.getKeyWordName(), walkEvent.getSchemaPath());
+        }
+        return WalkFlow.CONTINUE;
+    }
+
+    @Override
+    public void onWalkEnd(WalkEvent walkEvent, Set<ValidationMessage> validationMessages) {
+        Session current = session.get();
+        if (current == null) {
+            return;
+        }
+        Frame frame = current.pop(walkEvent.getSchemaNode(), walkEvent.getKeyWordName());
+        if (frame == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - frame.start;
+        long self = Math.max(elapsed - frame.childNanos, 0);
+        if (current.top != null) {
+            current.top.childNanos += elapsed;
+        }
+        aggregates.computeIfAbsent(frame.location, Aggregate::new).record(elapsed, self);
+        foldedStacks.computeIfAbsent(frame.stack, key -> new LongAdder()).add(self);
+    }
+
+    /**
+     * @param n
+     * @return 按自身耗时从高到低排列的前n个位置
+     */
+    public List<KeywordStats> top(int n) {
+        return aggregates.values().stream()
+                .map(Aggregate::snapshot)
+                .sorted(Comparator.comparingLong(KeywordStats::getSelfNanos).reversed())
+                .limit(n)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return 折叠栈格式，每行为"栈帧;栈帧 自身耗时纳秒"
+     */
+    public String toFoldedStacks() {
+        List<String> lines = new ArrayList<>();
+        foldedStacks.forEach((stack, nanos) -> lines.add(stack + " " + nanos.sum()));
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+    public void reset() {
+        aggregates.clear();
+        foldedStacks.clear();
+    }
+
+    private static final class Aggregate {
+        private final String location;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Aggregate(String location) {
+            this.location = location;
+        }
+
+        private void record(long elapsed, long self) {
+            count.increment();
+            totalNanos.add(elapsed);
+            selfNanos.add(self);
+            maxNanos.accumulate(elapsed);
+        }
+
+        private KeywordStats snapshot() {
+            return new KeywordStats(location, count.sum(), totalNanos.sum(), selfNanos.sum(), maxNanos.get());
+        }
+    }
+
+    private static final class Frame {
+        private final Frame parent;
+        private final JsonNode schemaNode;
+        private final String keyword;
+        private final String location;
+        private final String stack;
+        private final long start;
+        private long childNanos;
+
+        private Frame(Frame parent, JsonNode schemaNode, String keyword, String schemaPath) {
+            this.parent = parent;
+            this.schemaNode = schemaNode;
+            this.keyword = keyword;
+            this.location = schemaPath + "/" + keyword;
+            this.stack = parent == null ? location : parent.stack + ";" + location;
+            this.start = System.nanoTime();
+        }
+    }
+
+    /**
+     * 一次walk中正在执行的关键字栈
+     */
+    private static final class Session {
+        private Frame top;
+
+        private void push(JsonNode schemaNode, String keyword, String schemaPath) {
+            top = new Frame(top, schemaNode, keyword, schemaPath);
+        }
+
+        /**
+         * 弹出与当前事件对应的栈帧，不对应时说明开始事件被跳过，不统计
+         */
+        private Frame pop(JsonNode schemaNode, String keyword) {
+            Frame frame = top;
+            if (frame == null || frame.schemaNode != schemaNode || !frame.keyword.equals(keyword)) {
+                return null;
+            }
+            top = frame.parent;
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.jerrymice.json.schema.profile;
+
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import com.networknt.schema.walk.WalkEvent;
+import com.networknt.schema.walk.WalkFlow;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 设置了profiler时在编译schema前注册的listener，把walk事件转发给当前的{@link KeywordProfiler}。
+ * 更换profiler只替换volatile字段，不修改编译后正在使用的配置
+ */
+public final class KeywordProfilerListener implements JsonSchemaWalkListener {
+    private volatile KeywordProfiler target;
+
+    public KeywordProfiler getTarget() {
+        return target;
+    }
+
+    /**
+     * @param target 为null时不统计
+     */
+    public void setTarget(KeywordProfiler target) {
+        this.target = target;
+    }
+
+    /**
+     * 在config的每个关键字上注册，只能在编译schema前调用，重复注册不会生效
+     *
+     * @param config
+     */
+    public void register(SchemaValidatorsConfig config) {
+        for (ValidatorTypeCode code : ValidatorTypeCode.values()) {
+            List<JsonSchemaWalkListener> listeners = config.getKeywordWalkListenersMap().get(code.getValue());
+            if (listeners == null || !listeners.contains(this)) {
+                config.addKeywordWalkListener(code.getValue(), this);
+            }
+        }
+    }
+
+    /**
+     * 从config的每个关键字上移除，只能在编译schema前调用
+     *
+     * @param config
+     */
+    public void unregister(SchemaValidatorsConfig config) {
+        config.getKeywordWalkListenersMap().values().forEach(listeners -> listeners.remove(this));
+    }
+
+    @Override
+    public WalkFlow onWalkStart(WalkEvent walkEvent) {
+        KeywordProfiler profiler = target;
+        return profiler == null ? WalkFlow.CONTINUE : profiler.onWalkStart(walkEvent);
+    }
+
+    @Override
+    public void onWalkEnd(WalkEvent walkEvent, Set<ValidationMessage> validationMessages) {
+        KeywordProfiler profiler = target;
+        if (profiler != null) {
+            profiler.onWalkEnd(walkEvent, validationMessages);
+        }
+    }
+}
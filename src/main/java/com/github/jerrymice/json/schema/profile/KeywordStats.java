@@ -0,0 +1,55 @@
+package com.github.jerrymice.json.schema.profile;
+
+/**
+ * 单个关键字位置的耗时统计快照
+ */
+public class KeywordStats {
+    private final String location;
+    private final long count;
+    private final long totalNanos;
+    private final long selfNanos;
+    private final long maxNanos;
+
+    public KeywordStats(String location, long count, long totalNanos, long selfNanos, long maxNanos) {
+        this.location = location;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.selfNanos = selfNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return schemaPath/关键字，例如#/properties/name/pattern
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 包括子schema在内的总耗时
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return 去掉子schema关键字后的耗时
+     */
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return location + " count=" + count + ", total=" + totalNanos / 1000 + "us, self=" + selfNanos / 1000
+                + "us, max=" + maxNanos / 1000 + "us";
+    }
+}
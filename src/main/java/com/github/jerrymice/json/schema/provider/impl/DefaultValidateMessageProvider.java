@@ -1,32 +1,31 @@
 package com.github.jerrymice.json.schema.provider.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.JsonNodeType;
-import com.fasterxml.jackson.databind.node.MissingNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.index.ErrorMessage;
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.github.jerrymice.json.schema.index.RewritePlan;
 import com.github.jerrymice.json.schema.pointer.ErrorMessagePointer;
 import com.github.jerrymice.json.schema.pointer.PointFactor;
 import com.github.jerrymice.json.schema.pointer.impl.DefaultErrorMessagePointer;
 import com.github.jerrymice.json.schema.provider.ValidateMessageProvider;
 import com.networknt.schema.JsonSchema;
+import com.networknt.schema.TemplatedValidationMessage;
 import com.networknt.schema.ValidationMessage;
 import com.networknt.schema.walk.WalkEvent;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-
-import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_CODE_KEY;
-import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_KEY;
-import static com.github.jerrymice.json.schema.KeyWordExt.ERROR_MESSAGE_KEY;
+import java.util.Map;
 
 public class DefaultValidateMessageProvider implements ValidateMessageProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultValidateMessageProvider.class);
+    /**
+     * 指定customMessage时ValidationMessage.Builder不会调用format，只需要一个非null的实例，所有消息共用
+     */
+    private static final MessageFormat EMPTY_FORMAT = new MessageFormat("");
     protected List<ErrorMessagePointer> errorMessagePointerList = new ArrayList<>();
 
     public DefaultValidateMessageProvider() {
@@ -45,66 +44,32 @@ public class DefaultValidateMessageProvider implements ValidateMessageProvider {
 
     @Override
     public ValidationMessage rewrite(WalkEvent walkEvent, ValidationMessage message) {
-        JsonNode schemaNode = walkEvent.getSchemaNode();
-        //查找rootSchemaJsonNode
-        JsonNode rootSchemaNode = findRootSchemaJsonNode(walkEvent);
+        //查找schema节点的重写计划，只在第一次遇到该节点时查找rootSchemaJsonNode
+        RewritePlan plan = RewritePlan.forSchemaNode(walkEvent.getSchemaNode(), () -> findRootSchemaJsonNode(walkEvent));
         //查找已经在properties对应的属性名下明确定义的error
-        JsonNode errorTypeNode = findExplicitDefErrorTypeNode(message.getType(), schemaNode, rootSchemaNode);
-        //如果找不到errorTypeNode才使用通用的错误信息
-        if (errorTypeNode.getNodeType().equals(JsonNodeType.MISSING)) {
-            String[] defaultErrorPoint = createErrorPropertyJsonPoint(message);
+        ErrorMessage error = plan.findExplicit(message.getType());
+        //如果找不到明确定义的error才使用通用的错误信息
+        if (error == null) {
+            List<String> defaultErrorPoint = createErrorPropertyJsonPoint(message);
             if (defaultErrorPoint == null) {
                 LOGGER.warn("找不到对应的ErrorMessagePointer,type:{},schema path:{},message:{}",
                         message.getType(), message.getSchemaPath(), message.getMessage());
                 return message;
             }
-            //如果没有自定义的error信息
             for (String point : defaultErrorPoint) {
-                errorTypeNode = rootSchemaNode.at(point);
-                if (!errorTypeNode.isEmpty()) {
+                error = plan.findByPointer(point);
+                if (error != null) {
                     break;
                 }
             }
-            //如果还是没找到那么返回最原始的message
-            if (errorTypeNode.isEmpty()) {
-                return message;
-            }
         }
-        //error中的message与code属性还有${..}引用表达式，那么需要解析并处理
-        errorTypeNode = findResolveMessage(rootSchemaNode, errorTypeNode);
-        return buildValidationMessage(message, errorTypeNode);
-    }
-
-    /**
-     * 查找已经在该节点下面明确定义的error属性
-     * <p>
-     * example:
-     * {"error":"${/$error/name}"};
-     * {"error":{"type":"${/$error/name/type}"}};
-     *
-     * @param type
-     * @param schemaNode
-     * @param rootSchemaNode
-     * @return
-     */
-    protected JsonNode findExplicitDefErrorTypeNode(String type, JsonNode schemaNode,
-                                                    JsonNode rootSchemaNode) {
-        //通过error和type找明确定义的节点,{"error":{"type":"${/error/name/type}"}};
-        JsonNode errorTypeNode = schemaNode.at("/" + ERROR_KEY + "/" + type);
-        if (errorTypeNode.getNodeType().equals(JsonNodeType.MISSING)) {
-            ////通过error找定义的节点，并查找表达式引用,{"error":"${/error/name}"};
-            JsonNode errorNode = schemaNode.at("/" + ERROR_KEY);
-            if (errorNode.getNodeType().equals(JsonNodeType.STRING)) {
-                //再查找type对应的error:{"message","","code":""}
-                errorTypeNode = findErrorNodeRef(rootSchemaNode, errorNode.asText(), type);
-            } else {
-                return MissingNode.getInstance();
-            }
+        //如果还是没找到那么返回最原始的message
+        if (error == null || error.isNone()) {
+            return message;
         }
-        return errorTypeNode;
+        return buildValidationMessage(message, error);
     }
 
-
     protected JsonNode findRootSchemaJsonNode(WalkEvent walkEvent) {
         if (walkEvent.getParentSchema() == null) {
             return walkEvent.getSchemaNode();
@@ -113,108 +78,46 @@ public class DefaultValidateMessageProvider implements ValidateMessageProvider {
         return ancestor.getSchemaNode();
     }
 
-    /**
-     * 递规查找错误信息和其中的引用,支持以下几种格式
-     * <p>
-     * example:
-     * {"name":{"type":{"code":"1234","message":"名字不能为空"}}};
-     * {"name":{"type":{"code":"${/$error/name/type/code}","message":"名字不能为空"}}};
-     * {"name":{"type":{"code":"${/$error/name/type/code}","message":"${/$error/name/type/message}"}}};
-     *
-     * @param root
-     * @param error
-     * @return
-     */
-    protected JsonNode findResolveMessage(JsonNode root, JsonNode error) {
-        if (error.isObject()) {
-            JsonNode code = error.get(ERROR_CODE_KEY);
-            JsonNode message = error.get(ERROR_MESSAGE_KEY);
-            if (!isExpression(code.asText()) && !isExpression(message.asText())) {
-                return error;
-            }
-            ObjectNode result = new ObjectNode(new JsonNodeFactory(true));
-            if (isExpression(code.asText())) {
-                code = findResolveMessage(root, code);
-            }
-            if (isExpression(message.asText())) {
-                message = findResolveMessage(root, message);
-            }
-            result.set(ERROR_CODE_KEY, code);
-            result.set(ERROR_MESSAGE_KEY, message);
-            return result;
-        } else {
-            if (isExpression(error.asText())) {
-                String jsonPoint = resolveExpressionJsonPoint(error.asText());
-                JsonNode at = root.at(jsonPoint);
-                return findResolveMessage(root, at);
-            } else {
-                return error;
-            }
+    private ValidationMessage buildValidationMessage(ValidationMessage message, ErrorMessage error) {
+        String code = error.getCode() == null ? message.getCode() : error.getCode();
+        MessageTemplate template = error.getTemplate();
+        if (template == null) {
+            return rewriteValidationMessage(message, code, message.getMessage(), message.getDetails());
         }
-    }
-
-    private ValidationMessage buildValidationMessage(ValidationMessage message, JsonNode error) {
-        Optional<String> codeOptional = Optional.ofNullable(error.get(ERROR_CODE_KEY)).map(JsonNode::asText);
-        Optional<String> messageTextOptional = Optional.ofNullable(error.get(ERROR_MESSAGE_KEY)).map(JsonNode::asText);
-        String code = codeOptional.orElse(message.getCode());
-        String messageText = messageTextOptional.orElse(message.getMessage());
-        return rewriteValidationMessage(message, code, messageText);
+        return TemplatedValidationMessage.of(message, code, template);
     }
 
     /**
-     * 使用新的CODE码和错误信息替换掉原始信息
+     * 使用新的CODE码替换掉原始信息，没有模板时使用，有模板时使用{@link TemplatedValidationMessage}
      *
      * @param message
      * @param code
      * @param errorText
+     * @param details
      * @return
      */
-    private ValidationMessage rewriteValidationMessage(ValidationMessage message, String code, String errorText) {
+    private ValidationMessage rewriteValidationMessage(ValidationMessage message, String code, String errorText,
+                                                       Map<String, Object> details) {
         return new ValidationMessage.Builder()
                 .type(message.getType())
                 .path(message.getPath())
                 .code(code)
                 .arguments(message.getArguments())
-                .details(message.getDetails())
+                .details(details)
                 .schemaPath(message.getSchemaPath())
                 .customMessage(errorText)
-                .format(new MessageFormat("")).build();
+                .format(EMPTY_FORMAT).build();
     }
 
-    private String[] createErrorPropertyJsonPoint(ValidationMessage message) {
-        String errorPropertyPoint = null;
+    private List<String> createErrorPropertyJsonPoint(ValidationMessage message) {
+        PointFactor pointFactor = new PointFactor(message);
         for (ErrorMessagePointer processor : errorMessagePointerList) {
-            PointFactor pointFactor = new PointFactor(message);
             boolean support = processor.isSupport(pointFactor);
             if (support) {
-                errorPropertyPoint = processor.createPointer(message);
-                break;
+                List<String> pointers = processor.createPointers(message);
+                return pointers.isEmpty() ? null : pointers;
             }
         }
-        if (errorPropertyPoint == null || StringUtils.isBlank(errorPropertyPoint)) {
-            return null;
-        }
-        return errorPropertyPoint.split(",");
-    }
-
-    private boolean isExpression(String value) {
-        return value != null && value.startsWith("${") && value.endsWith("}");
-    }
-
-    private String resolveExpressionJsonPoint(String value) {
-        String point = value.replace("${", "").replace("}", "");
-        return point.startsWith("/" + ERROR_KEY) ? point : "/" + ERROR_KEY + point;
-    }
-
-    private JsonNode findErrorNodeRef(JsonNode root, String rawExpression, String type) {
-        String expressionJsonPoint = resolveExpressionJsonPoint(rawExpression);
-        JsonNode node = root.at(expressionJsonPoint);
-        if (node.getNodeType().equals(JsonNodeType.MISSING)) {
-            return node;
-        }
-        if (node.getNodeType().equals(JsonNodeType.STRING)) {
-            return findErrorNodeRef(root, node.toString(), type);
-        }
-        return node.at("/" + type);
+        return null;
     }
 }
@@ -0,0 +1,353 @@
+package com.github.jerrymice.json.schema.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * ^...$形式的简单正则表达式的线性时间匹配。
+ * <p>
+ * 只支持字符、转义字符、字符集和量词，不支持分组、或、反向引用和懒惰/占有量词。
+ * 表达式编译为状态序列，匹配时同时跟踪所有可能的状态，不回溯，耗时与输入长度和状态数量成正比。
+ * 语义与{@link java.util.regex.Matcher#find()}相同，$也可以匹配末尾的换行符，输入中有代理对字符时交给java正则处理
+ */
+final class AnchoredPatternMatcher {
+    private static final int MAX_STATES = 256;
+    private static final CharSet DIGIT = new CharSet(new char[]{'0', '9'}, false);
+    private static final CharSet WORD = new CharSet(new char[]{'a', 'z', 'A', 'Z', '_', '_', '0', '9'}, false);
+    private static final CharSet SPACE = new CharSet(new char[]{' ', ' ', '\t', '\r'}, false);
+    private static final char[] LINE_TERMINATORS = {'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'};
+    private static final CharSet DOT = new CharSet(LINE_TERMINATORS, true);
+
+    private static final int ONE = 0;
+    private static final int OPTIONAL = 1;
+    private static final int STAR = 2;
+
+    private final CharSet[] sets;
+    private final int[] kinds;
+    private final Pattern fallback;
+
+    private AnchoredPatternMatcher(List<CharSet> sets, List<Integer> kinds, Pattern fallback) {
+        this.sets = sets.toArray(new CharSet[0]);
+        this.kinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param regex
+     * @param fallback 已经编译好的同一个表达式
+     * @return 不支持的表达式返回null
+     */
+    static AnchoredPatternMatcher compile(String regex, Pattern fallback) {
+        if (fallback.flags() != 0 || regex.length() < 2 || regex.charAt(0) != '^' || regex.charAt(regex.length() - 1) != '$') {
+            return null;
+        }
+        List<CharSet> sets = new ArrayList<>();
+        List<Integer> kinds = new ArrayList<>();
+        int end = regex.length() - 1;
+        int i = 1;
+        while (i < end) {
+            CharSet set;
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= end) {
+                    return null;
+                }
+                int[] consumed = new int[1];
+                set = escape(regex, i + 1, end, consumed);
+                i = i + 1 + consumed[0];
+            } else if (c == '[') {
+                int close = findClassEnd(regex, i + 1, end);
+                if (close < 0) {
+                    return null;
+                }
+                set = charClass(regex, i + 1, close);
+                i = close + 1;
+            } else if (c == '.') {
+                set = DOT;
+                i++;
+            } else if ("()|^$*+?{}]".indexOf(c) >= 0 || Character.isSurrogate(c)) {
+                return null;
+            } else {
+                set = new CharSet(new char[]{c, c}, false);
+                i++;
+            }
+            if (set == null) {
+                return null;
+            }
+            //量词
+            int min = 1;
+            int max = 1;
+            if (i < end) {
+                char q = regex.charAt(i);
+                if (q == '?') {
+                    min = 0;
+                    i++;
+                } else if (q == '*') {
+                    min = 0;
+                    max = -1;
+                    i++;
+                } else if (q == '+') {
+                    max = -1;
+                    i++;
+                } else if (q == '{') {
+                    int close = regex.indexOf('}', i);
+                    if (close < 0 || close >= end) {
+                        return null;
+                    }
+                    String[] bounds = regex.substring(i + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0]);
+                        max = bounds.length == 1 ? min : bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1]);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    if (bounds.length > 2 || (max >= 0 && max < min)) {
+                        return null;
+                    }
+                    i = close + 1;
+                }
+                //懒惰与占有量词
+                if (i < end && (min != 1 || max != 1) && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                    return null;
+                }
+            }
+            int states = min + (max < 0 ? 1 : max - min);
+            if (sets.size() + states > MAX_STATES) {
+                return null;
+            }
+            for (int k = 0; k < min; k++) {
+                sets.add(set);
+                kinds.add(ONE);
+            }
+            if (max < 0) {
+                sets.add(set);
+                kinds.add(STAR);
+            } else {
+                for (int k = min; k < max; k++) {
+                    sets.add(set);
+                    kinds.add(OPTIONAL);
+                }
+            }
+        }
+        return new AnchoredPatternMatcher(sets, kinds, fallback);
+    }
+
+    boolean find(String input) {
+        int length = input.length();
+        //$可以匹配末尾的换行符之前的位置
+        int beforeTerminator = length;
+        if (length > 0 && isLineTerminator(input.charAt(length - 1))) {
+            beforeTerminator = length >= 2 && input.charAt(length - 2) == '\r' && input.charAt(length - 1) == '\n'
+                    ? length - 2 : length - 1;
+        }
+        int n = sets.length;
+        boolean[] current = new boolean[n + 1];
+        boolean[] next = new boolean[n + 1];
+        current[0] = true;
+        closure(current);
+        for (int position = 0; position < length; position++) {
+            if (position == beforeTerminator && current[n]) {
+                return true;
+            }
+            char c = input.charAt(position);
+            if (Character.isSurrogate(c)) {
+                return fallback.matcher(input).find();
+            }
+            boolean alive = false;
+            for (int state = 0; state < n; state++) {
+                if (current[state] && sets[state].matches(c)) {
+                    next[kinds[state] == STAR ? state : state + 1] = true;
+                    alive = true;
+                }
+            }
+            if (!alive) {
+                return false;
+            }
+            closure(next);
+            boolean[] swap = current;
+            current = next;
+            next = swap;
+            Arrays.fill(next, false);
+        }
+        return current[n];
+    }
+
+    private void closure(boolean[] states) {
+        for (int state = 0; state < sets.length; state++) {
+            if (states[state] && kinds[state] != ONE) {
+                states[state + 1] = true;
+            }
+        }
+    }
+
+    /**
+     * @param consumed 返回转义字符之后消耗的字符数量
+     * @return 不支持的转义返回null
+     */
+    private static CharSet escape(String regex, int i, int end, int[] consumed) {
+        char c = regex.charAt(i);
+        consumed[0] = 1;
+        switch (c) {
+            case 'd':
+                return DIGIT;
+            case 'D':
+                return DIGIT.negate();
+            case 'w':
+                return WORD;
+            case 'W':
+                return WORD.negate();
+            case 's':
+                return SPACE;
+            case 'S':
+                return SPACE.negate();
+            default:
+                int literal = escapedChar(regex, i, end, consumed);
+                return literal < 0 ? null : new CharSet(new char[]{(char) literal, (char) literal}, false);
+        }
+    }
+
+    /**
+     * @return 转义后的单个字符，不支持时返回-1
+     */
+    private static int escapedChar(String regex, int i, int end, int[] consumed) {
+        char c = regex.charAt(i);
+        consumed[0] = 1;
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'u':
+                if (i + 5 > end) {
+                    return -1;
+                }
+                try {
+                    char value = (char) Integer.parseInt(regex.substring(i + 1, i + 5), 16);
+                    consumed[0] = 5;
+                    return Character.isSurrogate(value) ? -1 : value;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            default:
+                //只接受标点符号的转义，字母和数字的转义有特殊含义
+                return Character.isLetterOrDigit(c) || Character.isSurrogate(c) ? -1 : c;
+        }
+    }
+
+    private static int findClassEnd(String regex, int i, int end) {
+        int position = i;
+        if (position < end && regex.charAt(position) == '^') {
+            position++;
+        }
+        //开头的]是普通字符
+        if (position < end && regex.charAt(position) == ']') {
+            position++;
+        }
+        while (position < end) {
+            char c = regex.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == ']') {
+                return position;
+            } else {
+                position++;
+            }
+        }
+        return -1;
+    }
+
+    private static CharSet charClass(String regex, int start, int close) {
+        boolean negated = regex.charAt(start) == '^';
+        int i = negated ? start + 1 : start;
+        List<Character> ranges = new ArrayList<>();
+        int[] consumed = new int[1];
+        while (i < close) {
+            char c = regex.charAt(i);
+            int from;
+            if (c == '[' || (c == '&' && i + 1 < close && regex.charAt(i + 1) == '&') || Character.isSurrogate(c)) {
+                return null;
+            }
+            if (c == '\\') {
+                char e = i + 1 < close ? regex.charAt(i + 1) : 0;
+                CharSet predefined = e == 'd' ? DIGIT : e == 'w' ? WORD : e == 's' ? SPACE : null;
+                if (predefined != null) {
+                    for (char bound : predefined.ranges) {
+                        ranges.add(bound);
+                    }
+                    i += 2;
+                    continue;
+                }
+                from = escapedChar(regex, i + 1, close, consumed);
+                i += 1 + consumed[0];
+            } else {
+                from = c;
+                i++;
+            }
+            if (from < 0) {
+                return null;
+            }
+            int to = from;
+            if (i + 1 < close && regex.charAt(i) == '-') {
+                char t = regex.charAt(i + 1);
+                if (t == '\\') {
+                    to = escapedChar(regex, i + 2, close, consumed);
+                    i += 2 + consumed[0];
+                } else if (t == '[' || Character.isSurrogate(t)) {
+                    return null;
+                } else {
+                    to = t;
+                    i += 2;
+                }
+                if (to < from) {
+                    return null;
+                }
+            }
+            ranges.add((char) from);
+            ranges.add((char) to);
+        }
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        char[] array = new char[ranges.size()];
+        for (int k = 0; k < array.length; k++) {
+            array[k] = ranges.get(k);
+        }
+        return new CharSet(array, negated);
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * 字符范围的集合，ranges中每两个字符为一个闭区间
+     */
+    private static final class CharSet {
+        private final char[] ranges;
+        private final boolean negated;
+
+        private CharSet(char[] ranges, boolean negated) {
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+
+        private CharSet negate() {
+            return new CharSet(ranges, !negated);
+        }
+
+        private boolean matches(char c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.jerrymice.json.schema.regex;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 编译好的正则表达式，在所有schema之间共用，并记录匹配次数与耗时
+ */
+public final class CachedPattern {
+    private final String regex;
+    private final Pattern pattern;
+    /**
+     * 支持时使用线性时间的匹配，否则为null
+     */
+    private final AnchoredPatternMatcher linearMatcher;
+    private final long slowMatchNanos;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    CachedPattern(String regex, boolean linear, long slowMatchNanos) {
+        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        this.linearMatcher = linear ? AnchoredPatternMatcher.compile(regex, pattern) : null;
+        this.slowMatchNanos = slowMatchNanos;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return 是否使用线性时间的匹配
+     */
+    public boolean isLinear() {
+        return linearMatcher != null;
+    }
+
+    /**
+     * 与Matcher.find()的结果相同
+     *
+     * @param input
+     * @return
+     */
+    public boolean find(String input) {
+        long start = System.nanoTime();
+        boolean found = linearMatcher != null ? linearMatcher.find(input) : pattern.matcher(input).find();
+        long elapsed = System.nanoTime() - start;
+        count.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulate(elapsed);
+        if (elapsed >= slowMatchNanos) {
+            slowCount.increment();
+        }
+        return found;
+    }
+
+    public PatternStats getStats() {
+        return new PatternStats(regex, isLinear(), count.sum(), totalNanos.sum(), maxNanos.get(), slowCount.sum());
+    }
+
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        slowCount.reset();
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.jerrymice.json.schema.regex;
+
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.cache.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 正则表达式的共享缓存，相同的表达式在所有schema之间只编译一次，并按表达式统计匹配耗时，用于发现回溯严重的表达式。
+ * <p>
+ * ^...$形式、只包含字符、字符集和量词的简单表达式默认使用线性时间的匹配，不会因为回溯耗时失控
+ */
+public class PatternCache {
+    private static final int DEFAULT_MAXIMUM_SIZE = 4096;
+    private static final long DEFAULT_SLOW_MATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static volatile PatternCache defaultCache = new PatternCache(DEFAULT_MAXIMUM_SIZE, true, DEFAULT_SLOW_MATCH_NANOS);
+
+    /**
+     * 被淘汰的表达式仍然由已编译的validator持有，只是不再出现在统计中
+     */
+    private final LruCache<String, CachedPattern> cache;
+    private final boolean linear;
+    private final long slowMatchNanos;
+
+    /**
+     * @param maximumSize    最多缓存的表达式数量
+     * @param linear         简单表达式是否使用线性时间的匹配
+     * @param slowMatchNanos 单次匹配超过该耗时记为慢匹配
+     */
+    public PatternCache(int maximumSize, boolean linear, long slowMatchNanos) {
+        this.cache = new LruCache<>(maximumSize);
+        this.linear = linear;
+        this.slowMatchNanos = slowMatchNanos;
+    }
+
+    /**
+     * @return CachedPatternKeyword使用的缓存
+     */
+    public static PatternCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * 替换默认缓存，只对之后编译的schema生效
+     *
+     * @param patternCache
+     */
+    public static void setDefault(PatternCache patternCache) {
+        defaultCache = patternCache;
+    }
+
+    /**
+     * @param regex
+     * @return
+     * @throws java.util.regex.PatternSyntaxException 表达式错误
+     */
+    public CachedPattern get(String regex) {
+        return cache.computeIfAbsent(regex, key -> new CachedPattern(key, linear, slowMatchNanos));
+    }
+
+    /**
+     * 预先编译，例如SchemaBundle中的表达式
+     *
+     * @param regexes
+     */
+    public void precompile(Collection<String> regexes) {
+        regexes.forEach(this::get);
+    }
+
+    /**
+     * @param n
+     * @return 总耗时最长的n个表达式
+     */
+    public List<PatternStats> top(int n) {
+        return cache.values().stream()
+                .map(CachedPattern::getStats)
+                .sorted(Comparator.comparingLong(PatternStats::getTotalNanos).reversed())
+                .limit(n)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return 出现过慢匹配的表达式
+     */
+    public List<PatternStats> slowPatterns() {
+        List<PatternStats> slow = new ArrayList<>();
+        for (CachedPattern pattern : cache.values()) {
+            PatternStats stats = pattern.getStats();
+            if (stats.getSlowCount() > 0) {
+                slow.add(stats);
+            }
+        }
+        slow.sort(Comparator.comparingLong(PatternStats::getMaxNanos).reversed());
+        return slow;
+    }
+
+    /**
+     * @return 缓存的命中统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 清空匹配统计，编译好的表达式保留
+     */
+    public void resetStats() {
+        cache.values().forEach(CachedPattern::reset);
+    }
+}
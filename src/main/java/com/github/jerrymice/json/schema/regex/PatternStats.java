@@ -0,0 +1,58 @@
+package com.github.jerrymice.json.schema.regex;
+
+/**
+ * 单个正则表达式的匹配统计快照
+ */
+public class PatternStats {
+    private final String regex;
+    private final boolean linear;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long slowCount;
+
+    public PatternStats(String regex, boolean linear, long count, long totalNanos, long maxNanos, long slowCount) {
+        this.regex = regex;
+        this.linear = linear;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.slowCount = slowCount;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * @return 是否使用线性时间的匹配
+     */
+    public boolean isLinear() {
+        return linear;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return 耗时超过慢匹配阈值的次数
+     */
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    @Override
+    public String toString() {
+        return regex + (linear ? " [linear]" : "") + " count=" + count + ", total=" + totalNanos / 1000 + "us, max="
+                + maxNanos / 1000 + "us, slow=" + slowCount;
+    }
+}
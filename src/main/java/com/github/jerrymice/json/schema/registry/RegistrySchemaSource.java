@@ -0,0 +1,92 @@
+package com.github.jerrymice.json.schema.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.cache.IdentityKey;
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.github.jerrymice.json.schema.source.SchemaSource;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.SchemaValidatorsConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * SchemaRegistry中的schema，ValidatorManager直接使用注册时的树，并通过{@link #compile}按自己的配置编译，
+ * $ref在注册中心中查找，不修改注册中心共用的配置
+ */
+public class RegistrySchemaSource implements SchemaSource {
+    /**
+     * 正常使用的配置和ValidationMode使用的配置，以及重新加载时替换的配置
+     */
+    private static final int MAX_COMPILED = 4;
+
+    private final SchemaRegistry registry;
+    private final String id;
+
+    /**
+     * 按配置保存最近的编译结果，内容和配置都没有变化时直接返回，重新加载时版本不变
+     */
+    private final LruCache<IdentityKey<SchemaValidatorsConfig>, Compiled> compiled = new LruCache<>(MAX_COMPILED);
+
+    public RegistrySchemaSource(SchemaRegistry registry, String id) {
+        this.registry = registry;
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JsonNode getSchemaNode() {
+        return getEntry().getSchemaNode();
+    }
+
+    /**
+     * @param config
+     * @return 按config编译的schema
+     */
+    public JsonSchema compile(SchemaValidatorsConfig config) {
+        SchemaEntry entry = getEntry();
+        IdentityKey<SchemaValidatorsConfig> key = new IdentityKey<>(config);
+        Compiled previous = compiled.get(key);
+        if (previous != null && previous.entry == entry) {
+            return previous.jsonSchema;
+        }
+        JsonSchema jsonSchema = registry.compile(id, config);
+        compiled.put(key, new Compiled(entry, jsonSchema));
+        return jsonSchema;
+    }
+
+    @Override
+    public String getName() {
+        return "registry:" + id;
+    }
+
+    /**
+     * @return schema的json文本，只在需要按流读取时使用
+     */
+    @Override
+    public InputStream open() throws IOException {
+        return new ByteArrayInputStream(registry.getObjectMapper().writeValueAsBytes(getSchemaNode()));
+    }
+
+    private static final class Compiled {
+        private final SchemaEntry entry;
+        private final JsonSchema jsonSchema;
+
+        private Compiled(SchemaEntry entry, JsonSchema jsonSchema) {
+            this.entry = entry;
+            this.jsonSchema = jsonSchema;
+        }
+    }
+
+    private SchemaEntry getEntry() {
+        SchemaEntry entry = registry.getEntry(id);
+        if (entry == null) {
+            throw new JsonSchemaException("schema not registered: " + id);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.jerrymice.json.schema.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 注册到SchemaRegistry中、尚未编译的schema
+ */
+public final class SchemaEntry {
+    private final String id;
+    private final String title;
+    private final String version;
+    private final String location;
+    private final JsonNode schemaNode;
+    private final Set<String> refs;
+
+    SchemaEntry(String id, String title, String version, String location, JsonNode schemaNode, Set<String> refs) {
+        this.id = id;
+        this.title = title;
+        this.version = version;
+        this.location = location;
+        this.schemaNode = schemaNode;
+        this.refs = Collections.unmodifiableSet(refs);
+    }
+
+    /**
+     * @return $id，没有$id时为加载的位置
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return title，没有时返回null
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return version，没有时返回空字符串
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 加载的文件或classpath位置
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    public JsonNode getSchemaNode() {
+        return schemaNode;
+    }
+
+    /**
+     * @return 直接$ref的其它schema的地址，不包含#之后的部分
+     */
+    public Set<String> getRefs() {
+        return refs;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaEntry{id=" + id + ", title=" + title + ", version=" + version + ", location=" + location + "}";
+    }
+}
@@ -0,0 +1,500 @@
+package com.github.jerrymice.json.schema.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.KeyWordExt;
+import com.github.jerrymice.json.schema.SchemaManager;
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 多个schema的注册中心，按$id以及title+version索引。
+ * 注册时只解析json，第一次使用时才编译，编译结果放在容量有限的LRU缓存中，不常用的schema会被淘汰。
+ * 所有schema共用一个JsonSchemaFactory和ObjectMapper，schema之间的$ref只在已注册的schema中查找，不访问网络
+ */
+public class SchemaRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaRegistry.class);
+    private static final int DEFAULT_MAX_COMPILED = 128;
+    private static final String SCHEMA_FILE_SUFFIX = ".json";
+    /**
+     * 没有version字段时从$id的最后一段读取版本，例如/order/2、/order/v1.2
+     */
+    private static final Pattern ID_VERSION = Pattern.compile("/v?(\\d+(?:\\.\\d+)*)$");
+    private static final Comparator<String> VERSION_COMPARATOR = SchemaRegistry::compareVersion;
+    /**
+     * 值不是schema的关键字，不在其中查找$ref
+     */
+    private static final Set<String> VALUE_KEYWORDS = new HashSet<>(Arrays.asList("enum", "const", "default", "examples",
+            KeyWordExt.ERROR_KEY));
+
+    private final ObjectMapper objectMapper;
+    private final SchemaNodeMapper schemaNodeMapper;
+    private final SchemaValidatorsConfig config;
+    /**
+     * 重复注册时重新创建，丢弃factory按uri缓存的$ref引用的旧schema
+     */
+    private volatile JsonSchemaFactory factory;
+    private final Map<String, SchemaEntry> byId = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<String, SchemaEntry>> byTitle = new ConcurrentHashMap<>();
+    private final LruCache<String, JsonSchema> compiled;
+
+    public SchemaRegistry() {
+        this(new ObjectMapper(), null, DEFAULT_MAX_COMPILED);
+    }
+
+    /**
+     * @param objectMapper
+     * @param config       为null时使用默认配置
+     * @param maxCompiled  最多同时保留的编译结果数量
+     */
+    public SchemaRegistry(ObjectMapper objectMapper, SchemaValidatorsConfig config, int maxCompiled) {
+        this.objectMapper = objectMapper;
+        this.config = config == null ? SchemaManager.createDefaultSchemaValidatorsConfig() : config;
+        this.compiled = new LruCache<>(maxCompiled);
+        this.schemaNodeMapper = new SchemaNodeMapper(objectMapper);
+        //$ref引用的schema由factory自己缓存，数量不超过注册的schema数量
+        this.factory = createFactory();
+    }
+
+    private JsonSchemaFactory createFactory() {
+        return JsonSchemaFactory.builder(SchemaManager.getJsonSchemaFactory())
+                .objectMapper(schemaNodeMapper)
+                .uriFetcher(this::fetch, "http", "https")
+                .build();
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public SchemaValidatorsConfig getSchemaValidatorsConfig() {
+        return config;
+    }
+
+    /**
+     * 注册目录下（包括子目录）所有的.json文件
+     *
+     * @param directory
+     * @return 注册的数量
+     * @throws IOException
+     */
+    public int registerDirectory(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(SCHEMA_FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                register(objectMapper.readTree(in), "file:" + file.toAbsolutePath());
+            }
+        }
+        return files.size();
+    }
+
+    /**
+     * 注册classpath中指定目录下所有的.json文件，目录可以在文件系统中也可以在jar中
+     *
+     * @param prefix 例如schemas、META-INF/schemas
+     * @return 注册的数量
+     * @throws IOException
+     */
+    public int registerClasspath(String prefix) throws IOException {
+        String folder = trimSlash(prefix);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = SchemaRegistry.class.getClassLoader();
+        }
+        int count = 0;
+        Enumeration<URL> urls = classLoader.getResources(folder);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                count += registerDirectory(toPath(url));
+            } else if ("jar".equals(url.getProtocol())) {
+                count += registerJar((JarURLConnection) url.openConnection(), folder + "/");
+            } else {
+                LOGGER.warn("不支持的classpath位置:{}", url);
+            }
+        }
+        if (count == 0) {
+            throw new FileNotFoundException("no schema found in classpath: " + prefix);
+        }
+        return count;
+    }
+
+    private int registerJar(JarURLConnection connection, String folder) throws IOException {
+        connection.setUseCaches(false);
+        int count = 0;
+        try (JarFile jar = connection.getJarFile()) {
+            List<JarEntry> entries = Collections.list(jar.entries()).stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .filter(entry -> entry.getName().startsWith(folder) && entry.getName().endsWith(SCHEMA_FILE_SUFFIX))
+                    .sorted(Comparator.comparing(JarEntry::getName))
+                    .collect(Collectors.toList());
+            for (JarEntry entry : entries) {
+                try (InputStream in = jar.getInputStream(entry)) {
+                    register(objectMapper.readTree(in), "classpath:" + entry.getName());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 注册一个schema。$id相同时后注册的覆盖先注册的，并丢弃已有的编译结果、直接或间接$ref它的schema的编译结果、
+     * factory缓存的$ref引用的schema和旧的title+version索引
+     *
+     * @param schemaNode
+     * @param location   schema的来源，没有$id时作为id使用
+     * @return
+     */
+    public SchemaEntry register(JsonNode schemaNode, String location) {
+        if (schemaNode == null || !schemaNode.isObject()) {
+            throw new JsonSchemaException("schema must be a json object: " + location);
+        }
+        String id = normalizeId(text(schemaNode, "$id"));
+        if (id == null) {
+            id = location;
+        }
+        String title = text(schemaNode, "title");
+        String version = text(schemaNode, KeyWordExt.VERSION_KEY);
+        if (version == null) {
+            Matcher matcher = ID_VERSION.matcher(id);
+            version = matcher.find() ? matcher.group(1) : "";
+        }
+        Set<String> refs = new HashSet<>();
+        collectRefs(schemaNode, toUri(id), refs);
+        SchemaEntry entry = new SchemaEntry(id, title, version, location, schemaNode, refs);
+        SchemaEntry previous = byId.put(id, entry);
+        if (previous != null) {
+            LOGGER.warn("schema {} 重复注册, {} 覆盖了 {}", id, location, previous.getLocation());
+            factory = createFactory();
+            getDependents(id).forEach(compiled::invalidate);
+            removeTitle(previous);
+        }
+        if (title != null) {
+            byTitle.computeIfAbsent(title, key -> new ConcurrentSkipListMap<>(VERSION_COMPARATOR)).put(version, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * @param id
+     * @return id本身以及直接、间接$ref它的schema的id
+     */
+    private Set<String> getDependents(String id) {
+        Set<String> dependents = new HashSet<>();
+        dependents.add(id);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (SchemaEntry entry : byId.values()) {
+                if (!dependents.contains(entry.getId()) && !Collections.disjoint(entry.getRefs(), dependents)) {
+                    changed |= dependents.add(entry.getId());
+                }
+            }
+        }
+        return dependents;
+    }
+
+    private void removeTitle(SchemaEntry entry) {
+        if (entry.getTitle() == null) {
+            return;
+        }
+        byTitle.computeIfPresent(entry.getTitle(), (title, versions) -> {
+            versions.remove(entry.getVersion(), entry);
+            return versions.isEmpty() ? null : versions;
+        });
+    }
+
+    /**
+     * @param id
+     * @return 注册信息，id为null或者不存在时返回null
+     */
+    public SchemaEntry getEntry(String id) {
+        return id == null ? null : byId.get(normalizeId(id));
+    }
+
+    public Collection<SchemaEntry> getEntries() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * 按$id获取编译后的schema，不存在时抛出JsonSchemaException
+     *
+     * @param id
+     * @return
+     */
+    public JsonSchema getSchema(String id) {
+        SchemaEntry entry = getEntry(id);
+        if (entry == null) {
+            throw new JsonSchemaException("schema not registered: " + id);
+        }
+        return compile(entry);
+    }
+
+    /**
+     * 按title和version获取编译后的schema
+     *
+     * @param title
+     * @param version
+     * @return
+     */
+    public JsonSchema getSchema(String title, String version) {
+        NavigableMap<String, SchemaEntry> versions = byTitle.get(title);
+        SchemaEntry entry = versions == null ? null : versions.get(version);
+        if (entry == null) {
+            throw new JsonSchemaException("schema not registered: " + title + "@" + version);
+        }
+        return compile(entry);
+    }
+
+    /**
+     * @param title
+     * @return 指定title版本最高的schema
+     */
+    public JsonSchema getLatest(String title) {
+        NavigableMap<String, SchemaEntry> versions = byTitle.get(title);
+        if (versions == null || versions.isEmpty()) {
+            throw new JsonSchemaException("schema not registered: " + title);
+        }
+        return compile(versions.lastEntry().getValue());
+    }
+
+    /**
+     * @param id
+     * @param jsonNode
+     * @return
+     */
+    public Set<ValidationMessage> validate(String id, JsonNode jsonNode) {
+        return getSchema(id).validate(jsonNode);
+    }
+
+    /**
+     * 按指定配置单独编译，结果不放入编译缓存，用于需要在配置上注册自己listener的ValidatorManager。
+     * factory按uri缓存$ref引用的schema，不区分配置，所以每次使用新的factory，被引用的schema也按这个配置编译
+     *
+     * @param id
+     * @param config
+     * @return
+     */
+    public JsonSchema compile(String id, SchemaValidatorsConfig config) {
+        SchemaEntry entry = getEntry(id);
+        if (entry == null) {
+            throw new JsonSchemaException("schema not registered: " + id);
+        }
+        //预编译$error索引，${..}引用无效时在加载阶段直接抛出
+        ErrorMessageIndex.forSchemaNode(entry.getSchemaNode());
+        return createFactory().getSchema(toUri(entry.getId()), entry.getSchemaNode(), config);
+    }
+
+    /**
+     * @return 编译缓存的命中与淘汰统计
+     */
+    public CacheStats getCompiledCacheStats() {
+        return compiled.stats();
+    }
+
+    private JsonSchema compile(SchemaEntry entry) {
+        return compiled.computeIfAbsent(entry.getId(), id -> {
+            //预编译$error索引，${..}引用无效时在加载阶段直接抛出
+            ErrorMessageIndex.forSchemaNode(entry.getSchemaNode());
+            JsonSchema jsonSchema = factory.getSchema(toUri(id), entry.getSchemaNode(), config);
+            jsonSchema.initializeValidators();
+            return jsonSchema;
+        });
+    }
+
+    /**
+     * 只返回已注册的schema，未注册的地址直接失败，不访问网络。
+     * 返回的流不包含数据，由{@link SchemaNodeMapper}直接取出注册时的树
+     *
+     * @param uri
+     * @return
+     * @throws IOException
+     */
+    private InputStream fetch(URI uri) throws IOException {
+        SchemaEntry entry = getEntry(uri.toString());
+        if (entry == null) {
+            throw new FileNotFoundException("schema not registered: " + uri);
+        }
+        return new SchemaNodeStream(entry.getSchemaNode());
+    }
+
+    /**
+     * 收集引用的其它schema的地址，去掉#之后的部分，schema内部的引用不收集
+     */
+    private static void collectRefs(JsonNode node, URI base, Set<String> refs) {
+        if (node.isArray()) {
+            node.forEach(item -> collectRefs(item, base, refs));
+            return;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            if ("$ref".equals(field.getKey()) && value.isTextual()) {
+                String ref = value.asText();
+                if (!ref.startsWith("#")) {
+                    try {
+                        refs.add(normalizeId(base == null ? ref : base.resolve(ref).toString()));
+                    } catch (IllegalArgumentException e) {
+                        refs.add(normalizeId(ref));
+                    }
+                }
+            } else if (!VALUE_KEYWORDS.contains(field.getKey())) {
+                collectRefs(value, base, refs);
+            }
+        }
+    }
+
+    private static URI toUri(String id) {
+        try {
+            return new URI(id);
+        } catch (URISyntaxException e) {
+            //没有$id时id为文件位置，不一定是合法的uri
+            return null;
+        }
+    }
+
+    private static Path toPath(URL url) throws IOException {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("invalid classpath location: " + url, e);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * 去掉$id末尾的#，/order/1#与/order/1是同一个schema
+     *
+     * @param id
+     * @return
+     */
+    private static String normalizeId(String id) {
+        if (id == null) {
+            return null;
+        }
+        int hash = id.indexOf('#');
+        return hash >= 0 ? id.substring(0, hash) : id;
+    }
+
+    private static String trimSlash(String prefix) {
+        String folder = prefix;
+        while (folder.startsWith("/")) {
+            folder = folder.substring(1);
+        }
+        while (folder.endsWith("/")) {
+            folder = folder.substring(0, folder.length() - 1);
+        }
+        return folder;
+    }
+
+    /**
+     * 携带已注册schema树的空流
+     */
+    private static final class SchemaNodeStream extends InputStream {
+        private final JsonNode schemaNode;
+
+        private SchemaNodeStream(JsonNode schemaNode) {
+            this.schemaNode = schemaNode;
+        }
+
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+
+    /**
+     * factory读取$ref引用的schema时直接返回注册时的树，不再序列化后重新解析，
+     * 被引用的schema节点与注册时是同一个对象，按节点引用查找的$error索引可以命中
+     */
+    private static final class SchemaNodeMapper extends ObjectMapper {
+        private static final long serialVersionUID = 1L;
+
+        private SchemaNodeMapper(ObjectMapper src) {
+            super(src);
+        }
+
+        @Override
+        public JsonNode readTree(InputStream in) throws IOException {
+            return in instanceof SchemaNodeStream ? ((SchemaNodeStream) in).schemaNode : super.readTree(in);
+        }
+
+        @Override
+        public ObjectMapper copy() {
+            return new SchemaNodeMapper(this);
+        }
+    }
+
+    /**
+     * 按数字逐段比较版本，1.10大于1.9，无法按数字比较的段按字符串比较
+     */
+    private static int compareVersion(String left, String right) {
+        String[] a = left.split("\\.");
+        String[] b = right.split("\\.");
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            String x = i < a.length ? a[i] : "0";
+            String y = i < b.length ? b[i] : "0";
+            int result;
+            try {
+                result = Long.compare(Long.parseLong(x), Long.parseLong(y));
+            } catch (NumberFormatException e) {
+                result = x.compareTo(y);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return left.compareTo(right);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.jerrymice.json.schema.reload;
+
+/**
+ * schema重新加载的统计快照，耗时包括读取文件、编译、预编译$error索引和初始化验证器
+ */
+public class ReloadStats {
+    private final long version;
+    private final long reloadCount;
+    private final long failureCount;
+    private final long lastReloadNanos;
+    private final long maxReloadNanos;
+    private final long totalReloadNanos;
+    private final String lastFailure;
+
+    public ReloadStats(long version, long reloadCount, long failureCount, long lastReloadNanos,
+                       long maxReloadNanos, long totalReloadNanos, String lastFailure) {
+        this.version = version;
+        this.reloadCount = reloadCount;
+        this.failureCount = failureCount;
+        this.lastReloadNanos = lastReloadNanos;
+        this.maxReloadNanos = maxReloadNanos;
+        this.totalReloadNanos = totalReloadNanos;
+        this.lastFailure = lastFailure;
+    }
+
+    /**
+     * @return 当前生效的schema版本，首次加载为1，每次成功重新加载加1
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 成功重新加载的次数
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * @return 编译失败、保留旧版本的次数
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getLastReloadNanos() {
+        return lastReloadNanos;
+    }
+
+    public long getMaxReloadNanos() {
+        return maxReloadNanos;
+    }
+
+    /**
+     * @return 平均每次成功重新加载的耗时，没有重新加载时返回0
+     */
+    public long getAverageReloadNanos() {
+        return reloadCount == 0 ? 0 : totalReloadNanos / reloadCount;
+    }
+
+    /**
+     * @return 最近一次失败的原因，没有失败时返回null
+     */
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public String toString() {
+        return "ReloadStats{version=" + version + ", reloadCount=" + reloadCount + ", failureCount=" + failureCount +
+                ", lastReloadNanos=" + lastReloadNanos + ", maxReloadNanos=" + maxReloadNanos +
+                ", lastFailure=" + lastFailure + "}";
+    }
+}
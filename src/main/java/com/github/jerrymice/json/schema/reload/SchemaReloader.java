@@ -0,0 +1,118 @@
+package com.github.jerrymice.json.schema.reload;
+
+import com.github.jerrymice.json.schema.ValidatorManager;
+import com.github.jerrymice.json.schema.source.FileSchemaSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听schema文件的修改，在后台线程中重新编译并替换ValidatorManager中的schema。
+ * <p>
+ * 编辑器保存文件时通常会产生多个事件，收到事件后等待debounceMillis内不再有新的事件才重新加载。
+ * 重新加载失败时ValidatorManager继续使用旧版本
+ */
+public class SchemaReloader implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaReloader.class);
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    private final ValidatorManager validatorManager;
+    private final Path file;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public SchemaReloader(ValidatorManager validatorManager, FileSchemaSource source) throws IOException {
+        this(validatorManager, source, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public SchemaReloader(ValidatorManager validatorManager, FileSchemaSource source, long debounceMillis) throws IOException {
+        this.validatorManager = validatorManager;
+        this.file = source.getPath();
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "schema-reloader-" + file.getFileName());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 创建并启动监听
+     *
+     * @param validatorManager
+     * @param source
+     * @return
+     * @throws IOException
+     */
+    public static SchemaReloader start(ValidatorManager validatorManager, FileSchemaSource source) throws IOException {
+        SchemaReloader reloader = new SchemaReloader(validatorManager, source);
+        reloader.start();
+        return reloader;
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                //等待连续的修改事件结束
+                while (true) {
+                    WatchKey next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    changed |= drain(next);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            //close()
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(context)) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            validatorManager.reload();
+            LOGGER.info("schema重新加载完成,file:{},{}", file, validatorManager.getReloadStats());
+        } catch (Exception e) {
+            LOGGER.warn("schema重新加载失败，继续使用旧版本,file:{},ex:", file, e);
+        }
+    }
+}
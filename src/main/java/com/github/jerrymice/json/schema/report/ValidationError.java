@@ -0,0 +1,62 @@
+package com.github.jerrymice.json.schema.report;
+
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Locale;
+
+/**
+ * {@link ValidationReport}中的一个错误，所有字段都直接读取原始的ValidationMessage，不复制，message只在读取时格式化
+ */
+public final class ValidationError {
+    private final ValidationMessage messageRef;
+
+    ValidationError(ValidationMessage messageRef) {
+        this.messageRef = messageRef;
+    }
+
+    /**
+     * @return 数据路径，例如$.name
+     */
+    public String getPath() {
+        return messageRef.getPath();
+    }
+
+    /**
+     * @return 验证失败的关键字，例如minLength
+     */
+    public String getKeyword() {
+        return messageRef.getType();
+    }
+
+    /**
+     * @return 重写后为$error中定义的code，否则为json-schema-validator的错误码
+     */
+    public String getCode() {
+        return messageRef.getCode();
+    }
+
+    /**
+     * @return 默认文本，使用$error模板时在这里格式化
+     */
+    public String getMessage() {
+        return MessageTemplate.render(messageRef, null);
+    }
+
+    /**
+     * @param locale
+     * @return 按locale查找$error中的多语言模板，没有对应语言时返回默认文本
+     */
+    public String getMessage(Locale locale) {
+        return MessageTemplate.render(messageRef, locale);
+    }
+
+    public ValidationMessage getMessageRef() {
+        return messageRef;
+    }
+
+    @Override
+    public String toString() {
+        return getPath() + " " + getKeyword() + " " + getCode() + " " + getMessage();
+    }
+}
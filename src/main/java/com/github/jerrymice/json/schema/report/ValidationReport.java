@@ -0,0 +1,115 @@
+package com.github.jerrymice.json.schema.report;
+
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 结构化的验证结果，错误按数组存放，可以按下标直接读取path、keyword、code与message，不需要解析字符串，
+ * message只在读取时格式化。
+ * 验证通过时返回共享的{@link #VALID}，不创建新对象
+ */
+public final class ValidationReport implements Iterable<ValidationError> {
+    private static final ValidationMessage[] EMPTY = new ValidationMessage[0];
+    public static final ValidationReport VALID = new ValidationReport(EMPTY);
+
+    private final ValidationMessage[] messages;
+
+    private ValidationReport(ValidationMessage[] messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * @param messages
+     * @return 没有错误时返回{@link #VALID}
+     */
+    public static ValidationReport of(Collection<ValidationMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return VALID;
+        }
+        return new ValidationReport(messages.toArray(EMPTY));
+    }
+
+    public boolean isValid() {
+        return messages.length == 0;
+    }
+
+    public int size() {
+        return messages.length;
+    }
+
+    public String getPath(int index) {
+        return messages[index].getPath();
+    }
+
+    public String getKeyword(int index) {
+        return messages[index].getType();
+    }
+
+    public String getCode(int index) {
+        return messages[index].getCode();
+    }
+
+    /**
+     * @param index
+     * @return 默认文本，使用$error模板时在这里格式化
+     */
+    public String getMessage(int index) {
+        return MessageTemplate.render(messages[index], null);
+    }
+
+    /**
+     * @param index
+     * @param locale
+     * @return 按locale查找$error中的多语言模板，没有对应语言时返回默认文本
+     */
+    public String getMessage(int index, Locale locale) {
+        return MessageTemplate.render(messages[index], locale);
+    }
+
+    public ValidationMessage getMessageRef(int index) {
+        return messages[index];
+    }
+
+    /**
+     * @return 只读的错误列表，元素在访问时创建
+     */
+    public List<ValidationError> getErrors() {
+        return new AbstractList<ValidationError>() {
+            @Override
+            public ValidationError get(int index) {
+                return new ValidationError(messages[index]);
+            }
+
+            @Override
+            public int size() {
+                return messages.length;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<ValidationError> iterator() {
+        return getErrors().iterator();
+    }
+
+    /**
+     * @return 与ValidatorManager.validate相同形式的结果
+     */
+    public Set<ValidationMessage> toValidationMessages() {
+        return new LinkedHashSet<>(Arrays.asList(messages));
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ValidationReport{valid}" : "ValidationReport" + Arrays.toString(messages);
+    }
+}
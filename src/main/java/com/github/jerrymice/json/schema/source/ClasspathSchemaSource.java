@@ -0,0 +1,40 @@
+package com.github.jerrymice.json.schema.source;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * classpath中的schema文件
+ */
+public class ClasspathSchemaSource implements SchemaSource {
+    private final String path;
+    private final Class<?> loader;
+
+    public ClasspathSchemaSource(String path) {
+        this(path, ClasspathSchemaSource.class);
+    }
+
+    /**
+     * @param path   与Class.getResourceAsStream的路径规则相同
+     * @param loader 用于加载资源的类
+     */
+    public ClasspathSchemaSource(String path, Class<?> loader) {
+        this.path = path;
+        this.loader = loader;
+    }
+
+    @Override
+    public String getName() {
+        return "classpath:" + path;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        InputStream in = path == null ? null : loader.getResourceAsStream(path);
+        if (in == null) {
+            throw new FileNotFoundException("schema file not found: " + path);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.jerrymice.json.schema.source;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * 文件系统中的schema文件，可以配合{@link com.github.jerrymice.json.schema.reload.SchemaReloader}热加载
+ */
+public class FileSchemaSource implements SchemaSource {
+    private final Path path;
+
+    public FileSchemaSource(Path path) {
+        this.path = path.toAbsolutePath();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + path;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        try {
+            return Files.newInputStream(path);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("schema file not found: " + path);
+        }
+    }
+}
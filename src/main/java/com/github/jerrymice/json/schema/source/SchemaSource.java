@@ -0,0 +1,22 @@
+package com.github.jerrymice.json.schema.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * schema文件的来源
+ */
+public interface SchemaSource {
+    /**
+     * @return 用于日志和错误信息的名称
+     */
+    String getName();
+
+    /**
+     * 打开schema内容，由调用方关闭
+     *
+     * @return
+     * @throws IOException 不存在时抛出FileNotFoundException
+     */
+    InputStream open() throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.github.jerrymice.json.schema.stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Set;
+
+/**
+ * 流式验证中每个数组元素验证完成后的回调
+ */
+@FunctionalInterface
+public interface ArrayItemListener {
+    /**
+     * @param index              元素在数组中的下标
+     * @param item               元素，回调结束后不再被引用
+     * @param validationMessages 验证失败信息，验证通过时为空
+     * @return 返回false时停止读取剩余的元素
+     */
+    boolean onItem(int index, JsonNode item, Set<ValidationMessage> validationMessages);
+}
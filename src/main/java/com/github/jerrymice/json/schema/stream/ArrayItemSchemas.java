@@ -0,0 +1,71 @@
+package com.github.jerrymice.json.schema.stream;
+
+import com.github.jerrymice.json.schema.keyword.Items202012Validator;
+import com.networknt.schema.ItemsValidator;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.PrefixItemsValidator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从根schema已经编译好的items/prefixItems验证器中取出每个下标的元素schema
+ */
+public final class ArrayItemSchemas {
+    /**
+     * 所有元素共用的schema
+     */
+    private final JsonSchema allItems;
+    /**
+     * prefixItems(旧版本为items)数组形式中按下标对应的schema
+     */
+    private final List<JsonSchema> tupleItems;
+    /**
+     * prefixItems为数组时剩余元素的schema
+     */
+    private final JsonSchema additionalItems;
+
+    private ArrayItemSchemas(JsonSchema allItems, List<JsonSchema> tupleItems, JsonSchema additionalItems) {
+        this.allItems = allItems;
+        this.tupleItems = tupleItems;
+        this.additionalItems = additionalItems;
+    }
+
+    public static ArrayItemSchemas of(JsonSchema rootSchema) {
+        JsonSchema allItems = null;
+        List<JsonSchema> tupleItems = Collections.emptyList();
+        JsonSchema additionalItems = null;
+        for (JsonValidator validator : rootSchema.getValidators().values()) {
+            if (validator instanceof PrefixItemsValidator) {
+                PrefixItemsValidator prefixItems = (PrefixItemsValidator) validator;
+                allItems = prefixItems.getSchema();
+                tupleItems = prefixItems.getTupleSchema();
+            } else if (validator instanceof ItemsValidator) {
+                ItemsValidator items = (ItemsValidator) validator;
+                allItems = items.getSchema();
+                tupleItems = items.getTupleSchema();
+            } else if (validator instanceof Items202012Validator) {
+                additionalItems = ((Items202012Validator) validator).getSchema();
+            }
+        }
+        if (allItems == null && tupleItems.isEmpty()) {
+            allItems = additionalItems;
+        }
+        return new ArrayItemSchemas(allItems, tupleItems, additionalItems);
+    }
+
+    /**
+     * @param index
+     * @return 下标对应的元素schema，没有约束时返回null
+     */
+    public JsonSchema schemaAt(int index) {
+        if (allItems != null) {
+            return allItems;
+        }
+        if (index < tupleItems.size()) {
+            return tupleItems.get(index);
+        }
+        return additionalItems;
+    }
+}
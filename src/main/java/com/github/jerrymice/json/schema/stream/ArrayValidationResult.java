@@ -0,0 +1,38 @@
+package com.github.jerrymice.json.schema.stream;
+
+/**
+ * 流式验证数组的汇总结果，每个元素的验证信息通过{@link ArrayItemListener}返回
+ */
+public final class ArrayValidationResult {
+    private final int itemCount;
+    private final int failureCount;
+    private final boolean stopped;
+
+    ArrayValidationResult(int itemCount, int failureCount, boolean stopped) {
+        this.itemCount = itemCount;
+        this.failureCount = failureCount;
+        this.stopped = stopped;
+    }
+
+    /**
+     * @return 已经读取并验证的元素数量
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return listener是否要求提前停止
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public boolean isValid() {
+        return failureCount == 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.jerrymice.json.schema.stream;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 流式验证顶层为数组的json。
+ * <p>
+ * 每次只把一个元素读取为JsonNode，按items/prefixItems对应的元素schema验证后交给listener，
+ * 内存占用取决于最大的单个元素而不是整个文件。
+ * 作用在整个数组上的关键字(minItems、maxItems、uniqueItems、contains等)不会验证
+ */
+public final class StreamingArrayValidator {
+
+    /**
+     * 单个元素的验证
+     */
+    @FunctionalInterface
+    public interface ItemValidation {
+        /**
+         * @param itemSchema 元素对应的schema
+         * @param item
+         * @param at         元素的路径，例如$[3]
+         * @return
+         * @throws Exception
+         */
+        Set<ValidationMessage> validate(JsonSchema itemSchema, JsonNode item, String at) throws Exception;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ArrayItemSchemas itemSchemas;
+
+    public StreamingArrayValidator(ObjectMapper objectMapper, JsonSchema rootSchema) {
+        this.objectMapper = objectMapper;
+        this.itemSchemas = ArrayItemSchemas.of(rootSchema);
+    }
+
+    public ArrayValidationResult validate(JsonParser parser, ItemValidation validation, ArrayItemListener listener) throws Exception {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "流式验证只支持顶层为数组的json，实际为:" + token);
+        }
+        int index = 0;
+        int failureCount = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == null) {
+                throw new JsonParseException(parser, "数组没有结束");
+            }
+            JsonNode item = objectMapper.readTree(parser);
+            if (item == null) {
+                item = NullNode.getInstance();
+            }
+            JsonSchema itemSchema = itemSchemas.schemaAt(index);
+            Set<ValidationMessage> messages = itemSchema == null ? Collections.emptySet()
+                    : validation.validate(itemSchema, item, "$[" + index + "]");
+            if (!messages.isEmpty()) {
+                failureCount++;
+            }
+            boolean next = listener.onItem(index++, item, messages);
+            if (!next) {
+                return new ArrayValidationResult(index, failureCount, true);
+            }
+        }
+        return new ArrayValidationResult(index, failureCount, false);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.jerrymice.json.schema.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 请求体已经被{@link RequestBodyValidationFilter}解析过时，直接把JsonNode转换为参数对象，不再解析json文本，
+ * 其它请求与MappingJackson2HttpMessageConverter相同。
+ * <p>
+ * 只用于读取请求体，不写响应，响应仍由原有的HttpMessageConverter输出；
+ * String、byte[]和Resource参数不读取，仍由排在Jackson前面的转换器处理
+ */
+public class ParsedBodyHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public ParsedBodyHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        InputStream body = inputMessage.getBody();
+        if (body instanceof ParsedBodyRequest.ParsedBodyInputStream) {
+            JsonNode jsonNode = ((ParsedBodyRequest.ParsedBodyInputStream) body).getJsonNode();
+            JavaType javaType = getJavaType(type, contextClass);
+            try {
+                return getObjectMapper().readerFor(javaType).readValue(jsonNode);
+            } catch (JsonProcessingException e) {
+                throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+            }
+        }
+        return super.read(type, contextClass, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return !isRawType(clazz) && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return !(type instanceof Class && isRawType((Class<?>) type)) && super.canRead(type, contextClass, mediaType);
+    }
+
+    private static boolean isRawType(Class<?> clazz) {
+        return String.class == clazz || byte[].class == clazz || Resource.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+}
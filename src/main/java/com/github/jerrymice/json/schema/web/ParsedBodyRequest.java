@@ -0,0 +1,124 @@
+package com.github.jerrymice.json.schema.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 请求体已经读取并解析过的请求。
+ * <p>
+ * getInputStream返回原始字节，不会再次读取网络；
+ * {@link ParsedBodyHttpMessageConverter}识别{@link ParsedBodyInputStream}后直接使用解析好的JsonNode绑定，不会再次解析
+ */
+public class ParsedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+    private final JsonNode jsonNode;
+
+    public ParsedBodyRequest(HttpServletRequest request, byte[] body, JsonNode jsonNode) {
+        super(request);
+        this.body = body;
+        this.jsonNode = jsonNode;
+    }
+
+    public JsonNode getJsonNode() {
+        return jsonNode;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new ParsedBodyInputStream(body, jsonNode);
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    /**
+     * 携带解析结果的请求体
+     */
+    public static class ParsedBodyInputStream extends ServletInputStream {
+        private final ByteArrayInputStream delegate;
+        private final JsonNode jsonNode;
+
+        ParsedBodyInputStream(byte[] body, JsonNode jsonNode) {
+            this.delegate = new ByteArrayInputStream(body);
+            this.jsonNode = jsonNode;
+        }
+
+        public JsonNode getJsonNode() {
+            return jsonNode;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                readListener.onDataAvailable();
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            return delegate.available();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            delegate.mark(readLimit);
+        }
+
+        @Override
+        public synchronized void reset() {
+            delegate.reset();
+        }
+    }
+}
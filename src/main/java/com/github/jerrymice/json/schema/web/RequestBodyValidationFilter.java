@@ -0,0 +1,208 @@
+package com.github.jerrymice.json.schema.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.report.ValidationReport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 在参数绑定前按路由验证json请求体。
+ * <p>
+ * 请求体只读取、解析一次，验证通过后以{@link ParsedBodyRequest}交给后续处理，
+ * 配合{@link ParsedBodyHttpMessageConverter}直接使用解析好的JsonNode绑定参数。
+ * 验证失败时返回400，响应体为{"status":400,"errors":[{"type","code","message","path"}]}，
+ * ValidatorManager开启rewriteErrorMessages时code和message为$error中定义的值，message按请求的Accept-Language选择语言，没有时使用默认文本。
+ * 请求体超过maxBodySize时不再读取，返回413
+ */
+public class RequestBodyValidationFilter extends OncePerRequestFilter {
+    public static final String INVALID_JSON_CODE = "INVALID_JSON";
+    public static final String BODY_TOO_LARGE_CODE = "BODY_TOO_LARGE";
+    public static final int DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final List<SchemaRoute> routes;
+    private final int maxBodySize;
+
+    public RequestBodyValidationFilter(ObjectMapper objectMapper, List<SchemaRoute> routes) {
+        this(objectMapper, routes, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * @param objectMapper
+     * @param routes
+     * @param maxBodySize  请求体的最大字节数
+     */
+    public RequestBodyValidationFilter(ObjectMapper objectMapper, List<SchemaRoute> routes, int maxBodySize) {
+        if (maxBodySize <= 0) {
+            throw new IllegalArgumentException("maxBodySize must be positive: " + maxBodySize);
+        }
+        this.objectMapper = objectMapper;
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+        this.maxBodySize = maxBodySize;
+    }
+
+    public List<SchemaRoute> getRoutes() {
+        return routes;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return findRoute(request) == null || !isJson(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SchemaRoute route = findRoute(request);
+        byte[] body = request.getContentLengthLong() > maxBodySize ? null : readBody(request.getInputStream());
+        if (body == null) {
+            writeErrorResponse(response, HttpStatus.PAYLOAD_TOO_LARGE, Collections.singletonList(
+                    error(null, BODY_TOO_LARGE_CODE, "request body exceeds " + maxBodySize + " bytes", "$")));
+            return;
+        }
+        if (body.length == 0) {
+            //没有请求体时交给后续处理判断是否必填
+            filterChain.doFilter(request, response);
+            return;
+        }
+        JsonNode jsonNode;
+        try {
+            jsonNode = objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            writeErrorResponse(response, Collections.singletonList(error(null, INVALID_JSON_CODE, e.getOriginalMessage(), "$")));
+            return;
+        }
+        ValidationReport report;
+        try {
+            report = route.getValidatorManager().report(jsonNode, request.getMethod() + " " + getPath(request));
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        if (!report.isValid()) {
+            //没有Accept-Language时getLocale返回服务器的默认locale，这里使用$error中的默认文本
+            Locale locale = request.getHeader(HttpHeaders.ACCEPT_LANGUAGE) == null ? null : request.getLocale();
+            List<ObjectNode> errors = new ArrayList<>(report.size());
+            for (int i = 0; i < report.size(); i++) {
+                errors.add(error(report.getKeyword(i), report.getCode(i), report.getMessage(i, locale), report.getPath(i)));
+            }
+            writeErrorResponse(response, errors);
+            return;
+        }
+        filterChain.doFilter(new ParsedBodyRequest(request, body, jsonNode), response);
+    }
+
+    /**
+     * 读取请求体，超过maxBodySize时返回null
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBodySize) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 输出验证失败的响应，子类可以覆盖以使用自定义的格式
+     *
+     * @param response
+     * @param errors
+     * @throws IOException
+     */
+    protected void writeErrorResponse(HttpServletResponse response, List<ObjectNode> errors) throws IOException {
+        writeErrorResponse(response, HttpStatus.BAD_REQUEST, errors);
+    }
+
+    /**
+     * 按指定的状态码输出错误响应
+     *
+     * @param response
+     * @param status
+     * @param errors
+     * @throws IOException
+     */
+    protected void writeErrorResponse(HttpServletResponse response, HttpStatus status, List<ObjectNode> errors) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("status", status.value());
+        ArrayNode array = root.putArray("errors");
+        array.addAll(errors);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), root);
+    }
+
+    private ObjectNode error(String type, String code, String message, String path) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("type", type);
+        error.put("code", code);
+        error.put("message", message);
+        error.put("path", path);
+        return error;
+    }
+
+    private SchemaRoute findRoute(HttpServletRequest request) {
+        String path = getPath(request);
+        for (SchemaRoute route : routes) {
+            if (route.matches(request.getMethod(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String getPath(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)
+                ? uri.substring(contextPath.length()) : uri;
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.includes(mediaType) || mediaType.getSubtype().endsWith("+json");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
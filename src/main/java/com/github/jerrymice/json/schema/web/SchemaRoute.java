@@ -0,0 +1,59 @@
+package com.github.jerrymice.json.schema.web;
+
+import com.github.jerrymice.json.schema.ValidatorManager;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 请求路径与验证请求体的ValidatorManager的对应关系
+ */
+public class SchemaRoute {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String pattern;
+    private final Set<String> methods;
+    private final ValidatorManager validatorManager;
+
+    /**
+     * @param pattern          ant风格的路径，例如/orders/**
+     * @param methods          为空时匹配POST、PUT、PATCH
+     * @param validatorManager
+     */
+    public SchemaRoute(String pattern, Collection<String> methods, ValidatorManager validatorManager) {
+        this.pattern = pattern;
+        Set<String> upperCase = new TreeSet<>();
+        if (methods == null || methods.isEmpty()) {
+            Collections.addAll(upperCase, "POST", "PUT", "PATCH");
+        } else {
+            methods.forEach(method -> upperCase.add(method.toUpperCase(Locale.ROOT)));
+        }
+        this.methods = Collections.unmodifiableSet(upperCase);
+        this.validatorManager = validatorManager;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public ValidatorManager getValidatorManager() {
+        return validatorManager;
+    }
+
+    /**
+     * @param method
+     * @param path   不包括context path的请求路径
+     * @return
+     */
+    public boolean matches(String method, String path) {
+        return methods.contains(method) && PATH_MATCHER.match(pattern, path);
+    }
+}
@@ -0,0 +1,53 @@
+package com.networknt.schema;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+
+/**
+ * 使用$error模板重写后的验证消息，message为未格式化的默认模板文本，模板保存在消息自己的字段中，不参与序列化。
+ * <p>
+ * ValidationMessage的构造方法和setter只在本包中可见，所以放在这个包中
+ */
+public class TemplatedValidationMessage extends ValidationMessage {
+    private final MessageTemplate template;
+
+    private TemplatedValidationMessage(MessageTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * @param message  原始消息
+     * @param code     新的CODE码
+     * @param template
+     * @return 除code和message外与原始消息相同
+     */
+    public static TemplatedValidationMessage of(ValidationMessage message, String code, MessageTemplate template) {
+        TemplatedValidationMessage rewritten = new TemplatedValidationMessage(template);
+        rewritten.setType(message.getType());
+        rewritten.setCode(code);
+        rewritten.setPath(message.getPath());
+        rewritten.setSchemaPath(message.getSchemaPath());
+        rewritten.setArguments(message.getArguments());
+        rewritten.setDetails(message.getDetails());
+        rewritten.setMessage(template.getText());
+        return rewritten;
+    }
+
+    @JsonIgnore
+    public MessageTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * 模板是驻留的，按引用比较
+     */
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && template == ((TemplatedValidationMessage) o).template;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
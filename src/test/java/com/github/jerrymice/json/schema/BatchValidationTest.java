@@ -0,0 +1,135 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jerrymice.json.schema.batch.BatchOptions;
+import com.github.jerrymice.json.schema.batch.BatchResult;
+import com.github.jerrymice.json.schema.batch.ItemResult;
+import com.github.jerrymice.json.schema.model.Customer;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.github.jerrymice.json.schema.observer.ValidationObserver;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+public class BatchValidationTest {
+    private static final int SIZE = 1000;
+    private ValidatorManager validatorManager;
+
+    @Before
+    public void init() throws Exception {
+        validatorManager = new ValidatorManager("/CustMetaSchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    /**
+     * 下标为10的倍数的数据age无效
+     *
+     * @param i
+     * @return
+     */
+    private Customer customer(int i) {
+        int age = i % 10 == 0 ? -2 : 20;
+        return Customer.builder().name("涂铭鉴").age(age).sex(true).marriage(0).build();
+    }
+
+    private List<Customer> customers() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            customers.add(customer(i));
+        }
+        return customers;
+    }
+
+    @Test
+    public void orderedResults() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            BatchResult result = validatorManager.validateAll(customers(), new BatchOptions().setExecutor(executor));
+            Assert.assertEquals(SIZE, result.getResults().size());
+            Assert.assertEquals(SIZE / 10, result.getFailureCount());
+            Assert.assertFalse(result.isStopped());
+            for (int i = 0; i < SIZE; i++) {
+                ItemResult item = result.getResults().get(i);
+                Assert.assertEquals(i, item.getIndex());
+                Assert.assertEquals(i % 10 != 0, item.isValid());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void stream() throws Exception {
+        BatchResult result = validatorManager.validateAll(IntStream.range(0, SIZE).mapToObj(this::customer));
+        Assert.assertEquals(SIZE, result.getResults().size());
+        Assert.assertEquals(SIZE / 10, result.getFailureCount());
+    }
+
+    /**
+     * 失败数量达到上限后不再提交新的数据
+     *
+     * @throws Exception
+     */
+    @Test
+    public void stopAfterFailures() throws Exception {
+        BatchOptions options = new BatchOptions().setExecutor(Runnable::run).setStopAfterFailures(3);
+        BatchResult result = validatorManager.validateAll(customers(), options);
+        Assert.assertTrue(result.isStopped());
+        Assert.assertEquals(3, result.getFailureCount());
+        Assert.assertEquals(21, result.getResults().size());
+    }
+
+    /**
+     * 同时执行的验证数量不超过maxInFlight
+     *
+     * @throws Exception
+     */
+    @Test
+    public void boundedInFlight() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        validatorManager.setValidationObserver(new ValidationObserver() {
+            @Override
+            public void onSuccess(String title, JsonNode node) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                LockSupport.parkNanos(100_000);
+                running.decrementAndGet();
+            }
+
+            @Override
+            public void onFailure(String title, JsonNode node, Set<ValidationMessage> messages) {
+                onSuccess(title, node);
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            BatchOptions options = new BatchOptions().setMaxInFlight(2).setExecutor(executor);
+            BatchResult result = validatorManager.validateAll(customers(), options);
+            Assert.assertEquals(SIZE, result.getResults().size());
+            Assert.assertTrue(maxRunning.get() <= 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void conversionFailure() throws Exception {
+        List<Object> items = new ArrayList<>();
+        items.add(customer(1));
+        items.add("{not json".getBytes());
+        BatchResult result = validatorManager.validateAll(items, new BatchOptions().setWalk(true));
+        Assert.assertTrue(result.getResults().get(0).isValid());
+        Assert.assertNotNull(result.getResults().get(1).getException());
+        Assert.assertEquals(1, result.getFailureCount());
+    }
+}
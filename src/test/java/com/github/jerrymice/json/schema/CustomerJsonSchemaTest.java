@@ -9,6 +9,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -284,4 +285,21 @@ public class CustomerJsonSchemaTest {
         Assert.assertEquals(result.size(),1);
     }
 
+    /**
+     * 验证原始json字节与javabean的结果一致
+     *
+     * @throws Exception
+     */
+    @Test
+    public void validateRawJsonBytes() throws Exception {
+        Customer customer = Customer.builder().name("杨幂").age(19).sex(false).marriage(1)
+                .mate(Mate.builder().age(22).name("涂铭鉴").sex(true).build()).build();
+        byte[] json = validatorManager.getObjectMapper().writeValueAsBytes(customer);
+        Set<ValidationMessage> beanResult = validate(customer, "验证javabean");
+        Set<ValidationMessage> bytesResult = validate(json, "验证json字节");
+        Set<ValidationMessage> streamResult = validate(new ByteArrayInputStream(json), "验证json流");
+        Assert.assertEquals(beanResult, bytesResult);
+        Assert.assertEquals(beanResult, streamResult);
+    }
+
 }
@@ -0,0 +1,120 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.index.RewritePlan;
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.MessageFormat;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ErrorMessageRewriteWalkListenerTest {
+
+    private ValidationMessage raw(String path, String schemaPath, String argument) {
+        return ValidationMessage.of(ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED,
+                path, schemaPath, argument);
+    }
+
+    private ValidationMessage rewritten(ValidationMessage message, String code, String text) {
+        return new ValidationMessage.Builder()
+                .type(message.getType())
+                .path(message.getPath())
+                .code(code)
+                .arguments(message.getArguments())
+                .schemaPath(message.getSchemaPath())
+                .customMessage(text)
+                .format(new MessageFormat("")).build();
+    }
+
+    /**
+     * 已经存在重写消息时，重写不了的原始消息在listener中直接丢弃
+     */
+    @Test
+    public void dropRawDuplicateAtRewrite() {
+        ValidationMessage name = raw("$", "#/required", "name");
+        ValidationMessage sex = raw("$", "#/required", "sex");
+        Set<ValidationMessage> messages = new HashSet<>();
+        messages.add(name);
+        messages.add(rewritten(name, "10001", "名字不能为空"));
+        messages.add(sex);
+        //不重写任何消息
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener((walkEvent, source) -> source);
+        listener.onWalkEnd(null, messages);
+        Assert.assertEquals(2, messages.size());
+        Assert.assertFalse(messages.contains(name));
+        Assert.assertTrue(messages.contains(sex));
+    }
+
+    /**
+     * 重写后与已有的重写消息相同时合并为一条
+     */
+    @Test
+    public void mergeSameRewrite() {
+        ValidationMessage name = raw("$", "#/required", "name");
+        Set<ValidationMessage> messages = new HashSet<>();
+        messages.add(name);
+        messages.add(rewritten(name, "10001", "名字不能为空"));
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener(
+                (walkEvent, source) -> rewritten(source, "10001", "名字不能为空"));
+        listener.onWalkEnd(null, messages);
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("10001", messages.iterator().next().getCode());
+    }
+
+    @Test
+    public void messageKey() {
+        ValidationMessage name = raw("$", "#/required", "name");
+        Assert.assertTrue(MessageKey.isRaw(name));
+        Assert.assertFalse(MessageKey.isRaw(rewritten(name, "10001", "名字不能为空")));
+        Assert.assertEquals(MessageKey.of(name), MessageKey.of(rewritten(name, "10001", "名字不能为空")));
+        Assert.assertNotEquals(MessageKey.of(name), MessageKey.of(raw("$", "#/required", "sex")));
+    }
+
+    /**
+     * 没有被重写的消息保持不变，不会替换集合中的元素
+     */
+    @Test
+    public void keepUnchangedMessages() {
+        ValidationMessage name = raw("$", "#/required", "name");
+        ValidationMessage sex = raw("$", "#/required", "sex");
+        Set<ValidationMessage> messages = new HashSet<>();
+        messages.add(name);
+        messages.add(sex);
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener(
+                (walkEvent, source) -> source == sex ? rewritten(source, "10003", "性别不能为空") : source);
+        listener.onWalkEnd(null, messages);
+        Assert.assertEquals(2, messages.size());
+        Assert.assertTrue(messages.stream().anyMatch(message -> message == name));
+        Assert.assertFalse(messages.contains(sex));
+    }
+
+    /**
+     * 同一个schema节点的重写计划只创建一次，根节点只查找一次
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rewritePlanOncePerSchemaNode() throws Exception {
+        JsonNode root = new ObjectMapper().readTree("{\"properties\":{\"name\":{\"type\":\"string\","
+                + "\"$error\":{\"type\":{\"code\":\"10002\",\"message\":\"名字必须是字符串\"}}}}}");
+        JsonNode name = root.get("properties").get("name");
+        AtomicInteger lookups = new AtomicInteger();
+        RewritePlan plan = RewritePlan.forSchemaNode(name, () -> {
+            lookups.incrementAndGet();
+            return root;
+        });
+        Assert.assertSame(plan, RewritePlan.forSchemaNode(name, () -> {
+            lookups.incrementAndGet();
+            return root;
+        }));
+        Assert.assertEquals(1, lookups.get());
+        Assert.assertEquals("10002", plan.findExplicit("type").getCode());
+        Assert.assertNull(plan.findExplicit("minLength"));
+    }
+}
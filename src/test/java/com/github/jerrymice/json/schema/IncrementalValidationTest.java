@@ -0,0 +1,168 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.incremental.IncrementalResult;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class IncrementalValidationTest {
+    private ValidatorManager validatorManager;
+    private ObjectNode document;
+
+    @Before
+    public void init() throws Exception {
+        validatorManager = new ValidatorManager();
+        validatorManager.setSchemaFilePath("/IncrementalSchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        validatorManager.initJsonSchema();
+
+        document = validatorManager.getObjectMapper().createObjectNode();
+        document.put("name", "gateway");
+        document.putObject("server").put("host", "localhost").put("port", 8080);
+        ArrayNode modules = document.putArray("modules");
+        for (int i = 0; i < 100; i++) {
+            ObjectNode module = modules.addObject().put("id", "module");
+            module.putObject("options").put("level", i);
+        }
+    }
+
+    private Set<String> keys(Set<ValidationMessage> messages) {
+        Set<String> keys = new TreeSet<>();
+        for (ValidationMessage message : messages) {
+            keys.add(message.getPath() + "|" + message.getType() + "|" + message.getCode() + "|" + message.getMessage());
+        }
+        return keys;
+    }
+
+    /**
+     * 每次修改后与完整验证的结果相同
+     *
+     * @param previous
+     * @param pointers
+     * @return
+     * @throws Exception
+     */
+    private IncrementalResult revalidate(IncrementalResult previous, String... pointers) throws Exception {
+        IncrementalResult result = validatorManager.revalidate(previous, document, Arrays.asList(pointers), "patch");
+        Assert.assertEquals(keys(validatorManager.report(document, "full").toValidationMessages()),
+                keys(result.getValidationMessages()));
+        return result;
+    }
+
+    /**
+     * 深层节点修改时只验证父节点自身的关键字和被修改的节点，父节点为数组时验证整个数组
+     *
+     * @throws Exception
+     */
+    @Test
+    public void onlyAffectedSubschemas() throws Exception {
+        IncrementalResult result = validatorManager.validateIncremental(document, "init");
+        Assert.assertTrue(result.isValid());
+        Assert.assertTrue(result.isFull());
+
+        ((ObjectNode) document.at("/modules/42/options")).put("level", -1);
+        result = revalidate(result, "/modules/42/options/level");
+        Assert.assertFalse(result.isFull());
+        Assert.assertEquals(Arrays.asList("$.modules[42].options", "$.modules[42].options.level"), result.getEvaluatedPaths());
+        Assert.assertEquals("$.modules[42].options.level", result.getValidationMessages().iterator().next().getPath());
+
+        ((ObjectNode) document.at("/modules/7")).remove("id");
+        result = revalidate(result, "/modules/7/id");
+        Assert.assertEquals(2, result.getValidationMessages().size());
+
+        ((ObjectNode) document.at("/modules/42/options")).put("level", 3);
+        ((ObjectNode) document.at("/modules/7")).put("id", "core");
+        result = revalidate(result, "/modules/42/options/level", "/modules/7/id");
+        Assert.assertTrue(result.isValid());
+
+        ((ArrayNode) document.get("modules")).remove(0);
+        ((ArrayNode) document.get("modules")).addObject().put("id", "X");
+        result = revalidate(result, "/modules/0", "/modules/99");
+        Assert.assertEquals(Collections.singletonList("$.modules"), result.getEvaluatedPaths());
+        Assert.assertEquals(1, result.getValidationMessages().size());
+    }
+
+    /**
+     * 父节点上的if/then/else依赖子节点的值，从父节点开始完整验证；删除属性时只重新执行父节点自身的required
+     *
+     * @throws Exception
+     */
+    @Test
+    public void dependentParentKeywords() throws Exception {
+        IncrementalResult result = validatorManager.validateIncremental(document, "init");
+        ObjectNode server = (ObjectNode) document.get("server");
+
+        server.put("tls", true);
+        result = revalidate(result, "/server/tls");
+        Assert.assertEquals(Collections.singletonList("$.server"), result.getEvaluatedPaths());
+        Assert.assertEquals(1, result.getValidationMessages().size());
+
+        server.put("cert", "/etc/cert.pem");
+        server.put("timeout", 10);
+        result = revalidate(result, "/server/cert", "/server/timeout");
+        Assert.assertEquals("additionalProperties", result.getValidationMessages().iterator().next().getType());
+
+        server.remove("timeout");
+        document.remove("name");
+        result = revalidate(result, "/server/timeout", "/name");
+        Assert.assertFalse(result.isFull());
+        Assert.assertEquals(Arrays.asList("$.server", "$"), result.getEvaluatedPaths());
+        Assert.assertEquals("required", result.getValidationMessages().iterator().next().getType());
+    }
+
+    /**
+     * 属性名中包含.时，$.server.port既可能是server下的port也可能是属性server.port，不能按路径文本归属消息
+     *
+     * @throws Exception
+     */
+    @Test
+    public void dottedPropertyName() throws Exception {
+        ((ObjectNode) document.get("server")).put("port", 70000);
+        IncrementalResult result = validatorManager.validateIncremental(document, "init");
+        Assert.assertEquals("$.server.port", result.getValidationMessages().iterator().next().getPath());
+
+        document.put("server.port", "x");
+        result = revalidate(result, "/server.port");
+        Assert.assertEquals(1, result.getValidationMessages().size());
+        Assert.assertEquals("maximum", result.getValidationMessages().iterator().next().getType());
+
+        ((ObjectNode) document.get("server")).put("port", 8080);
+        result = revalidate(result, "/server/port");
+        Assert.assertTrue(result.isValid());
+    }
+
+    /**
+     * 开启重写时被修改的节点通过walk重写消息；schema重新加载后完整验证
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rewriteAndReload() throws Exception {
+        validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaFilePath("/IncrementalSchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        IncrementalResult result = validatorManager.validateIncremental(document, "init");
+
+        document.put("name", "g");
+        ((ObjectNode) document.at("/modules/5")).remove("id");
+        result = revalidate(result, "/name", "/modules/5/id");
+        Assert.assertFalse(result.isFull());
+        Assert.assertEquals(2, result.getValidationMessages().size());
+        Assert.assertTrue(keys(result.getValidationMessages()).contains("$.name|minLength|20001|名称至少两个字符"));
+
+        validatorManager.setJsonSchema(validatorManager.getJsonSchema());
+        IncrementalResult reloaded = validatorManager.revalidate(result, document, Collections.singletonList("/name"), "reload");
+        Assert.assertTrue(reloaded.isFull());
+        Assert.assertEquals(keys(result.getValidationMessages()), keys(reloaded.getValidationMessages()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ItemsKeywordTest {
+    private static final String SCHEMA = "{\"$schema\":\"https://json-schema.org/draft/2020-12-ext-v1/schema#\","
+            + "\"properties\":{\"d\":{\"type\":\"array\",\"items\":{\"type\":\"integer\"}},"
+            + "\"t\":{\"type\":\"array\",\"prefixItems\":[{\"type\":\"string\"}],\"items\":{\"type\":\"integer\"}}}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Set<String> paths(Set<ValidationMessage> messages) {
+        Set<String> paths = new TreeSet<>();
+        for (ValidationMessage message : messages) {
+            paths.add(message.getPath() + "|" + message.getType());
+        }
+        return paths;
+    }
+
+    /**
+     * validate与walk的结果相同
+     *
+     * @param data
+     * @return
+     * @throws Exception
+     */
+    private Set<String> check(String data) throws Exception {
+        JsonSchema jsonSchema = SchemaManager.getSchema(objectMapper.readTree(SCHEMA), new SchemaValidatorsConfig());
+        JsonNode node = objectMapper.readTree(data);
+        Set<String> validated = paths(jsonSchema.validate(node));
+        Assert.assertEquals(validated, paths(jsonSchema.walk(node, true).getValidationMessages()));
+        return validated;
+    }
+
+    /**
+     * items为schema时验证每个元素
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itemsSchema() throws Exception {
+        Assert.assertTrue(check("{\"d\":[1,2,3]}").isEmpty());
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("$.d[1]|type", "$.d[2]|type")),
+                check("{\"d\":[1,\"a\",true]}"));
+    }
+
+    /**
+     * 不是数组时只报告type错误，不把值当作数组元素验证
+     *
+     * @throws Exception
+     */
+    @Test
+    public void notArray() throws Exception {
+        Assert.assertEquals(Collections.singleton("$.d|type"), check("{\"d\":\"abc\"}"));
+    }
+
+    /**
+     * prefixItems为数组时items只验证剩余元素
+     *
+     * @throws Exception
+     */
+    @Test
+    public void withPrefixItems() throws Exception {
+        Assert.assertTrue(check("{\"t\":[\"a\",1,2]}").isEmpty());
+        Assert.assertEquals(Collections.singleton("$.t[2]|type"), check("{\"t\":[\"a\",1,\"b\"]}"));
+        Assert.assertEquals(Collections.singleton("$.t[0]|type"), check("{\"t\":[1]}"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.autoconfigure.SchemaWarmup;
+import com.github.jerrymice.json.schema.autoconfigure.ValidatorManagers;
+import com.github.jerrymice.json.schema.mode.ValidationMode;
+import com.github.jerrymice.json.schema.model.Customer;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class JsonSchemaValidatorAutoConfigurationTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    static class TestApplication {
+    }
+
+    private final List<AvailabilityChangeEvent<?>> readinessEvents = new CopyOnWriteArrayList<>();
+
+    private ConfigurableApplicationContext run(String... properties) {
+        return new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .listeners((ApplicationListener<AvailabilityChangeEvent<?>>) event -> {
+                    if (event.getState() instanceof ReadinessState) {
+                        readinessEvents.add(event);
+                    }
+                })
+                .run();
+    }
+
+    @Test
+    public void validatorsFromProperties() throws Exception {
+        try (ConfigurableApplicationContext context = run(
+                "json.schema.registry.locations=classpath:registry",
+                "json.schema.validators.customer.schema=classpath:/CustMetaSchema.json",
+                "json.schema.validators.order.schema-id=https://www.example.com/json/schema/order/2",
+                "json.schema.validators.order.rewrite-error-messages=true",
+                "json.schema.warmup.iterations=5")) {
+            Assert.assertEquals(3, context.getBean(SchemaRegistry.class).getEntries().size());
+            ValidatorManagers managers = context.getBean(ValidatorManagers.class);
+            ValidatorManager customer = managers.get("customer");
+            Assert.assertTrue(customer.validate(Customer.builder().name("涂铭鉴").age(20).sex(true).marriage(0).build(), "customer").isEmpty());
+            Assert.assertFalse(managers.get("order").validate(customer.getObjectMapper().readTree("{\"id\":\"1\"}"), "order").isEmpty());
+            //按自己的配置副本编译，注册中心的配置上没有listener，ValidationMode可以提前结束
+            SchemaRegistry registry = context.getBean(SchemaRegistry.class);
+            Assert.assertNotSame(registry.getSchema("https://www.example.com/json/schema/order/2"), managers.get("order").getJsonSchema());
+            Assert.assertTrue(registry.getSchemaValidatorsConfig().getKeywordWalkListenersMap().isEmpty());
+            Assert.assertEquals(1, managers.get("order").validate(customer.getObjectMapper().readTree("{\"id\":1}"),
+                    "order", ValidationMode.BOOLEAN).size());
+            //预热开始时拒绝请求，启动完成后由Spring Boot发布ACCEPTING_TRAFFIC
+            Assert.assertTrue(context.getBean(SchemaWarmup.class).isWarmedUp());
+            Assert.assertEquals(ReadinessState.REFUSING_TRAFFIC, readinessEvents.get(0).getState());
+            Assert.assertTrue(readinessEvents.get(0).getSource() instanceof SchemaWarmup);
+            for (AvailabilityChangeEvent<?> event : readinessEvents) {
+                Assert.assertFalse(event.getState() == ReadinessState.ACCEPTING_TRAFFIC && event.getSource() instanceof SchemaWarmup);
+            }
+            Assert.assertEquals(ReadinessState.ACCEPTING_TRAFFIC, context.getBean(ApplicationAvailability.class).getReadinessState());
+        }
+    }
+
+    @Test
+    public void disabled() {
+        try (ConfigurableApplicationContext context = run("json.schema.enabled=false")) {
+            Assert.assertTrue(context.getBeansOfType(ValidatorManagers.class).isEmpty());
+        }
+    }
+
+    @Test
+    public void schemaOrSchemaIdRequired() {
+        Assert.assertThrows(Exception.class, () -> run("json.schema.validators.broken.rewrite-error-messages=true").close());
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.github.jerrymice.json.schema.profile.KeywordProfiler;
+import com.github.jerrymice.json.schema.profile.KeywordProfilerListener;
+import com.github.jerrymice.json.schema.profile.KeywordStats;
+import com.networknt.schema.ValidatorTypeCode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class KeywordProfilerTest {
+    private ValidatorManager validatorManager;
+
+    @Before
+    public void init() throws Exception {
+        validatorManager = new ValidatorManager("/ErrorMessageSchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    private CustomerExt customer() {
+        return CustomerExt.builder().name("涂").work(1).city("成都").sex(true).age(20).build();
+    }
+
+    @Test
+    public void profileEveryWalk() throws Exception {
+        KeywordProfiler profiler = new KeywordProfiler(1);
+        validatorManager.setKeywordProfiler(profiler);
+        for (int i = 0; i < 3; i++) {
+            validatorManager.walk(customer(), "profile", true);
+        }
+        List<KeywordStats> top = profiler.top(100);
+        List<String> locations = top.stream().map(KeywordStats::getLocation).collect(Collectors.toList());
+        Assert.assertTrue(locations.toString(), locations.contains("#/properties/name/minLength"));
+        Assert.assertTrue(locations.contains("#/properties"));
+        for (KeywordStats stats : top) {
+            Assert.assertEquals(stats.getLocation(), 3, stats.getCount());
+            Assert.assertTrue(stats.getSelfNanos() <= stats.getTotalNanos());
+        }
+        //子schema的关键字在properties的栈下
+        Assert.assertTrue(profiler.toFoldedStacks(), profiler.toFoldedStacks()
+                .contains("#/properties;#/properties/name/minLength "));
+        Assert.assertEquals(2, profiler.top(2).size());
+    }
+
+    /**
+     * 没有抽中的walk和validate都不计时
+     *
+     * @throws Exception
+     */
+    @Test
+    public void notSampled() throws Exception {
+        KeywordProfiler profiler = new KeywordProfiler(0);
+        validatorManager.setKeywordProfiler(profiler);
+        validatorManager.walk(customer(), "skip", true);
+        Assert.assertTrue(profiler.top(10).isEmpty());
+        validatorManager.setKeywordProfiler(new KeywordProfiler(1));
+        validatorManager.validate(customer(), "validate");
+        Assert.assertTrue(validatorManager.getKeywordProfiler().top(10).isEmpty());
+    }
+
+    /**
+     * 多次更换profiler不会在配置上重复注册listener
+     *
+     * @throws Exception
+     */
+    @Test
+    public void swapProfiler() throws Exception {
+        KeywordProfiler first = new KeywordProfiler(1);
+        validatorManager.setKeywordProfiler(first);
+        int registered = validatorManager.getSchemaValidatorsConfig().getKeywordWalkListenersMap().get("minLength").size();
+        validatorManager.setKeywordProfiler(new KeywordProfiler(1));
+        validatorManager.walk(customer(), "swap", true);
+        Assert.assertTrue(first.top(10).isEmpty());
+        Assert.assertFalse(validatorManager.getKeywordProfiler().top(10).isEmpty());
+        Assert.assertEquals(registered, validatorManager.getSchemaValidatorsConfig().getKeywordWalkListenersMap().get("minLength").size());
+    }
+
+    /**
+     * 没有profiler时不注册转发listener，开启和关闭时重新编译
+     *
+     * @throws Exception
+     */
+    @Test
+    public void registerOnlyWithProfiler() throws Exception {
+        Assert.assertEquals(0, countProfilerListeners());
+        long version = validatorManager.getCompiledSchema().getVersion();
+        KeywordProfiler profiler = new KeywordProfiler(1);
+        validatorManager.setKeywordProfiler(profiler);
+        Assert.assertEquals(ValidatorTypeCode.values().length, countProfilerListeners());
+        Assert.assertEquals(version + 1, validatorManager.getCompiledSchema().getVersion());
+        validatorManager.walk(customer(), "profile", true);
+        Assert.assertFalse(profiler.top(10).isEmpty());
+        validatorManager.setKeywordProfiler(null);
+        Assert.assertEquals(0, countProfilerListeners());
+        validatorManager.reload();
+        Assert.assertEquals(0, countProfilerListeners());
+    }
+
+    private long countProfilerListeners() {
+        return validatorManager.getSchemaValidatorsConfig().getKeywordWalkListenersMap().values().stream()
+                .flatMap(List::stream).filter(KeywordProfilerListener.class::isInstance).count();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSampleRate() {
+        new KeywordProfiler(1.5);
+    }
+}
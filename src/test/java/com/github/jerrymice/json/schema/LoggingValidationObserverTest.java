@@ -0,0 +1,119 @@
+package com.github.jerrymice.json.schema;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.observer.JsonPayload;
+import com.github.jerrymice.json.schema.observer.LoggingValidationObserver;
+import com.networknt.schema.ValidationMessage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.text.MessageFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class LoggingValidationObserverTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingValidationObserver.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Level level;
+
+    @Before
+    public void init() {
+        level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void destroy() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    private Set<ValidationMessage> messages(int count) {
+        Set<ValidationMessage> messages = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(new ValidationMessage.Builder().type("type").code("100" + i).path("$.a" + i)
+                    .customMessage("message" + i).format(new MessageFormat("")).build());
+        }
+        return messages;
+    }
+
+    /**
+     * 默认不输出成功日志，设置successSampleRate后每N次输出一次
+     */
+    @Test
+    public void successSampling() {
+        LoggingValidationObserver observer = new LoggingValidationObserver();
+        ObjectNode node = objectMapper.createObjectNode().put("name", "涂铭鉴");
+        observer.onSuccess("customer", node);
+        Assert.assertTrue(appender.list.isEmpty());
+
+        observer.setSuccessSampleRate(3);
+        for (int i = 0; i < 7; i++) {
+            observer.onSuccess("customer", node);
+        }
+        Assert.assertEquals(3, appender.list.size());
+        Assert.assertEquals(Level.INFO, appender.list.get(0).getLevel());
+        Assert.assertEquals("customer 验证 成功, data:{\"name\":\"涂铭鉴\"}", appender.list.get(0).getFormattedMessage());
+    }
+
+    /**
+     * 失败日志最多输出maxMessages条错误信息，其余只输出数量
+     */
+    @Test
+    public void maxMessages() {
+        LoggingValidationObserver observer = new LoggingValidationObserver();
+        observer.setMaxMessages(2);
+        observer.onFailure("customer", objectMapper.createObjectNode(), messages(5));
+        Assert.assertEquals(1, appender.list.size());
+        Assert.assertEquals(Level.WARN, appender.list.get(0).getLevel());
+        Assert.assertEquals("customer 验证 失败, messages:[1000 message0, 1001 message1, ...(3 more)], data:{}",
+                appender.list.get(0).getFormattedMessage());
+    }
+
+    /**
+     * 超过maxLength时在限制处截断，不再序列化剩余部分
+     */
+    @Test
+    public void payloadTruncated() {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (int i = 0; i < 10000; i++) {
+            array.addObject().put("id", i);
+        }
+        String rendered = new JsonPayload(array, 32).toString();
+        Assert.assertEquals("[{\"id\":0},{\"id\":1},{\"id\":2},{\"id...(truncated)", rendered);
+        Assert.assertEquals(array.toString(), new JsonPayload(array, Integer.MAX_VALUE).toString());
+        Assert.assertEquals("{}", new JsonPayload(objectMapper.createObjectNode(), 2).toString());
+        Assert.assertEquals("...(truncated)", new JsonPayload(objectMapper.createObjectNode(), 0).toString());
+        Assert.assertEquals("null", new JsonPayload(null, 10).toString());
+    }
+
+    /**
+     * 默认延迟渲染，日志参数为payload对象；开启asyncAppender时在调用线程中渲染，之后修改数据不影响日志
+     */
+    @Test
+    public void asyncPreRender() {
+        LoggingValidationObserver observer = new LoggingValidationObserver();
+        ObjectNode node = objectMapper.createObjectNode().put("age", 1);
+        observer.onFailure("customer", node, messages(1));
+        Assert.assertTrue(appender.list.get(0).getArgumentArray()[2] instanceof JsonPayload);
+
+        observer.setAsyncAppender(true);
+        observer.onFailure("customer", node, messages(1));
+        node.put("age", 2);
+        Object[] arguments = appender.list.get(1).getArgumentArray();
+        Assert.assertTrue(arguments[1] instanceof String);
+        Assert.assertEquals("{\"age\":1}", arguments[2]);
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.index.MessageTemplate;
+import com.github.jerrymice.json.schema.report.ValidationReport;
+import com.github.jerrymice.json.schema.source.FileSchemaSource;
+import com.networknt.schema.TemplatedValidationMessage;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+public class MessageTemplateTest {
+    private static final String SCHEMA = "{\"$id\":\"https://www.example.com/json/schema/template\","
+            + "\"$schema\":\"https://json-schema.org/draft/2020-12-ext-v1/schema#\","
+            + "\"$error\":{\"name\":{\"minLength\":{\"code\":\"20001\","
+            + "\"message\":{\"default\":\"{0}长度不能小于{1}\",\"en\":\"{0} must be at least {1} characters\"}}}},"
+            + "\"properties\":{\"name\":{\"type\":\"string\",\"minLength\":2}}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 不同schema中相同的错误信息共用一个模板
+     *
+     * @throws Exception
+     */
+    @Test
+    public void internedAcrossSchemas() throws Exception {
+        JsonNode first;
+        JsonNode second;
+        try (InputStream a = MessageTemplateTest.class.getResourceAsStream("/ErrorMessageSchema.json");
+             InputStream b = MessageTemplateTest.class.getResourceAsStream("/ErrorMessageSchema.json")) {
+            first = objectMapper.readTree(a);
+            second = objectMapper.readTree(b);
+        }
+        MessageTemplate template = ErrorMessageIndex.compile(first).findByPointer("/$error/name/minLength").getTemplate();
+        Assert.assertSame(template, ErrorMessageIndex.compile(second).findByPointer("/$error/name/minLength").getTemplate());
+        Assert.assertSame(template, MessageTemplate.get(template.getId()));
+        Assert.assertSame(template, MessageTemplate.intern("姓名至少两个汉字"));
+    }
+
+    /**
+     * 重写后的消息保存模板文本，读取report时才按参数和locale格式化
+     *
+     * @throws Exception
+     */
+    @Test
+    public void lazyFormatAndLocale() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("template.json");
+        Files.write(file, SCHEMA.getBytes(StandardCharsets.UTF_8));
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaSource(new FileSchemaSource(file));
+        validatorManager.initJsonSchema();
+        JsonNode data = objectMapper.readTree("{\"name\":\"涂\"}");
+
+        Set<ValidationMessage> messages = validatorManager.walk(data, "template", true).getValidationMessages();
+        Assert.assertEquals(1, messages.size());
+        ValidationMessage message = messages.iterator().next();
+        Assert.assertEquals("20001", message.getCode());
+        Assert.assertEquals("{0}长度不能小于{1}", message.getMessage());
+
+        ValidationReport report = validatorManager.report(data, "template");
+        Assert.assertEquals("$.name长度不能小于2", report.getMessage(0));
+        Assert.assertEquals("$.name must be at least 2 characters", report.getMessage(0, Locale.US));
+        Assert.assertEquals("$.name长度不能小于2", report.getMessage(0, Locale.CHINA));
+        Assert.assertEquals("$.name must be at least 2 characters", report.getErrors().get(0).getMessage(Locale.ENGLISH));
+    }
+
+    /**
+     * 模板不放入消息的details，序列化后的消息与重写前的结构相同
+     *
+     * @throws Exception
+     */
+    @Test
+    public void templateNotInDetails() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("template.json");
+        Files.write(file, SCHEMA.getBytes(StandardCharsets.UTF_8));
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaSource(new FileSchemaSource(file));
+        validatorManager.initJsonSchema();
+        ValidationMessage message = validatorManager.walk(objectMapper.readTree("{\"name\":\"涂\"}"), "template", true)
+                .getValidationMessages().iterator().next();
+        Assert.assertTrue(message instanceof TemplatedValidationMessage);
+        Assert.assertSame(((TemplatedValidationMessage) message).getTemplate(), MessageTemplate.of(message));
+        Assert.assertNotNull(MessageTemplate.of(message));
+        Assert.assertTrue(message.getDetails() == null || message.getDetails().isEmpty());
+        Assert.assertFalse(objectMapper.writeValueAsString(message).contains("template"));
+    }
+
+    /**
+     * 只替换{数字}参数，单引号和其它花括号原样输出
+     */
+    @Test
+    public void formatKeepsQuotes() {
+        MessageTemplate template = MessageTemplate.intern("{0} can't be '{1}', see {name} or {9}");
+        Assert.assertEquals("$.a can't be 'x', see {name} or {9}", template.format("$.a", new String[]{"x"}));
+        Assert.assertEquals("it's fine", MessageTemplate.intern("it's fine").format("$.a", null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.regex.CachedPattern;
+import com.github.jerrymice.json.schema.regex.PatternCache;
+import com.github.jerrymice.json.schema.regex.PatternStats;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class PatternCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 线性匹配与java正则的find结果相同
+     */
+    @Test
+    public void linearMatchesJavaRegex() {
+        PatternCache cache = new PatternCache(64, true, Long.MAX_VALUE);
+        String[] regexes = {"^\\d{17}[\\dXx]$", "^1[3-9]\\d{9}$", "^[\\u4e00-\\u9fa5]{2,8}$", "^ORD[0-9]{8}$",
+                "^a*a$", "^[^0-9]+\\.?x{2,}$", "^.?$", "^\\w+@\\w+\\.com$", "^$", "^[-a-c]*\\s?$"};
+        String[] inputs = {"", "a", "aa", "aaa", "x", "ORD12345678", "ORD1234567", "11010519491231002X",
+                "1101051949123100", "13812345678", "12812345678", "涂铭鉴", "涂", "涂铭鉴\n", "abc\r\n", "a\n\n",
+                "ab.xx", "ab.x", "tu@abc.com", "tu@abc.com\n", "\n", "-ab ", "😀", "a😀"};
+        for (String regex : regexes) {
+            CachedPattern pattern = cache.get(regex);
+            Assert.assertTrue(regex, pattern.isLinear());
+            Pattern java = Pattern.compile(regex);
+            for (String input : inputs) {
+                Assert.assertEquals(regex + " " + input, java.matcher(input).find(), pattern.find(input));
+            }
+        }
+        for (String regex : new String[]{"^(a+)+$", "abc$", "^a|b$", "^a+?$", "^\\bword$", "^[a-z&&[^b]]$"}) {
+            Assert.assertFalse(regex, cache.get(regex).isLinear());
+        }
+    }
+
+    /**
+     * 不同schema中相同的pattern共用一个编译结果
+     *
+     * @throws Exception
+     */
+    @Test
+    public void sharedAcrossSchemas() throws Exception {
+        String regex = "^SHARED[0-9]{4}$";
+        SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        JsonSchema first = SchemaManager.getSchema(objectMapper.readTree(schema("https://www.example.com/json/schema/first", regex)), config);
+        JsonSchema second = SchemaManager.getSchema(objectMapper.readTree(schema("https://www.example.com/json/schema/second", regex)), config);
+        Assert.assertTrue(first.validate(objectMapper.readTree("{\"id\":\"SHARED0001\"}")).isEmpty());
+        Set<ValidationMessage> messages = second.validate(objectMapper.readTree("{\"id\":\"SHARED1\"}"));
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("pattern", messages.iterator().next().getType());
+        PatternStats stats = PatternCache.getDefault().get(regex).getStats();
+        Assert.assertEquals(2, stats.getCount());
+        Assert.assertTrue(stats.isLinear());
+    }
+
+    /**
+     * 超过阈值的匹配记为慢匹配
+     */
+    @Test
+    public void slowPatterns() {
+        PatternCache cache = new PatternCache(64, true, 0);
+        cache.get("^(a+)+$").find("aaaaaaaaaaaaaaaaaaaab");
+        cache.get("^[0-9]+$");
+        Assert.assertEquals(1, cache.slowPatterns().size());
+        Assert.assertEquals("^(a+)+$", cache.top(1).get(0).getRegex());
+        cache.resetStats();
+        Assert.assertTrue(cache.slowPatterns().isEmpty());
+    }
+
+    private static String schema(String id, String regex) {
+        return "{\"$id\":\"" + id + "\",\"$schema\":\"https://json-schema.org/draft/2020-12-ext-v1/schema#\","
+                + "\"properties\":{\"id\":{\"type\":\"string\",\"pattern\":\"" + regex.replace("\\", "\\\\") + "\"}}}";
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.github.jerrymice.json.schema.web.ParsedBodyHttpMessageConverter;
+import com.github.jerrymice.json.schema.web.ParsedBodyRequest;
+import com.github.jerrymice.json.schema.web.RequestBodyValidationFilter;
+import com.github.jerrymice.json.schema.web.SchemaRoute;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class RequestBodyValidationFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RequestBodyValidationFilter filter;
+
+    @Before
+    public void init() throws Exception {
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaFilePath("/ErrorMessageSchema.json");
+        validatorManager.initJsonSchema();
+        filter = new RequestBodyValidationFilter(objectMapper,
+                Collections.singletonList(new SchemaRoute("/customers/**", null, validatorManager)));
+    }
+
+    private MockHttpServletRequest request(String method, String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /**
+     * 验证失败时返回$error中定义的code和message
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rejectWithRewrittenError() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("POST", "/customers/1",
+                "{\"name\":\"涂\",\"sex\":false,\"age\":20,\"work\":1,\"city\":\"成都\"}"), response, chain);
+        Assert.assertNull(chain.getRequest());
+        Assert.assertEquals(400, response.getStatus());
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        Assert.assertEquals(1, body.get("errors").size());
+        JsonNode error = body.get("errors").get(0);
+        Assert.assertEquals("minLength", error.get("type").asText());
+        Assert.assertEquals("10003", error.get("code").asText());
+        Assert.assertEquals("姓名至少两个汉字", error.get("message").asText());
+
+        response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/customers/1", "{\"name\":"), response, new MockFilterChain());
+        Assert.assertEquals(400, response.getStatus());
+        Assert.assertEquals(RequestBodyValidationFilter.INVALID_JSON_CODE,
+                objectMapper.readTree(response.getContentAsByteArray()).get("errors").get(0).get("code").asText());
+    }
+
+    /**
+     * 验证通过后HttpMessageConverter直接使用过滤器解析的JsonNode
+     *
+     * @throws Exception
+     */
+    @Test
+    public void passParsedBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("PUT", "/customers/1",
+                "{\"name\":\"涂铭鉴\",\"sex\":false,\"age\":20,\"work\":1,\"city\":\"成都\"}"), response, chain);
+        Assert.assertEquals(200, response.getStatus());
+        HttpServletRequest passed = (HttpServletRequest) chain.getRequest();
+        Assert.assertTrue(passed instanceof ParsedBodyRequest);
+        Assert.assertEquals("成都", ((ParsedBodyRequest) passed).getJsonNode().get("city").asText());
+
+        ParsedBodyHttpMessageConverter converter = new ParsedBodyHttpMessageConverter(objectMapper);
+        CustomerExt customer = (CustomerExt) converter.read(CustomerExt.class, null, new ServletServerHttpRequest(passed));
+        Assert.assertEquals("涂铭鉴", customer.getName());
+        Assert.assertEquals(Integer.valueOf(20), customer.getAge());
+    }
+
+    /**
+     * 不匹配的路由、方法和非json请求不处理
+     *
+     * @throws Exception
+     */
+    @Test
+    public void skipUnmatched() throws Exception {
+        String invalid = "{\"name\":\"涂\"}";
+        MockHttpServletRequest[] requests = {request("POST", "/orders/1", invalid), request("GET", "/customers/1", invalid),
+                request("POST", "/customers/1", invalid)};
+        requests[2].setContentType(MediaType.TEXT_PLAIN_VALUE);
+        for (MockHttpServletRequest request : requests) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            Assert.assertSame(request, chain.getRequest());
+        }
+    }
+
+    /**
+     * 有Accept-Language时按请求的语言返回message，没有时使用默认文本，不使用服务器的locale
+     *
+     * @throws Exception
+     */
+    @Test
+    public void localeFromAcceptLanguage() throws Exception {
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaFilePath("/LocalizedMessageSchema.json");
+        validatorManager.initJsonSchema();
+        RequestBodyValidationFilter localized = new RequestBodyValidationFilter(objectMapper,
+                Collections.singletonList(new SchemaRoute("/customers/**", null, validatorManager)));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        localized.doFilter(request("POST", "/customers/1", "{\"name\":\"涂\"}"), response, new MockFilterChain());
+        Assert.assertEquals("名称至少2个字符",
+                objectMapper.readTree(response.getContentAsByteArray()).get("errors").get(0).get("message").asText());
+
+        MockHttpServletRequest english = request("POST", "/customers/1", "{\"name\":\"涂\"}");
+        english.addHeader(HttpHeaders.ACCEPT_LANGUAGE, "en-US");
+        response = new MockHttpServletResponse();
+        localized.doFilter(english, response, new MockFilterChain());
+        Assert.assertEquals("name can't be shorter than 2 characters",
+                objectMapper.readTree(response.getContentAsByteArray()).get("errors").get(0).get("message").asText());
+    }
+
+    /**
+     * 请求体超过maxBodySize时返回413，不交给后续处理
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rejectTooLarge() throws Exception {
+        ValidatorManager validatorManager = filter.getRoutes().get(0).getValidatorManager();
+        RequestBodyValidationFilter limited = new RequestBodyValidationFilter(objectMapper,
+                Collections.singletonList(new SchemaRoute("/customers/**", null, validatorManager)), 16);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        limited.doFilter(request("POST", "/customers/1", "{\"name\":\"涂铭鉴\",\"age\":20}"), response, chain);
+        Assert.assertNull(chain.getRequest());
+        Assert.assertEquals(413, response.getStatus());
+        Assert.assertEquals(RequestBodyValidationFilter.BODY_TOO_LARGE_CODE,
+                objectMapper.readTree(response.getContentAsByteArray()).get("errors").get(0).get("code").asText());
+
+        //没有Content-Length时按实际读取的字节数判断
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/customers/1") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        chunked.setContent("{\"name\":\"涂铭鉴\",\"age\":20}".getBytes(StandardCharsets.UTF_8));
+        response = new MockHttpServletResponse();
+        limited.doFilter(chunked, response, new MockFilterChain());
+        Assert.assertEquals(413, response.getStatus());
+    }
+
+    /**
+     * 只参与读取请求体，不接管响应的输出
+     */
+    @Test
+    public void converterDoesNotWrite() {
+        ParsedBodyHttpMessageConverter converter = new ParsedBodyHttpMessageConverter(objectMapper);
+        Assert.assertFalse(converter.canWrite(CustomerExt.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canWrite(CustomerExt.class, CustomerExt.class, MediaType.APPLICATION_JSON));
+        Assert.assertTrue(converter.canRead(CustomerExt.class, MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * String、byte[]和Resource参数不读取，交给排在后面的转换器，不会把json读成String时失败
+     */
+    @Test
+    public void converterSkipsRawTypes() {
+        ParsedBodyHttpMessageConverter converter = new ParsedBodyHttpMessageConverter(objectMapper);
+        Assert.assertFalse(converter.canRead(String.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canRead(String.class, null, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canRead(byte[].class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canRead(ByteArrayResource.class, MediaType.APPLICATION_JSON));
+        Assert.assertTrue(converter.canRead(JsonNode.class, null, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.jerrymice.json.schema;
+
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 使用rewriteErrorMessages一次开启错误消息重写，重新执行ErrorJsonSchemaTest的所有用例
+ */
+public class RewriteErrorMessagesTest extends ErrorJsonSchemaTest {
+
+    @Override
+    protected void initValidatorManager() throws Exception {
+        validatorManager.setSchemaValidatorsConfig(validatorManager.createDefaultSchemaValidatorsConfig());
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaFilePath("/ErrorMessageSchema.json");
+        validatorManager.initJsonSchema();
+    }
+
+    /**
+     * 只在定义了错误消息的关键字上注册listener
+     */
+    @Test
+    public void registerOnlyCustomizedKeywords() {
+        SchemaValidatorsConfig config = validatorManager.getSchemaValidatorsConfig();
+        Map<String, List<JsonSchemaWalkListener>> listeners = config.getKeywordWalkListenersMap();
+        JsonSchemaWalkListener listener = validatorManager.getErrorMessageRewriteWalkListener();
+        for (ValidatorTypeCode code : new ValidatorTypeCode[]{ValidatorTypeCode.REQUIRED, ValidatorTypeCode.TYPE,
+                ValidatorTypeCode.MIN_LENGTH, ValidatorTypeCode.MAX_LENGTH, ValidatorTypeCode.MINIMUM,
+                ValidatorTypeCode.MAXIMUM, ValidatorTypeCode.ENUM, ValidatorTypeCode.CONST}) {
+            Assert.assertTrue(code.getValue(), listeners.get(code.getValue()).contains(listener));
+        }
+        for (ValidatorTypeCode code : new ValidatorTypeCode[]{ValidatorTypeCode.PATTERN, ValidatorTypeCode.PROPERTIES,
+                ValidatorTypeCode.ITEMS, ValidatorTypeCode.ONE_OF}) {
+            List<JsonSchemaWalkListener> registered = listeners.get(code.getValue());
+            Assert.assertTrue(code.getValue(), registered == null || !registered.contains(listener));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jerrymice.json.schema.bundle.BundledSchema;
+import com.github.jerrymice.json.schema.bundle.SchemaBundle;
+import com.github.jerrymice.json.schema.bundle.SchemaBundleCompiler;
+import com.github.jerrymice.json.schema.index.ErrorMessageIndex;
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+public class SchemaBundleTest {
+    private static final String CUSTOMER = "https://www.example.com/json/schema/customer";
+    private static final String ORDER_V1 = "https://www.example.com/json/schema/order/1";
+    private static final String ADDRESS = "https://www.example.com/json/schema/address";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path bundleFile;
+
+    @Before
+    public void compile() throws Exception {
+        SchemaRegistry registry = new SchemaRegistry();
+        registry.registerClasspath("registry");
+        try (InputStream in = SchemaBundleTest.class.getResourceAsStream("/ErrorMessageSchema.json")) {
+            registry.register(objectMapper.readTree(in), "classpath:ErrorMessageSchema.json");
+        }
+        bundleFile = folder.getRoot().toPath().resolve("schemas.bundle");
+        Assert.assertEquals(4, new SchemaBundleCompiler(registry).compile(bundleFile));
+    }
+
+    /**
+     * 读取后包括schema树、$ref引用、正则表达式和$error索引
+     *
+     * @throws Exception
+     */
+    @Test
+    public void readBundle() throws Exception {
+        SchemaBundle bundle = SchemaBundle.read(bundleFile);
+        Assert.assertEquals(4, bundle.getSchemas().size());
+        BundledSchema order = bundle.getSchema(ORDER_V1);
+        Assert.assertEquals(Collections.singleton(ADDRESS), order.getRefs());
+        Assert.assertTrue(bundle.getPatterns().contains("^ORD[0-9]{8}$"));
+
+        BundledSchema customer = bundle.getSchema(CUSTOMER);
+        Assert.assertSame(customer.getErrorMessageIndex(), ErrorMessageIndex.forSchemaNode(customer.getSchemaNode()));
+        ErrorMessageIndex compiled = ErrorMessageIndex.compile(customer.getSchemaNode());
+        Assert.assertEquals(compiled.getKeywords(), customer.getErrorMessageIndex().getKeywords());
+        Assert.assertEquals(compiled.getPointerIndex().keySet(), customer.getErrorMessageIndex().getPointerIndex().keySet());
+        Assert.assertEquals(compiled.getExplicitLocations().keySet(), customer.getErrorMessageIndex().getExplicitLocations().keySet());
+    }
+
+    /**
+     * 注册到注册中心后$ref在bundle中查找
+     *
+     * @throws Exception
+     */
+    @Test
+    public void registerTo() throws Exception {
+        SchemaRegistry registry = new SchemaRegistry();
+        Assert.assertEquals(4, SchemaBundle.read(bundleFile).registerTo(registry));
+        JsonNode order = objectMapper.readTree("{\"id\":\"1\",\"address\":{\"city\":\"成\"}}");
+        Set<ValidationMessage> messages = registry.validate(ORDER_V1, order);
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("minLength", messages.iterator().next().getType());
+    }
+
+    /**
+     * ValidatorManager直接使用bundle中的schema和$error索引
+     *
+     * @throws Exception
+     */
+    @Test
+    public void validatorManagerFromBundle() throws Exception {
+        SchemaBundle bundle = SchemaBundle.read(bundleFile);
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaSource(bundle.getSource(CUSTOMER));
+        validatorManager.initJsonSchema();
+        Assert.assertSame(bundle.getSchema(CUSTOMER).getSchemaNode(), validatorManager.getJsonSchema().getSchemaNode());
+        CustomerExt customer = CustomerExt.builder().name("涂").sex(false).age(20).work(1).city("成都").build();
+        Set<ValidationMessage> messages = validatorManager.walk(customer, "bundle", true).getValidationMessages();
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("10003", messages.iterator().next().getCode());
+        Assert.assertEquals("姓名至少两个汉字", messages.iterator().next().getMessage());
+    }
+
+    /**
+     * 直接使用bundle中的schema时，$ref按编译时记录的引用关系在bundle的树中查找
+     *
+     * @throws Exception
+     */
+    @Test
+    public void sourceResolvesRefsFromBundle() throws Exception {
+        SchemaBundle bundle = SchemaBundle.read(bundleFile);
+        ValidatorManager validatorManager = new ValidatorManager();
+        validatorManager.setSchemaSource(bundle.getSource(ORDER_V1));
+        validatorManager.initJsonSchema();
+        Set<ValidationMessage> messages = validatorManager.validate(
+                objectMapper.readTree("{\"id\":\"1\",\"address\":{\"city\":\"成\"}}"), "bundle");
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("minLength", messages.iterator().next().getType());
+        Assert.assertTrue(validatorManager.validate(
+                objectMapper.readTree("{\"id\":\"1\",\"address\":{\"city\":\"成都\"}}"), "bundle").isEmpty());
+    }
+
+    /**
+     * 引用了不存在的schema时构建失败
+     *
+     * @throws Exception
+     */
+    @Test
+    public void brokenRefFailsCompile() throws Exception {
+        SchemaRegistry registry = new SchemaRegistry();
+        registry.register(objectMapper.readTree("{\"$id\":\"https://www.example.com/json/schema/broken\","
+                + "\"$schema\":\"https://json-schema.org/draft/2020-12-ext-v1/schema#\","
+                + "\"properties\":{\"a\":{\"$ref\":\"https://www.example.com/json/schema/missing\"}}}"), "memory:broken");
+        Assert.assertThrows(JsonSchemaException.class,
+                () -> new SchemaBundleCompiler(registry).compile(folder.getRoot().toPath().resolve("broken.bundle")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.cache.LruCache;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.SchemaValidatorsConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+public class SchemaManagerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode readSchema(String path) throws Exception {
+        return objectMapper.readTree(SchemaManagerTest.class.getResourceAsStream(path));
+    }
+
+    /**
+     * 相同的schema内容与配置只编译一次
+     *
+     * @throws Exception
+     */
+    @Test
+    public void sameSchemaCompiledOnce() throws Exception {
+        SchemaValidatorsConfig config = new SchemaValidatorsConfig();
+        CacheStats before = SchemaManager.getSchemaCacheStats();
+        JsonSchema first = SchemaManager.getSchema(readSchema("/CustomerSchema.json"), config);
+        JsonSchema second = SchemaManager.getSchema(readSchema("/CustomerSchema.json"), config);
+        CacheStats after = SchemaManager.getSchemaCacheStats();
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, after.getHitCount() - before.getHitCount());
+        Assert.assertEquals(1, after.getMissCount() - before.getMissCount());
+    }
+
+    /**
+     * 不同的配置各自编译
+     *
+     * @throws Exception
+     */
+    @Test
+    public void differentConfigCompiledSeparately() throws Exception {
+        JsonNode schemaNode = readSchema("/CustomerSchema.json");
+        JsonSchema first = SchemaManager.getSchema(schemaNode, new SchemaValidatorsConfig());
+        JsonSchema second = SchemaManager.getSchema(schemaNode, new SchemaValidatorsConfig());
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test
+    public void factoryShared() {
+        Assert.assertSame(SchemaManager.getJsonSchemaFactory(), SchemaManager.getJsonSchemaFactory());
+        Assert.assertSame(SchemaManager.getJsonSchemaFactory("https://example.com/meta", "a", "b"),
+                SchemaManager.getJsonSchemaFactory("https://example.com/meta", "b", "a"));
+    }
+
+    /**
+     * 按$schema查找不参与验证的关键字，未知的meta-schema按2020-12处理
+     */
+    @Test
+    public void nonValidationKeywords() {
+        SchemaManager.getJsonSchemaFactory();
+        Set<String> keywords = SchemaManager.getNonValidationKeywords("https://json-schema.org/draft/2020-12-ext-v1/schema#");
+        Assert.assertTrue(keywords.containsAll(Arrays.asList(KeyWordExt.ERROR_KEY, KeyWordExt.VERSION_KEY, "else", "title")));
+        Assert.assertFalse(keywords.contains("if"));
+        Assert.assertFalse(SchemaManager.getNonValidationKeywords(null).contains(KeyWordExt.ERROR_KEY));
+        Assert.assertTrue(SchemaManager.getNonValidationKeywords("https://example.com/unknown").contains("$defs"));
+    }
+
+    /**
+     * $error中无效的${..}引用在加载schema时报错
+     *
+     * @throws Exception
+     */
+    @Test(expected = JsonSchemaException.class)
+    public void brokenErrorReferenceFailsAtLoad() throws Exception {
+        ObjectNode schemaNode = (ObjectNode) readSchema("/ErrorMessageSchema.json");
+        ((ObjectNode) schemaNode.get("properties").get("marriage").get("$error")).put("enum", "${/notExists}");
+        SchemaManager.getSchema(schemaNode, new SchemaValidatorsConfig());
+    }
+
+    @Test
+    public void lruEviction() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Assert.assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("1", cache.get("a"));
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.getEvictionCount());
+        Assert.assertEquals(2, stats.getHitCount());
+        Assert.assertEquals(1, stats.getMissCount());
+        Assert.assertEquals(2, stats.getSize());
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.registry.SchemaRegistry;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.PropertiesValidator;
+import com.networknt.schema.RefValidator;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class SchemaRegistryTest {
+    private static final String ADDRESS = "https://www.example.com/json/schema/address";
+    private static final String ORDER_V1 = "https://www.example.com/json/schema/order/1";
+    private static final String ORDER_V2 = "https://www.example.com/json/schema/order/2";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SchemaRegistry registry;
+
+    @Before
+    public void init() throws Exception {
+        registry = new SchemaRegistry();
+        Assert.assertEquals(3, registry.registerClasspath("registry"));
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+
+    @Test
+    public void lookup() {
+        Assert.assertEquals("2", registry.getEntry(ORDER_V2).getVersion());
+        Assert.assertNotNull(registry.getEntry(ORDER_V1 + "#"));
+        Assert.assertSame(registry.getSchema(ORDER_V1), registry.getSchema("订单", "1"));
+        Assert.assertSame(registry.getSchema(ORDER_V2), registry.getLatest("订单"));
+        Assert.assertThrows(JsonSchemaException.class, () -> registry.getSchema("订单", "3"));
+    }
+
+    /**
+     * order通过$ref引用address，address在注册中心中查找
+     *
+     * @throws Exception
+     */
+    @Test
+    public void crossSchemaRef() throws Exception {
+        Set<ValidationMessage> messages = registry.validate(ORDER_V1, json("{\"id\":\"1\",\"address\":{\"city\":\"成\"}}"));
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("minLength", messages.iterator().next().getType());
+        Assert.assertTrue(registry.validate(ORDER_V2, json("{\"id\":\"ORD00000001\",\"address\":{\"city\":\"成都\"}}")).isEmpty());
+    }
+
+    /**
+     * $ref直接使用注册时的schema树，不重新解析
+     */
+    @Test
+    public void refUsesRegisteredTree() {
+        JsonSchema order = registry.getSchema(ORDER_V1);
+        PropertiesValidator properties = (PropertiesValidator) order.getValidators().values().stream()
+                .filter(PropertiesValidator.class::isInstance).findFirst().orElseThrow(AssertionError::new);
+        RefValidator ref = (RefValidator) properties.getSchemas().get("address").getValidators().values().stream()
+                .filter(RefValidator.class::isInstance).findFirst().orElseThrow(AssertionError::new);
+        Assert.assertSame(registry.getEntry(ADDRESS).getSchemaNode(), ref.getSchemaRef().getSchema().getSchemaNode());
+    }
+
+    /**
+     * 重新注册时去掉旧的title索引，id为null时返回null
+     *
+     * @throws Exception
+     */
+    @Test
+    public void reRegisterWithNewTitle() throws Exception {
+        ObjectNode schema = registry.getEntry(ORDER_V2).getSchemaNode().deepCopy();
+        schema.put("title", "新订单");
+        registry.register(schema, "memory:order-v2");
+        Assert.assertSame(registry.getSchema(ORDER_V1), registry.getLatest("订单"));
+        Assert.assertSame(registry.getSchema(ORDER_V2), registry.getLatest("新订单"));
+        Assert.assertThrows(JsonSchemaException.class, () -> registry.getSchema("订单", "2"));
+        Assert.assertNull(registry.getEntry(null));
+    }
+
+    /**
+     * 重复注册被引用的schema后，已编译和之后编译的引用它的schema都使用新的版本
+     *
+     * @throws Exception
+     */
+    @Test
+    public void reRegisterReferenced() throws Exception {
+        JsonNode order = json("{\"id\":\"ORD00000001\",\"address\":{\"city\":\"abc\"}}");
+        Assert.assertTrue(registry.validate(ORDER_V1, order).isEmpty());
+        ObjectNode address = registry.getEntry(ADDRESS).getSchemaNode().deepCopy();
+        ((ObjectNode) address.at("/properties/city")).put("minLength", 5);
+        registry.register(address, "memory:address");
+        Assert.assertEquals(1, registry.validate(ADDRESS, json("{\"city\":\"abc\"}")).size());
+        Assert.assertEquals(1, registry.validate(ORDER_V1, order).size());
+        Assert.assertEquals(1, registry.validate(ORDER_V2, order).size());
+        Assert.assertTrue(registry.getEntry(ORDER_V2).getRefs().contains(ADDRESS));
+    }
+
+    /**
+     * 未注册的$ref直接失败，不访问网络
+     *
+     * @throws Exception
+     */
+    @Test
+    public void unknownRef() throws Exception {
+        ObjectNode schema = (ObjectNode) json("{\"$id\":\"https://www.example.com/json/schema/broken\","
+                + "\"$schema\":\"https://json-schema.org/draft/2020-12-ext-v1/schema#\","
+                + "\"properties\":{\"a\":{\"$ref\":\"https://www.example.com/json/schema/missing\"}}}");
+        registry.register(schema, "memory:broken");
+        Assert.assertThrows(JsonSchemaException.class,
+                () -> registry.validate("https://www.example.com/json/schema/broken", json("{\"a\":1}")));
+    }
+
+    /**
+     * 超过容量后淘汰最久未使用的编译结果，再次使用时重新编译
+     *
+     * @throws Exception
+     */
+    @Test
+    public void evictRarelyUsed() throws Exception {
+        registry = new SchemaRegistry(objectMapper, null, 1);
+        registry.registerClasspath("/registry/");
+        JsonSchema first = registry.getSchema(ORDER_V1);
+        registry.getSchema(ADDRESS);
+        JsonSchema second = registry.getSchema(ORDER_V1);
+        Assert.assertNotSame(first, second);
+        CacheStats stats = registry.getCompiledCacheStats();
+        Assert.assertEquals(2, stats.getEvictionCount());
+        Assert.assertEquals(1, stats.getSize());
+    }
+}
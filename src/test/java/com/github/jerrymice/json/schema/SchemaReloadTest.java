@@ -0,0 +1,157 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.model.Customer;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.github.jerrymice.json.schema.reload.ReloadStats;
+import com.github.jerrymice.json.schema.reload.SchemaReloader;
+import com.github.jerrymice.json.schema.source.FileSchemaSource;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+
+public class SchemaReloadTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path schemaFile;
+    private ObjectNode schemaNode;
+    private ValidatorManager validatorManager;
+
+    @Before
+    public void init() throws Exception {
+        schemaNode = (ObjectNode) objectMapper.readTree(SchemaReloadTest.class.getResourceAsStream("/CustMetaSchema.json"));
+        schemaFile = temporaryFolder.getRoot().toPath().resolve("CustMetaSchema.json");
+        write(schemaNode);
+        validatorManager = new ValidatorManager(new FileSchemaSource(schemaFile), null);
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    /**
+     * 先写临时文件再替换，避免监听线程读到一半的内容
+     *
+     * @param node
+     * @throws Exception
+     */
+    private void write(ObjectNode node) throws Exception {
+        Path tmp = temporaryFolder.getRoot().toPath().resolve("schema.tmp");
+        objectMapper.writeValue(tmp.toFile(), node);
+        Files.move(tmp, schemaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Customer customer() {
+        return Customer.builder().name("涂铭鉴").age(100).sex(true).marriage(0).build();
+    }
+
+    /**
+     * age的最大值改为50
+     *
+     * @return
+     */
+    private ObjectNode stricterSchema() {
+        ObjectNode stricter = schemaNode.deepCopy();
+        ((ObjectNode) stricter.get("properties").get("age")).put("maximum", 50);
+        return stricter;
+    }
+
+    @Test
+    public void reloadSwapsSnapshot() throws Exception {
+        CompiledSchema before = validatorManager.getCompiledSchema();
+        Assert.assertTrue(validatorManager.validate(customer(), "修改前").isEmpty());
+        write(stricterSchema());
+        CompiledSchema after = validatorManager.reload();
+        Assert.assertNotSame(before, after);
+        Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+        Assert.assertEquals(1, validatorManager.validate(customer(), "修改后").size());
+        //旧快照仍然可以完成验证
+        Assert.assertTrue(before.getJsonSchema().validate(objectMapper.valueToTree(customer())).isEmpty());
+        ReloadStats stats = validatorManager.getReloadStats();
+        Assert.assertEquals(1, stats.getReloadCount());
+        Assert.assertEquals(after.getVersion(), stats.getVersion());
+        Assert.assertTrue(stats.getLastReloadNanos() > 0);
+    }
+
+    @Test
+    public void unchangedContentKeepsVersion() throws Exception {
+        CompiledSchema before = validatorManager.getCompiledSchema();
+        Assert.assertSame(before, validatorManager.reload());
+    }
+
+    /**
+     * 重写的关键字变化后使用新的配置副本，旧的listener不会留在新配置上，用户的配置不变
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rewriteKeywordsFollowReload() throws Exception {
+        SchemaValidatorsConfig userConfig = validatorManager.createDefaultSchemaValidatorsConfig();
+        validatorManager = new ValidatorManager();
+        validatorManager.setSchemaSource(new FileSchemaSource(schemaFile));
+        validatorManager.setSchemaValidatorsConfig(userConfig);
+        validatorManager.setRewriteErrorMessages(true);
+        ObjectNode withError = stricterSchema();
+        ((ObjectNode) withError.get("properties").get("age")).putObject("$error").putObject("maximum")
+                .put("code", "1002").put("message", "年龄不能超过50");
+        write(withError);
+        JsonSchemaWalkListener listener = validatorManager.getErrorMessageRewriteWalkListener();
+        SchemaValidatorsConfig first = validatorManager.getCompiledSchema().getSchemaValidatorsConfig();
+        Assert.assertTrue(first.getKeywordWalkListenersMap().get("maximum").contains(listener));
+
+        write(stricterSchema());
+        SchemaValidatorsConfig second = validatorManager.reload().getSchemaValidatorsConfig();
+        Assert.assertNotSame(first, second);
+        Assert.assertFalse(second.getKeywordWalkListenersMap().getOrDefault("maximum", Collections.emptyList()).contains(listener));
+        Assert.assertTrue(userConfig.getKeywordWalkListenersMap().isEmpty());
+        Assert.assertSame(second, validatorManager.reload().getSchemaValidatorsConfig());
+    }
+
+    /**
+     * $error引用无效时保留旧版本
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rollbackOnCompileFailure() throws Exception {
+        CompiledSchema before = validatorManager.getCompiledSchema();
+        ObjectNode broken = stricterSchema();
+        ((ObjectNode) broken.get("properties").get("age")).put("$error", "${/notExists}");
+        write(broken);
+        try {
+            validatorManager.reload();
+            Assert.fail();
+        } catch (JsonSchemaException e) {
+            //expected
+        }
+        Assert.assertSame(before, validatorManager.getCompiledSchema());
+        Assert.assertTrue(validatorManager.validate(customer(), "回滚").isEmpty());
+        ReloadStats stats = validatorManager.getReloadStats();
+        Assert.assertEquals(1, stats.getFailureCount());
+        Assert.assertNotNull(stats.getLastFailure());
+    }
+
+    @Test
+    public void watchFileChange() throws Exception {
+        long version = validatorManager.getCompiledSchema().getVersion();
+        try (SchemaReloader ignored = SchemaReloader.start(validatorManager, new FileSchemaSource(schemaFile))) {
+            write(stricterSchema());
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (validatorManager.getCompiledSchema().getVersion() == version && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+        Assert.assertEquals(version + 1, validatorManager.getCompiledSchema().getVersion());
+        Assert.assertEquals(1, validatorManager.validate(customer(), "监听修改").size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.github.jerrymice.json.schema.stream.ArrayValidationResult;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class StreamingArrayValidationTest {
+    private ValidatorManager validatorManager;
+    private ArrayNode orders;
+
+    @Before
+    public void init() throws Exception {
+        validatorManager = new ValidatorManager();
+        SchemaValidatorsConfig config = validatorManager.createDefaultSchemaValidatorsConfig();
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener();
+        config.addKeywordWalkListener(ValidatorTypeCode.PATTERN.getValue(), listener);
+        config.addKeywordWalkListener(ValidatorTypeCode.MINIMUM.getValue(), listener);
+        validatorManager.setSchemaValidatorsConfig(config);
+        validatorManager.setSchemaFilePath("/OrderArraySchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        validatorManager.initJsonSchema();
+
+        orders = validatorManager.getObjectMapper().createArrayNode();
+        orders.addObject().put("id", "ORD00000001").put("amount", 10);
+        orders.addObject().put("id", "X1").put("amount", 10);
+        orders.addObject().put("id", "ORD00000003").put("amount", 0);
+        orders.addObject().put("id", "ORD00000004").put("amount", 10);
+    }
+
+    private ByteArrayInputStream ordersStream() throws Exception {
+        return new ByteArrayInputStream(validatorManager.getObjectMapper().writeValueAsBytes(orders));
+    }
+
+    /**
+     * 每个元素按items验证，失败信息的路径带有数组下标
+     *
+     * @throws Exception
+     */
+    @Test
+    public void validateEachItem() throws Exception {
+        List<Set<ValidationMessage>> results = new ArrayList<>();
+        ArrayValidationResult result = validatorManager.validateArray(ordersStream(), "流式验证", false,
+                (index, item, messages) -> results.add(messages));
+        Assert.assertEquals(4, result.getItemCount());
+        Assert.assertEquals(2, result.getFailureCount());
+        Assert.assertTrue(results.get(0).isEmpty());
+        Assert.assertEquals("$[1].id", results.get(1).iterator().next().getPath());
+        Assert.assertEquals("$[2].amount", results.get(2).iterator().next().getPath());
+        Assert.assertTrue(results.get(3).isEmpty());
+    }
+
+    /**
+     * walk模式下重写验证消息
+     *
+     * @throws Exception
+     */
+    @Test
+    public void walkRewritesMessages() throws Exception {
+        List<String> codes = new ArrayList<>();
+        validatorManager.validateArray(ordersStream(), "流式验证", true, (index, item, messages) -> {
+            messages.forEach(message -> codes.add(message.getCode()));
+            return true;
+        });
+        Assert.assertEquals(2, codes.size());
+        Assert.assertEquals("20002", codes.get(0));
+        Assert.assertEquals("20005", codes.get(1));
+    }
+
+    @Test
+    public void stopByListener() throws Exception {
+        ArrayValidationResult result = validatorManager.validateArray(ordersStream(), "流式验证", false,
+                (index, item, messages) -> messages.isEmpty());
+        Assert.assertTrue(result.isStopped());
+        Assert.assertEquals(2, result.getItemCount());
+    }
+
+    /**
+     * 与整个文档验证的结果一致，2020-12的items在整个文档验证时同样生效
+     *
+     * @throws Exception
+     */
+    @Test
+    public void sameAsTreeValidation() throws Exception {
+        Set<ValidationMessage> treeMessages = validatorManager.validate(orders, "整体验证");
+        List<ValidationMessage> streamMessages = new ArrayList<>();
+        validatorManager.validateArray(ordersStream(), "流式验证", false, (index, item, messages) -> {
+            streamMessages.addAll(messages);
+            return true;
+        });
+        Assert.assertEquals(2, treeMessages.size());
+        Assert.assertEquals(treeMessages, new HashSet<>(streamMessages));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void rejectNonArray() throws Exception {
+        JsonNode order = orders.get(0);
+        validatorManager.validateArray(new ByteArrayInputStream(order.toString().getBytes()), "流式验证", false,
+                (index, item, messages) -> true);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.github.jerrymice.json.schema.metrics.InMemoryValidationMetrics;
+import com.github.jerrymice.json.schema.metrics.MicrometerValidationMetrics;
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.event.Level;
+
+public class ValidationMetricsTest {
+    private static final String SCHEMA = "https://www.example.com/json/schema/customer";
+    private ValidatorManager validatorManager;
+
+    @Before
+    public void init() {
+        validatorManager = new ValidatorManager();
+        validatorManager.setSchemaFilePath("/ErrorMessageSchema.json");
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+    }
+
+    private CustomerExt validCustomer() {
+        return CustomerExt.builder().name("涂铭鉴").work(1).city("成都").sex(true).age(20).build();
+    }
+
+    private CustomerExt invalidCustomer() {
+        return CustomerExt.builder().name("涂").work(1).city("成成成").sex(true).age(-1).build();
+    }
+
+    @Test
+    public void inMemory() throws Exception {
+        InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+        validatorManager.setValidationMetrics(metrics);
+        validatorManager.validate(validCustomer(), "valid");
+        validatorManager.walk(invalidCustomer(), "invalid", true);
+        Assert.assertEquals(2, metrics.getConversion(SCHEMA).getCount());
+        Assert.assertEquals(2, metrics.getEvaluation(SCHEMA).getCount());
+        Assert.assertTrue(metrics.getEvaluation(SCHEMA).getMaxNanos() > 0);
+        Assert.assertEquals(1, metrics.getInvalidCount(SCHEMA));
+        //按重写后的$error错误码计数
+        Assert.assertEquals(1, metrics.getMessageCount(SCHEMA, "minLength", "10003"));
+        Assert.assertEquals(1, metrics.getMessageCount(SCHEMA, "minimum", "1001"));
+        Assert.assertEquals(1, metrics.getMessageCount("const"));
+    }
+
+    @Test
+    public void rewriteFailure() throws Exception {
+        InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener((walkEvent, source) -> {
+            throw new IllegalStateException("rewrite failed");
+        });
+        listener.setLoggerLevel(Level.INFO);
+        validatorManager.setErrorMessageRewriteWalkListener(listener);
+        validatorManager.setValidationMetrics(metrics);
+        validatorManager.walk(invalidCustomer(), "invalid", true);
+        //同一个schema节点上的后续关键字会再次尝试重写仍是原始消息的错误
+        Assert.assertTrue(metrics.getRewriteFailureCount("minLength") >= 1);
+        Assert.assertTrue(metrics.getRewriteFailureCount("minimum") >= 1);
+        Assert.assertEquals(0, metrics.getRewriteFailureCount("required"));
+    }
+
+    @Test
+    public void micrometer() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        validatorManager.setValidationMetrics(new MicrometerValidationMetrics(registry));
+        validatorManager.validate(validCustomer(), "valid");
+        validatorManager.walk(invalidCustomer(), "invalid", true);
+        Assert.assertEquals(2, registry.get(MicrometerValidationMetrics.CONVERSION).tag("schema", SCHEMA).timer().count());
+        Assert.assertEquals(1, registry.get(MicrometerValidationMetrics.EVALUATION).tag("result", "invalid").timer().count());
+        Assert.assertEquals(1.0, registry.get(MicrometerValidationMetrics.MESSAGES)
+                .tags("type", "minLength", "code", "10003").counter().count(), 0);
+        validatorManager.walk(invalidCustomer(), "invalid", true);
+        Assert.assertEquals(2.0, registry.get(MicrometerValidationMetrics.MESSAGES)
+                .tags("type", "minLength", "code", "10003").counter().count(), 0);
+    }
+
+    /**
+     * 直接设置的schema没有$id时使用default
+     *
+     * @throws Exception
+     */
+    @Test
+    public void defaultSchemaName() throws Exception {
+        InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+        validatorManager = new ValidatorManager();
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        validatorManager.setValidationMetrics(metrics);
+        validatorManager.setJsonSchema(SchemaManager.getSchema(validatorManager.getObjectMapper().readTree("{\"type\":\"string\"}"),
+                validatorManager.createDefaultSchemaValidatorsConfig()));
+        validatorManager.validate(1, "default");
+        Assert.assertEquals(1, metrics.getEvaluation("default").getCount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.listener.ErrorMessageRewriteWalkListener;
+import com.github.jerrymice.json.schema.mode.ErrorBudgetWalkListener;
+import com.github.jerrymice.json.schema.mode.ValidationMode;
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import com.networknt.schema.walk.JsonSchemaWalkListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ValidationModeTest {
+    private final ValidatorManager validatorManager = new ValidatorManager();
+    private SchemaValidatorsConfig config;
+
+    @Before
+    public void init() throws Exception {
+        config = validatorManager.createDefaultSchemaValidatorsConfig();
+        ErrorMessageRewriteWalkListener listener = new ErrorMessageRewriteWalkListener();
+        EnumSet<ValidatorTypeCode> excludeKeywords = EnumSet.of(ValidatorTypeCode.PROPERTIES, ValidatorTypeCode.NOT,
+                ValidatorTypeCode.NOT_ALLOWED, ValidatorTypeCode.ONE_OF, ValidatorTypeCode.ALL_OF, ValidatorTypeCode.ANY_OF);
+        Arrays.stream(ValidatorTypeCode.values()).filter(code -> !excludeKeywords.contains(code))
+                .forEach(code -> config.addKeywordWalkListener(code.getValue(), listener));
+        validatorManager.setSchemaValidatorsConfig(config);
+        validatorManager.setSchemaFilePath("/ErrorMessageSchema.json");
+        validatorManager.initJsonSchema();
+    }
+
+    /**
+     * name、age、city三个属性验证失败
+     *
+     * @return
+     */
+    private CustomerExt invalidCustomer() {
+        return CustomerExt.builder().name("涂").sex(true).age(-1).work(1).city("成成成").build();
+    }
+
+    @Test
+    public void fullMode() throws Exception {
+        ValidationMode mode = ValidationMode.FULL;
+        Set<ValidationMessage> messages = validatorManager.walk(invalidCustomer(), "FULL", mode).getValidationMessages();
+        Assert.assertEquals(3, messages.size());
+        Assert.assertEquals(validatorManager.validate(invalidCustomer(), "FULL").size(),
+                validatorManager.validate(invalidCustomer(), "FULL", mode).size());
+    }
+
+    /**
+     * 出现第一个错误后结束，并且不重写验证消息
+     *
+     * @throws Exception
+     */
+    @Test
+    public void booleanMode() throws Exception {
+        Set<ValidationMessage> messages = validatorManager.validate(invalidCustomer(), "BOOLEAN", ValidationMode.BOOLEAN);
+        Assert.assertEquals(1, messages.size());
+        Assert.assertTrue(MessageKey.isRaw(messages.iterator().next()));
+        Assert.assertFalse(validatorManager.isValid(invalidCustomer(), "BOOLEAN"));
+        CustomerExt valid = CustomerExt.builder().name("涂铭鉴").sex(true).age(20).work(1).city("成都").build();
+        Assert.assertTrue(validatorManager.isValid(valid, "BOOLEAN"));
+    }
+
+    @Test
+    public void maxErrorsMode() throws Exception {
+        Set<ValidationMessage> messages = validatorManager.validate(invalidCustomer(), "maxErrors", ValidationMode.maxErrors(2));
+        Assert.assertEquals(2, messages.size());
+        messages.forEach(message -> Assert.assertFalse(MessageKey.isRaw(message)));
+    }
+
+    /**
+     * 不同模式交替使用同一个编译好的schema，互不影响
+     *
+     * @throws Exception
+     */
+    @Test
+    public void modesShareSchema() throws Exception {
+        Assert.assertEquals(1, validatorManager.validate(invalidCustomer(), "BOOLEAN", ValidationMode.BOOLEAN).size());
+        Set<ValidationMessage> messages = validatorManager.walk(invalidCustomer(), "walk", true).getValidationMessages();
+        Assert.assertEquals(3, messages.size());
+        messages.forEach(message -> Assert.assertFalse(MessageKey.isRaw(message)));
+    }
+
+    /**
+     * 错误预算只注册在配置的副本上，用户的配置不变
+     *
+     * @throws Exception
+     */
+    @Test
+    public void keepUserConfig() throws Exception {
+        validatorManager.validate(invalidCustomer(), "maxErrors", ValidationMode.maxErrors(1));
+        Assert.assertNotSame(config, validatorManager.getSchemaValidatorsConfig());
+        for (List<JsonSchemaWalkListener> listeners : config.getKeywordWalkListenersMap().values()) {
+            Assert.assertFalse(listeners.contains(ErrorBudgetWalkListener.INSTANCE));
+        }
+        for (List<JsonSchemaWalkListener> listeners : validatorManager.getSchemaValidatorsConfig().getKeywordWalkListenersMap().values()) {
+            Assert.assertFalse(listeners.contains(ErrorBudgetWalkListener.INSTANCE));
+        }
+    }
+
+    /**
+     * 超过上限时每次保留相同的错误
+     *
+     * @throws Exception
+     */
+    @Test
+    public void deterministicLimit() throws Exception {
+        Set<ValidationMessage> expected = validatorManager.validate(invalidCustomer(), "maxErrors", ValidationMode.maxErrors(2));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(expected, validatorManager.validate(invalidCustomer(), "maxErrors", ValidationMode.maxErrors(2)));
+        }
+    }
+
+    /**
+     * oneOf中失败的分支不计入预算，不会跳过之后的属性
+     *
+     * @throws Exception
+     */
+    @Test
+    public void compositeBranchNotCounted() throws Exception {
+        ValidatorManager manager = new ValidatorManager();
+        manager.setSchemaValidatorsConfig(config);
+        manager.setSchemaFilePath("/ErrorBudgetSchema.json");
+        manager.initJsonSchema();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("a", 5);
+        data.put("b", "s");
+        Assert.assertEquals(1, manager.validate(data, "FULL").size());
+        Assert.assertFalse(manager.isValid(data, "BOOLEAN"));
+        Set<ValidationMessage> messages = manager.validate(data, "maxErrors", ValidationMode.maxErrors(1));
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("$.b", messages.iterator().next().getPath());
+        data.put("b", 1);
+        Assert.assertTrue(manager.isValid(data, "BOOLEAN"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxErrors() {
+        ValidationMode.maxErrors(0);
+    }
+}
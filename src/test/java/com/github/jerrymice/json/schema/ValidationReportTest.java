@@ -0,0 +1,77 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.mode.ValidationMode;
+import com.github.jerrymice.json.schema.model.CustomerExt;
+import com.github.jerrymice.json.schema.report.ValidationError;
+import com.github.jerrymice.json.schema.report.ValidationReport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidationReportTest {
+    private final ValidatorManager validatorManager = new ValidatorManager();
+
+    @Before
+    public void init() throws Exception {
+        validatorManager.setRewriteErrorMessages(true);
+        validatorManager.setSchemaFilePath("/ErrorMessageSchema.json");
+        validatorManager.initJsonSchema();
+    }
+
+    /**
+     * 验证通过时返回共享的VALID
+     *
+     * @throws Exception
+     */
+    @Test
+    public void validIsSingleton() throws Exception {
+        CustomerExt customer = CustomerExt.builder().name("涂铭鉴").sex(false).age(20).work(1).city("成都").build();
+        Assert.assertSame(ValidationReport.VALID, validatorManager.report(customer, "valid"));
+        Assert.assertSame(ValidationReport.VALID, validatorManager.report(customer, "valid", ValidationMode.BOOLEAN));
+        Assert.assertSame(ValidationReport.VALID, ValidationReport.of(null));
+        Assert.assertTrue(ValidationReport.VALID.getErrors().isEmpty());
+    }
+
+    /**
+     * 按下标读取重写后的code与message
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rewrittenErrors() throws Exception {
+        CustomerExt customer = CustomerExt.builder().name("涂").sex(false).age(200).work(1).city("成都").build();
+        ValidationReport report = validatorManager.report(customer, "invalid");
+        Assert.assertFalse(report.isValid());
+        Assert.assertEquals(2, report.size());
+        for (int i = 0; i < report.size(); i++) {
+            if ("minLength".equals(report.getKeyword(i))) {
+                Assert.assertEquals("$.name", report.getPath(i));
+                Assert.assertEquals("10003", report.getCode(i));
+                Assert.assertEquals("姓名至少两个汉字", report.getMessage(i));
+            } else {
+                Assert.assertEquals("maximum", report.getKeyword(i));
+                Assert.assertEquals("【通用】年龄必须小于110", report.getMessage(i));
+            }
+        }
+        int count = 0;
+        for (ValidationError error : report) {
+            Assert.assertSame(report.getMessageRef(count++), error.getMessageRef());
+        }
+        Assert.assertEquals(report.size(), count);
+        Assert.assertEquals(1, validatorManager.report(customer, "invalid", ValidationMode.maxErrors(1)).size());
+    }
+
+    /**
+     * 不重写时与validate的结果相同
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rawErrors() throws Exception {
+        ValidatorManager raw = new ValidatorManager("/ErrorMessageSchema.json");
+        CustomerExt customer = CustomerExt.builder().name("涂").sex(false).age(20).work(1).city("成都").build();
+        ValidationReport report = raw.report(customer, "raw");
+        Assert.assertEquals(raw.validate(customer, "raw"), report.toValidationMessages());
+        Assert.assertEquals("1017", report.getCode(0));
+    }
+}
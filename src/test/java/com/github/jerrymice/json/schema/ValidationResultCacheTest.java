@@ -0,0 +1,159 @@
+package com.github.jerrymice.json.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jerrymice.json.schema.cache.CacheStats;
+import com.github.jerrymice.json.schema.cache.ContentHash;
+import com.github.jerrymice.json.schema.cache.ValidationResultCache;
+import com.github.jerrymice.json.schema.observer.NoopValidationObserver;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+public class ValidationResultCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ValidatorManager validatorManager;
+
+    @Before
+    public void init() throws Exception {
+        validatorManager = new ValidatorManager("/CustMetaSchema.json");
+        validatorManager.setValidationObserver(NoopValidationObserver.INSTANCE);
+        validatorManager.setResultCache(new ValidationResultCache(16, Duration.ofMinutes(1)));
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+
+    @Test
+    public void contentHash() throws Exception {
+        Assert.assertEquals(ContentHash.hash(json("{\"a\":1,\"b\":[1,2]}")), ContentHash.hash(json("{\"b\":[1,2],\"a\":1}")));
+        Assert.assertNotEquals(ContentHash.hash(json("{\"b\":[1,2]}")), ContentHash.hash(json("{\"b\":[2,1]}")));
+        Assert.assertNotEquals(ContentHash.hash(json("{\"a\":\"1\"}")), ContentHash.hash(json("{\"a\":1}")));
+    }
+
+    /**
+     * 属性顺序不同的相同内容只验证一次
+     *
+     * @throws Exception
+     */
+    @Test
+    public void hitIdenticalPayload() throws Exception {
+        Set<ValidationMessage> first = validatorManager.validate(json("{\"name\":\"涂铭鉴\",\"age\":-2,\"sex\":true}"), "first");
+        Set<ValidationMessage> second = validatorManager.validate(json("{\"sex\":true,\"age\":-2,\"name\":\"涂铭鉴\"}"), "second");
+        Assert.assertFalse(first.isEmpty());
+        Assert.assertEquals(first, second);
+        CacheStats stats = validatorManager.getResultCache().stats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(1, stats.getMissCount());
+    }
+
+    /**
+     * 命中和未命中时都返回只读的结果
+     *
+     * @throws Exception
+     */
+    @Test
+    public void readOnlyResult() throws Exception {
+        JsonNode node = json("{\"name\":\"涂铭鉴\",\"age\":-2,\"sex\":true}");
+        Set<ValidationMessage> miss = validatorManager.validate(node, "miss");
+        Set<ValidationMessage> hit = validatorManager.validate(node, "hit");
+        Assert.assertSame(miss, hit);
+        Assert.assertThrows(UnsupportedOperationException.class, miss::clear);
+    }
+
+    /**
+     * 缓存保存的是副本，修改原来的数据后不会命中
+     *
+     * @throws Exception
+     */
+    @Test
+    public void mutatedPayloadMisses() throws Exception {
+        ObjectNode node = (ObjectNode) json("{\"name\":\"涂铭鉴\",\"age\":20,\"sex\":true}");
+        Assert.assertTrue(validatorManager.validate(node, "valid").isEmpty());
+        node.put("age", -2);
+        Assert.assertFalse(validatorManager.validate(node, "invalid").isEmpty());
+        Assert.assertEquals(0, validatorManager.getResultCache().stats().getHitCount());
+    }
+
+    @Test
+    public void clearedOnSchemaSwap() throws Exception {
+        JsonNode node = json("{\"name\":\"涂铭鉴\",\"age\":20,\"sex\":true}");
+        validatorManager.validate(node, "before");
+        Assert.assertEquals(1, validatorManager.getResultCache().size());
+        validatorManager.setJsonSchema(validatorManager.getJsonSchema());
+        Assert.assertEquals(0, validatorManager.getResultCache().size());
+        validatorManager.validate(node, "after");
+        Assert.assertEquals(0, validatorManager.getResultCache().stats().getHitCount());
+    }
+
+    @Test
+    public void ttlAndLru() throws Exception {
+        ValidationResultCache cache = new ValidationResultCache(1, Duration.ofMillis(50));
+        validatorManager.setResultCache(cache);
+        JsonNode first = json("{\"name\":\"涂铭鉴\",\"age\":20,\"sex\":true}");
+        JsonNode second = json("{\"name\":\"涂铭鉴\",\"age\":21,\"sex\":true}");
+        validatorManager.validate(first, "first");
+        validatorManager.validate(second, "second");
+        validatorManager.validate(first, "first");
+        Assert.assertEquals(0, cache.stats().getHitCount());
+        Assert.assertEquals(2, cache.stats().getEvictionCount());
+        Thread.sleep(100);
+        validatorManager.validate(first, "expired");
+        Assert.assertEquals(0, cache.stats().getHitCount());
+        Assert.assertEquals(3, cache.stats().getEvictionCount());
+    }
+
+    /**
+     * 超过字节上限时淘汰最久未使用的结果，超过上限的单个内容不缓存
+     *
+     * @throws Exception
+     */
+    @Test
+    public void maximumBytes() throws Exception {
+        JsonNode first = json("{\"name\":\"涂铭鉴\",\"age\":20,\"sex\":true}");
+        JsonNode second = json("{\"name\":\"涂铭鉴\",\"age\":21,\"sex\":true}");
+        ValidationResultCache probe = new ValidationResultCache(16, null);
+        validatorManager.setResultCache(probe);
+        validatorManager.validate(first, "probe");
+        long bytes = probe.bytes();
+        Assert.assertTrue(bytes > 0);
+
+        ValidationResultCache cache = new ValidationResultCache(16, bytes * 3 / 2, null);
+        validatorManager.setResultCache(cache);
+        validatorManager.validate(first, "first");
+        validatorManager.validate(second, "second");
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.stats().getEvictionCount());
+        validatorManager.validate(second, "second");
+        Assert.assertEquals(1, cache.stats().getHitCount());
+
+        cache = new ValidationResultCache(16, bytes / 2, null);
+        validatorManager.setResultCache(cache);
+        validatorManager.validate(first, "first");
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.bytes());
+    }
+
+    /**
+     * 直接使用缓存时，内容相同才命中，不同版本互不影响
+     *
+     * @throws Exception
+     */
+    @Test
+    public void equalContentOnly() throws Exception {
+        ValidationResultCache cache = validatorManager.getResultCache();
+        Set<ValidationMessage> valid = cache.computeIfAbsent(1, json("{\"a\":1,\"b\":2}"), node -> Collections.emptySet());
+        Assert.assertSame(valid, cache.computeIfAbsent(1, json("{\"b\":2,\"a\":1}"), node -> {
+            throw new AssertionError("should hit");
+        }));
+        Assert.assertNotSame(valid, cache.computeIfAbsent(1, json("{\"a\":1,\"b\":2.0}"), node -> Collections.emptySet()));
+        Assert.assertNotSame(valid, cache.computeIfAbsent(2, json("{\"a\":1,\"b\":2}"), node -> Collections.emptySet()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.jerrymice.json.schema;
+
+import com.github.jerrymice.json.schema.model.Customer;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ValidatorManagerConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    /**
+     * 多个线程同时触发首次验证，schema只能编译一次，且所有线程看到同一个完整的快照
+     *
+     * @throws Exception
+     */
+    @Test
+    public void concurrentFirstValidationCompilesOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                ValidatorManager validatorManager = new ValidatorManager();
+                validatorManager.setSchemaValidatorsConfig(validatorManager.createDefaultSchemaValidatorsConfig());
+                validatorManager.setSchemaFilePath("/CustMetaSchema.json");
+                long missBefore = SchemaManager.getSchemaCacheStats().getMissCount();
+
+                CyclicBarrier barrier = new CyclicBarrier(THREADS);
+                List<Future<JsonSchema>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        barrier.await();
+                        Customer customer = Customer.builder().name("涂铭鉴").age(-2).sex(true).marriage(0).build();
+                        Set<ValidationMessage> result = validatorManager.validate(customer, "并发验证");
+                        Assert.assertEquals(1, result.size());
+                        Assert.assertNotNull(validatorManager.getSchemaValidatorsConfig());
+                        return validatorManager.getJsonSchema();
+                    }));
+                }
+                JsonSchema first = futures.get(0).get(30, TimeUnit.SECONDS);
+                for (Future<JsonSchema> future : futures) {
+                    Assert.assertSame(first, future.get(30, TimeUnit.SECONDS));
+                }
+                Assert.assertEquals(1, SchemaManager.getSchemaCacheStats().getMissCount() - missBefore);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 通过构造函数创建时立即编译
+     *
+     * @throws Exception
+     */
+    @Test
+    public void eagerWarmUp() throws Exception {
+        ValidatorManager validatorManager = new ValidatorManager("/CustMetaSchema.json");
+        Assert.assertNotNull(validatorManager.getJsonSchema());
+        Assert.assertNotNull(validatorManager.getSchemaValidatorsConfig());
+    }
+}